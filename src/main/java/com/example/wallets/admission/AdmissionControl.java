@@ -0,0 +1,147 @@
+package com.example.wallets.admission;
+
+import com.example.wallets.config.AdmissionProperties;
+import com.example.wallets.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission in front of the wallet service. Reads and writes have separate adaptive in-flight
+ * limits, so balance checks keep working while writes are saturated, and writes are also
+ * capped per wallet. A request over any limit fails fast with {@link TooManyRequestsException}
+ * before any of its pipeline is assembled.
+ */
+@Component
+public class AdmissionControl {
+
+    private final AdmissionProperties properties;
+    private final AimdLimiter reads;
+    private final AimdLimiter writes;
+    private final ConcurrentHashMap<UUID, Integer> walletInFlight = new ConcurrentHashMap<>();
+    private final Rejection readsRejected;
+    private final Rejection writesRejected;
+    private final Rejection walletRejected;
+
+    public AdmissionControl(AdmissionProperties properties, ObjectProvider<MeterRegistry> registry) {
+        this.properties = properties;
+        this.reads = new AimdLimiter(properties.getReads());
+        this.writes = new AimdLimiter(properties.getWrites());
+
+        MeterRegistry meterRegistry = registry.getIfAvailable(() -> Metrics.globalRegistry);
+        registerGauges(meterRegistry, "reads", reads);
+        registerGauges(meterRegistry, "writes", writes);
+        long retryAfterSeconds = Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000);
+        this.readsRejected = new Rejection(meterRegistry, "reads",
+                new TooManyRequestsException("Too many concurrent reads", retryAfterSeconds));
+        this.writesRejected = new Rejection(meterRegistry, "writes",
+                new TooManyRequestsException("Too many concurrent operations", retryAfterSeconds));
+        this.walletRejected = new Rejection(meterRegistry, "wallet",
+                new TooManyRequestsException("Too many concurrent operations on this wallet", retryAfterSeconds));
+    }
+
+    public <T> Mono<T> read(Supplier<Mono<T>> call) {
+        return admit(reads, readsRejected, null, call);
+    }
+
+    public <T> Mono<T> write(UUID walletId, Supplier<Mono<T>> call) {
+        return admit(writes, writesRejected, walletId, call);
+    }
+
+    /**
+     * A stream takes one write permit for its whole duration. Its latency says nothing about
+     * database health, so it does not feed the limit.
+     */
+    public <T> Flux<T> writeStream(Supplier<Flux<T>> call) {
+        if (!properties.isEnabled()) {
+            return Flux.defer(call);
+        }
+        return Flux.defer(() -> {
+            if (!writes.tryAcquire()) {
+                return writesRejected.<T>signal().flux();
+            }
+            return Flux.defer(call).doFinally(signal -> writes.releaseWithoutSample());
+        });
+    }
+
+    private <T> Mono<T> admit(AimdLimiter limiter, Rejection rejection, UUID walletId, Supplier<Mono<T>> call) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            if (!limiter.tryAcquire()) {
+                return rejection.signal();
+            }
+            if (walletId != null && !acquireWallet(walletId)) {
+                limiter.releaseWithoutSample();
+                return walletRejected.signal();
+            }
+            long started = System.nanoTime();
+            return Mono.defer(call).doFinally(signal -> {
+                if (walletId != null) {
+                    releaseWallet(walletId);
+                }
+                if (signal == SignalType.CANCEL) {
+                    limiter.releaseWithoutSample();
+                } else {
+                    limiter.release(System.nanoTime() - started);
+                }
+            });
+        });
+    }
+
+    private boolean acquireWallet(UUID walletId) {
+        if (walletInFlight.merge(walletId, 1, Integer::sum) > properties.getPerWalletLimit()) {
+            releaseWallet(walletId);
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseWallet(UUID walletId) {
+        walletInFlight.computeIfPresent(walletId, (id, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static void registerGauges(MeterRegistry registry, String budget, AimdLimiter limiter) {
+        Gauge.builder("wallet.admission.limit", limiter, AimdLimiter::getLimit)
+                .description("Current adaptive in-flight limit")
+                .tag("budget", budget)
+                .register(registry);
+        Gauge.builder("wallet.admission.in.flight", limiter, AimdLimiter::getInFlight)
+                .description("Requests currently admitted")
+                .tag("budget", budget)
+                .register(registry);
+    }
+
+    /**
+     * The exception is created once per limit and reused, so shedding a request costs a counter
+     * increment and an error signal.
+     */
+    private static final class Rejection {
+        private final Counter counter;
+        private final TooManyRequestsException exception;
+
+        private Rejection(MeterRegistry registry, String limit, TooManyRequestsException exception) {
+            this.counter = Counter.builder("wallet.admission.rejected")
+                    .description("Requests shed by admission control")
+                    .tag("limit", limit)
+                    .register(registry);
+            this.exception = exception;
+        }
+
+        private <T> Mono<T> signal() {
+            counter.increment();
+            return Mono.error(exception);
+        }
+    }
+}
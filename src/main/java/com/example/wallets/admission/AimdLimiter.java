@@ -0,0 +1,82 @@
+package com.example.wallets.admission;
+
+import com.example.wallets.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight limiter with additive increase and multiplicative decrease, driven by the latency
+ * of completed requests. Acquiring is a lock-free CAS; only the limit update on release
+ * synchronizes.
+ * <p>
+ * The limit backs off at most once per round trip: a slow request that was already in flight
+ * when the limit last decreased measured the load from before that decrease, so it does not
+ * shrink the limit again. Without that, one slow burst would collapse the limit to its minimum.
+ */
+class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+    private volatile int currentLimit;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    AimdLimiter(AdmissionProperties.Budget budget) {
+        this.minLimit = budget.getMinLimit();
+        this.maxLimit = Math.max(budget.getMaxLimit(), minLimit);
+        this.latencyThresholdNanos = budget.getLatencyThreshold().toNanos();
+        this.backoffRatio = budget.getBackoffRatio();
+        this.limit = Math.min(Math.max(budget.getInitialLimit(), minLimit), maxLimit);
+        this.currentLimit = (int) limit;
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases a permit and feeds the request's latency to the limit.
+     */
+    void release(long latencyNanos) {
+        int before = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                if (!decreased || now - latencyNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreased = true;
+                    lastDecreaseNanos = now;
+                }
+            } else if (before * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    /**
+     * Releases a permit without a latency sample, for cancelled requests.
+     */
+    void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return currentLimit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
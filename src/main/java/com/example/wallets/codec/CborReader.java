@@ -0,0 +1,187 @@
+package com.example.wallets.codec;
+
+import org.springframework.core.codec.DecodingException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Reads the CBOR items written by {@link CborWriter}, in any valid head encoding. Anything that
+ * is not needed can be skipped, except indefinite-length items, which are rejected.
+ */
+final class CborReader {
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int BYTES = 2;
+    private static final int TEXT = 3;
+    private static final int ARRAY = 4;
+    private static final int MAP = 5;
+    private static final int TAG = 6;
+    private static final int SIMPLE = 7;
+    private static final int NULL = 0xF6;
+    private static final int MAX_DEPTH = 32;
+
+    private final byte[] data;
+    private int position;
+
+    CborReader(byte[] data) {
+        this.data = data;
+    }
+
+    int map() {
+        return (int) length(MAP);
+    }
+
+    /**
+     * Reads a text string and returns its index in {@code names}, UTF-8 encoded, or -1 if it is
+     * none of them, without decoding it to a string. Used for map keys and enum constants.
+     */
+    int oneOf(byte[][] names) {
+        int length = (int) length(TEXT);
+        int start = position;
+        advance(length);
+        for (int i = 0; i < names.length; i++) {
+            if (Arrays.equals(data, start, start + length, names[i], 0, names[i].length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean nextIsNull() {
+        if (position < data.length && (data[position] & 0xFF) == NULL) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    String text() {
+        int length = (int) length(TEXT);
+        int start = position;
+        advance(length);
+        return new String(data, start, length, StandardCharsets.UTF_8);
+    }
+
+    UUID uuid() {
+        if (length(BYTES) != 16) {
+            throw new DecodingException("Invalid CBOR: a UUID must be 16 bytes");
+        }
+        long most = readLong();
+        long least = readLong();
+        return new UUID(most, least);
+    }
+
+    long integer() {
+        int major = peekMajor();
+        if (major != UNSIGNED && major != NEGATIVE) {
+            throw new DecodingException("Invalid CBOR: expected an integer");
+        }
+        long value = head();
+        if (value < 0) {
+            throw new DecodingException("Invalid CBOR: integer out of range");
+        }
+        return major == UNSIGNED ? value : -1 - value;
+    }
+
+    void skip() {
+        skip(0);
+    }
+
+    private void skip(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new DecodingException("Invalid CBOR: nested too deeply");
+        }
+        int major = peekMajor();
+        long value = head();
+        switch (major) {
+            case BYTES, TEXT -> advance(checkedLength(value));
+            case ARRAY, MAP -> {
+                long items = major == MAP ? 2L * checkedLength(value) : checkedLength(value);
+                for (long i = 0; i < items; i++) {
+                    skip(depth + 1);
+                }
+            }
+            case TAG -> skip(depth + 1);
+            default -> {
+            }
+        }
+    }
+
+    void end() {
+        if (position != data.length) {
+            throw new DecodingException("Invalid CBOR: unexpected data after the item");
+        }
+    }
+
+    private long length(int major) {
+        if (peekMajor() != major) {
+            throw new DecodingException("Invalid CBOR: expected major type " + major + " at offset " + position);
+        }
+        return checkedLength(head());
+    }
+
+    private int checkedLength(long length) {
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new DecodingException("Invalid CBOR: length out of range");
+        }
+        return (int) length;
+    }
+
+    private int peekMajor() {
+        if (position >= data.length) {
+            throw new DecodingException("Invalid CBOR: unexpected end of data");
+        }
+        return (data[position] & 0xFF) >>> 5;
+    }
+
+    /**
+     * Consumes an initial byte and its argument. For major type 7 the argument of a float is
+     * skipped and zero returned.
+     */
+    private long head() {
+        int initial = data[position++] & 0xFF;
+        int major = initial >>> 5;
+        int info = initial & 0x1F;
+        if (info < 24) {
+            return info;
+        }
+        int bytes = switch (info) {
+            case 24 -> 1;
+            case 25 -> 2;
+            case 26 -> 4;
+            case 27 -> 8;
+            default -> throw new DecodingException(info == 31
+                    ? "Invalid CBOR: indefinite-length items are not supported"
+                    : "Invalid CBOR: reserved additional information " + info);
+        };
+        ensure(bytes);
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = value << 8 | data[position++] & 0xFF;
+        }
+        return major == SIMPLE ? 0 : value;
+    }
+
+    private long readLong() {
+        ensure(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | data[position++] & 0xFF;
+        }
+        return value;
+    }
+
+    private void advance(int length) {
+        ensure(length);
+        position += length;
+    }
+
+    private void ensure(int length) {
+        if (length > data.length - position) {
+            throw new DecodingException("Invalid CBOR: unexpected end of data");
+        }
+    }
+}
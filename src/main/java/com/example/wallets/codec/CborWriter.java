@@ -0,0 +1,120 @@
+package com.example.wallets.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Writes the subset of CBOR (RFC 8949) the wallet schemas use: definite-length maps, text and
+ * byte strings, integers and null, always in the shortest head encoding.
+ */
+final class CborWriter {
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int BYTES = 2;
+    private static final int TEXT = 3;
+    private static final int MAP = 5;
+    private static final int NULL = 0xF6;
+
+    private byte[] buffer = new byte[64];
+    private int size;
+
+    /**
+     * Encodes a text string once, so constant map keys can be copied with {@link #raw(byte[])}.
+     */
+    static byte[] textItem(String text) {
+        CborWriter writer = new CborWriter();
+        writer.text(text);
+        return writer.toByteArray();
+    }
+
+    CborWriter map(int entries) {
+        head(MAP, entries);
+        return this;
+    }
+
+    CborWriter raw(byte[] item) {
+        ensure(item.length);
+        System.arraycopy(item, 0, buffer, size, item.length);
+        size += item.length;
+        return this;
+    }
+
+    CborWriter text(String text) {
+        if (text == null) {
+            return nul();
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        head(TEXT, bytes.length);
+        return raw(bytes);
+    }
+
+    /**
+     * A UUID as a 16-byte string, most significant byte first.
+     */
+    CborWriter uuid(UUID uuid) {
+        if (uuid == null) {
+            return nul();
+        }
+        head(BYTES, 16);
+        putLong(uuid.getMostSignificantBits());
+        putLong(uuid.getLeastSignificantBits());
+        return this;
+    }
+
+    CborWriter integer(long value) {
+        if (value >= 0) {
+            head(UNSIGNED, value);
+        } else {
+            head(NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    CborWriter nul() {
+        ensure(1);
+        buffer[size++] = (byte) NULL;
+        return this;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void head(int major, long value) {
+        int type = major << 5;
+        ensure(9);
+        if (value < 24) {
+            buffer[size++] = (byte) (type | value);
+        } else if (value < 0x100) {
+            buffer[size++] = (byte) (type | 24);
+            buffer[size++] = (byte) value;
+        } else if (value < 0x10000) {
+            buffer[size++] = (byte) (type | 25);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        } else if (value < 0x100000000L) {
+            buffer[size++] = (byte) (type | 26);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        } else {
+            buffer[size++] = (byte) (type | 27);
+            putLong(value);
+        }
+    }
+
+    private void putLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
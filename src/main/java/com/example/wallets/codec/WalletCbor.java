@@ -0,0 +1,182 @@
+package com.example.wallets.codec;
+
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.response.ErrorResponse;
+import com.example.wallets.money.Money;
+import org.springframework.core.codec.DecodingException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * CBOR schemas of the single-wallet API, for {@code application/cbor} clients. Each DTO is a
+ * map with the same keys as its JSON form. A wallet ID is a 16-byte string, an amount the
+ * integer count of minor units of {@link Money} (tenths) and a type the enum name. Like the
+ * JSON codecs, readers skip unknown keys and accept nulls, so validation stays in the service.
+ */
+public final class WalletCbor {
+
+    private static final byte[] WALLET_ID = CborWriter.textItem("walletId");
+    private static final byte[] TYPE = CborWriter.textItem("type");
+    private static final byte[] AMOUNT = CborWriter.textItem("amount");
+    private static final byte[] ERROR = CborWriter.textItem("error");
+    private static final byte[] MESSAGE = CborWriter.textItem("message");
+
+    private static final byte[][] REQUEST_KEYS = utf8("walletId", "type", "amount");
+    private static final byte[][] RESPONSE_KEYS = utf8("walletId", "amount");
+    private static final byte[][] ERROR_KEYS = utf8("error", "message");
+    private static final OperationType[] TYPES = OperationType.values();
+    private static final byte[][] TYPE_NAMES = utf8(names(TYPES));
+    private static final byte[][] TYPE_ITEMS = items(names(TYPES));
+
+    private WalletCbor() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return type == WalletRequest.class || type == WalletResponse.class || type == ErrorResponse.class;
+    }
+
+    public static byte[] encode(Object value) {
+        CborWriter writer = new CborWriter();
+        if (value instanceof WalletResponse response) {
+            writer.map(2)
+                    .raw(WALLET_ID).uuid(response.getWalletId())
+                    .raw(AMOUNT);
+            amount(writer, response.getAmount());
+        } else if (value instanceof WalletRequest request) {
+            writer.map(3)
+                    .raw(WALLET_ID).uuid(request.getWalletId())
+                    .raw(TYPE);
+            if (request.getType() == null) {
+                writer.nul();
+            } else {
+                writer.raw(TYPE_ITEMS[request.getType().ordinal()]);
+            }
+            writer.raw(AMOUNT);
+            amount(writer, request.getAmount());
+        } else if (value instanceof ErrorResponse error) {
+            writer.map(2)
+                    .raw(ERROR).text(error.getError())
+                    .raw(MESSAGE).text(error.getMessage());
+        } else {
+            throw new IllegalArgumentException("No CBOR schema for " + value.getClass().getName());
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * @throws DecodingException if the data is not a single CBOR map of the expected schema
+     */
+    public static <T> T decode(byte[] data, Class<T> type) {
+        CborReader reader = new CborReader(data);
+        Object value;
+        if (type == WalletRequest.class) {
+            value = readRequest(reader);
+        } else if (type == WalletResponse.class) {
+            value = readResponse(reader);
+        } else if (type == ErrorResponse.class) {
+            value = readError(reader);
+        } else {
+            throw new IllegalArgumentException("No CBOR schema for " + type.getName());
+        }
+        reader.end();
+        return type.cast(value);
+    }
+
+    private static WalletRequest readRequest(CborReader reader) {
+        UUID walletId = null;
+        OperationType type = null;
+        Money amount = null;
+        for (int i = reader.map(); i > 0; i--) {
+            int key = reader.oneOf(REQUEST_KEYS);
+            if (key < 0) {
+                reader.skip();
+            } else if (!reader.nextIsNull()) {
+                switch (key) {
+                    case 0 -> walletId = reader.uuid();
+                    case 1 -> type = readType(reader);
+                    default -> amount = Money.ofMinorUnits(reader.integer());
+                }
+            }
+        }
+        return new WalletRequest(walletId, type, amount);
+    }
+
+    private static WalletResponse readResponse(CborReader reader) {
+        UUID walletId = null;
+        Money amount = null;
+        for (int i = reader.map(); i > 0; i--) {
+            int key = reader.oneOf(RESPONSE_KEYS);
+            if (key < 0) {
+                reader.skip();
+            } else if (!reader.nextIsNull()) {
+                if (key == 0) {
+                    walletId = reader.uuid();
+                } else {
+                    amount = Money.ofMinorUnits(reader.integer());
+                }
+            }
+        }
+        return new WalletResponse(walletId, amount);
+    }
+
+    private static ErrorResponse readError(CborReader reader) {
+        String error = null;
+        String message = null;
+        for (int i = reader.map(); i > 0; i--) {
+            int key = reader.oneOf(ERROR_KEYS);
+            if (key < 0) {
+                reader.skip();
+            } else if (!reader.nextIsNull()) {
+                if (key == 0) {
+                    error = reader.text();
+                } else {
+                    message = reader.text();
+                }
+            }
+        }
+        return new ErrorResponse(error, message);
+    }
+
+    private static OperationType readType(CborReader reader) {
+        int type = reader.oneOf(TYPE_NAMES);
+        if (type < 0) {
+            throw new DecodingException("Invalid CBOR: unknown operation type");
+        }
+        return TYPES[type];
+    }
+
+    private static void amount(CborWriter writer, Money amount) {
+        if (amount == null) {
+            writer.nul();
+        } else {
+            writer.integer(amount.getMinorUnits());
+        }
+    }
+
+    private static String[] names(OperationType[] types) {
+        String[] names = new String[types.length];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].name();
+        }
+        return names;
+    }
+
+    private static byte[][] utf8(String... names) {
+        byte[][] bytes = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static byte[][] items(String[] names) {
+        byte[][] items = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            items[i] = CborWriter.textItem(names[i]);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.wallets.codec;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDataBufferDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+
+/**
+ * Reads the DTOs covered by {@link WalletCbor} from {@code application/cbor} bodies, which are
+ * joined into one buffer first, up to the usual in-memory limit.
+ */
+public class WalletCborDecoder extends AbstractDataBufferDecoder<Object> {
+
+    public WalletCborDecoder() {
+        super(MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return WalletCbor.supports(elementType.toClass()) && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Object decode(DataBuffer buffer, ResolvableType targetType, MimeType mimeType, Map<String, Object> hints) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return WalletCbor.decode(bytes, targetType.toClass());
+    }
+}
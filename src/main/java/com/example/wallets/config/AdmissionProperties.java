@@ -0,0 +1,104 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Most operations one wallet may have in flight at once. Requests beyond that would only
+     * queue on the wallet's row lock.
+     */
+    private int perWalletLimit = 32;
+    private final Budget reads = new Budget();
+    private final Budget writes = new Budget();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public int getPerWalletLimit() {
+        return perWalletLimit;
+    }
+
+    public void setPerWalletLimit(int perWalletLimit) {
+        this.perWalletLimit = perWalletLimit;
+    }
+
+    public Budget getReads() {
+        return reads;
+    }
+
+    public Budget getWrites() {
+        return writes;
+    }
+
+    /**
+     * An AIMD in-flight limit: it grows by one per limit's worth of fast completions and is
+     * multiplied by {@code backoffRatio} whenever a request takes longer than
+     * {@code latencyThreshold}.
+     */
+    public static class Budget {
+        private int initialLimit = 100;
+        private int minLimit = 10;
+        private int maxLimit = 1000;
+        private Duration latencyThreshold = Duration.ofMillis(200);
+        private double backoffRatio = 0.9;
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+}
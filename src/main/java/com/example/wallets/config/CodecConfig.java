@@ -0,0 +1,30 @@
+package com.example.wallets.config;
+
+import com.example.wallets.codec.WalletCborDecoder;
+import com.example.wallets.codec.WalletCborEncoder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Adds {@code application/cbor} next to JSON for the single-wallet endpoints. Custom writers
+ * are consulted before Jackson, so a request without an {@code Accept} header, or with
+ * {@code *}{@code /*}, is treated as preferring JSON to keep it the default.
+ */
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new WalletCborEncoder());
+        configurer.customCodecs().register(new WalletCborDecoder());
+    }
+
+    @Override
+    public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
+        builder.headerResolver();
+        builder.fixedResolver(MediaType.APPLICATION_JSON, MediaType.ALL);
+    }
+}
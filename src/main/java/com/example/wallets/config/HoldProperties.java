@@ -0,0 +1,72 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.holds")
+public class HoldProperties {
+    private Duration defaultTtl = Duration.ofMinutes(15);
+    private Duration maxTtl = Duration.ofDays(7);
+    private Duration tick = Duration.ofSeconds(1);
+    private int wheelSize = 2048;
+    private int loadBatchSize = 10000;
+    private int expiryBatchSize = 500;
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getMaxTtl() {
+        return maxTtl;
+    }
+
+    public void setMaxTtl(Duration maxTtl) {
+        this.maxTtl = maxTtl;
+    }
+
+    public Duration getTick() {
+        return tick;
+    }
+
+    public void setTick(Duration tick) {
+        this.tick = tick;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+
+    public int getLoadBatchSize() {
+        return loadBatchSize;
+    }
+
+    public void setLoadBatchSize(int loadBatchSize) {
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public int getExpiryBatchSize() {
+        return expiryBatchSize;
+    }
+
+    public void setExpiryBatchSize(int expiryBatchSize) {
+        this.expiryBatchSize = expiryBatchSize;
+    }
+
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.ledger")
+public class LedgerProperties {
+    private int batchSize = 500;
+    private Duration maxLinger = Duration.ofMillis(10);
+    private Duration retryDelay = Duration.ofMillis(100);
+    private Duration maxRetryDelay = Duration.ofSeconds(10);
+    private Duration snapshotInterval = Duration.ofMinutes(1);
+    private int snapshotBatchSize = 100_000;
+
+    /**
+     * How long operations already covered by a snapshot are kept. Compaction is off when unset.
+     */
+    private Duration retention;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getMaxLinger() {
+        return maxLinger;
+    }
+
+    public void setMaxLinger(Duration maxLinger) {
+        this.maxLinger = maxLinger;
+    }
+
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(Duration retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public Duration getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    public void setMaxRetryDelay(Duration maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public int getSnapshotBatchSize() {
+        return snapshotBatchSize;
+    }
+
+    public void setSnapshotBatchSize(int snapshotBatchSize) {
+        this.snapshotBatchSize = snapshotBatchSize;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.lookup")
+public class LookupProperties {
+    private boolean coalesce = true;
+    private int maxBatchSize = 256;
+    private Duration maxLinger = Duration.ofMillis(1);
+    private int maxWalletIds = 1000;
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getMaxLinger() {
+        return maxLinger;
+    }
+
+    public void setMaxLinger(Duration maxLinger) {
+        this.maxLinger = maxLinger;
+    }
+
+    public int getMaxWalletIds() {
+        return maxWalletIds;
+    }
+
+    public void setMaxWalletIds(int maxWalletIds) {
+        this.maxWalletIds = maxWalletIds;
+    }
+}
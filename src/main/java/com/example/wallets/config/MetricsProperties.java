@@ -0,0 +1,31 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.metrics")
+public class MetricsProperties {
+
+    /**
+     * Number of wallets tracked by the hot-wallet sketch.
+     */
+    private int hotWallets = 32;
+    private Duration hotWalletsDecayInterval = Duration.ofMinutes(1);
+
+    public int getHotWallets() {
+        return hotWallets;
+    }
+
+    public void setHotWallets(int hotWallets) {
+        this.hotWallets = hotWallets;
+    }
+
+    public Duration getHotWalletsDecayInterval() {
+        return hotWalletsDecayInterval;
+    }
+
+    public void setHotWalletsDecayInterval(Duration hotWalletsDecayInterval) {
+        this.hotWalletsDecayInterval = hotWalletsDecayInterval;
+    }
+}
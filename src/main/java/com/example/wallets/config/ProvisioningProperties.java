@@ -0,0 +1,126 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.provisioning")
+public class ProvisioningProperties {
+
+    /**
+     * Whether {@code POST /wallets/provision} is served. It creates wallets with arbitrary
+     * balances, so it is off unless a deployment opts in; the seeder does not need it.
+     */
+    private boolean endpointEnabled = false;
+
+    /**
+     * Most wallets one provisioning request may create.
+     */
+    private long maxCount = 1_000_000;
+    private boolean copy = true;
+    private int chunkSize = 10000;
+    private int insertBatchSize = 500;
+    private int concurrency = 4;
+    private Duration progressInterval = Duration.ofSeconds(1);
+    private final Seed seed = new Seed();
+
+    public boolean isEndpointEnabled() {
+        return endpointEnabled;
+    }
+
+    public void setEndpointEnabled(boolean endpointEnabled) {
+        this.endpointEnabled = endpointEnabled;
+    }
+
+    public long getMaxCount() {
+        return maxCount;
+    }
+
+    public void setMaxCount(long maxCount) {
+        this.maxCount = maxCount;
+    }
+
+    public boolean isCopy() {
+        return copy;
+    }
+
+    public void setCopy(boolean copy) {
+        this.copy = copy;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+
+    public void setInsertBatchSize(int insertBatchSize) {
+        this.insertBatchSize = insertBatchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(Duration progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+
+    public Seed getSeed() {
+        return seed;
+    }
+
+    public static class Seed {
+        private long count = 0;
+        private BigDecimal minBalance = BigDecimal.ZERO;
+        private BigDecimal maxBalance;
+        private boolean exit = false;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public BigDecimal getMinBalance() {
+            return minBalance;
+        }
+
+        public void setMinBalance(BigDecimal minBalance) {
+            this.minBalance = minBalance;
+        }
+
+        public BigDecimal getMaxBalance() {
+            return maxBalance;
+        }
+
+        public void setMaxBalance(BigDecimal maxBalance) {
+            this.maxBalance = maxBalance;
+        }
+
+        public boolean isExit() {
+            return exit;
+        }
+
+        public void setExit(boolean exit) {
+            this.exit = exit;
+        }
+    }
+}
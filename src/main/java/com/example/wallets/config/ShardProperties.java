@@ -0,0 +1,118 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shard 0 is the database configured under {@code spring.r2dbc}; {@code shards} lists the
+ * others in order. Shards may only be appended: while wallets move to added shards,
+ * {@code previous-count} holds the shard count they were placed with.
+ */
+@ConfigurationProperties(prefix = "wallet.sharding")
+public class ShardProperties {
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+    private Integer previousCount;
+    private int maxSize = 10;
+    private Duration maxAcquireTime = Duration.ofSeconds(3);
+    private Duration rebalanceInterval = Duration.ofMinutes(1);
+    private int rebalanceBatchSize = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public Integer getPreviousCount() {
+        return previousCount;
+    }
+
+    public void setPreviousCount(Integer previousCount) {
+        this.previousCount = previousCount;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxAcquireTime() {
+        return maxAcquireTime;
+    }
+
+    public void setMaxAcquireTime(Duration maxAcquireTime) {
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    public Duration getRebalanceInterval() {
+        return rebalanceInterval;
+    }
+
+    public void setRebalanceInterval(Duration rebalanceInterval) {
+        this.rebalanceInterval = rebalanceInterval;
+    }
+
+    public int getRebalanceBatchSize() {
+        return rebalanceBatchSize;
+    }
+
+    public void setRebalanceBatchSize(int rebalanceBatchSize) {
+        this.rebalanceBatchSize = rebalanceBatchSize;
+    }
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String jdbcUrl;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getJdbcUrl() {
+            return jdbcUrl;
+        }
+
+        public void setJdbcUrl(String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.wallets.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "wallet.operations")
+public class WalletOperationProperties {
+
+    /**
+     * DIRECT runs every operation as its own statement, BATCHED coalesces operations on the
+     * same wallet into one write per micro-batch.
+     */
+    private Mode mode = Mode.DIRECT;
+    private final Batch batch = new Batch();
+    private final Stream stream = new Stream();
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public enum Mode {
+        DIRECT,
+        BATCHED
+    }
+
+    public static class Batch {
+        private int maxSize = 64;
+        private Duration maxLinger = Duration.ofMillis(2);
+        private int maxQueues = 10_000;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxLinger() {
+            return maxLinger;
+        }
+
+        public void setMaxLinger(Duration maxLinger) {
+            this.maxLinger = maxLinger;
+        }
+
+        public int getMaxQueues() {
+            return maxQueues;
+        }
+
+        public void setMaxQueues(int maxQueues) {
+            this.maxQueues = maxQueues;
+        }
+    }
+
+    /**
+     * Chunking of the NDJSON operations endpoint: each chunk is one multi-row transaction, and
+     * at most {@code concurrency} chunks are in flight per upload.
+     */
+    public static class Stream {
+        private int chunkSize = 256;
+        private int concurrency = 4;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+}
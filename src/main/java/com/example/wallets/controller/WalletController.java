@@ -1,33 +1,189 @@
 package com.example.wallets.controller;
 
+import com.example.wallets.admission.AdmissionControl;
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.TransferRequest;
+import com.example.wallets.dto.request.WalletProvisionRequest;
 import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.CacheStatsResponse;
+import com.example.wallets.dto.response.HoldResponse;
+import com.example.wallets.dto.response.ProvisioningResponse;
+import com.example.wallets.dto.response.TransferResponse;
+import com.example.wallets.dto.response.WalletOperationPage;
+import com.example.wallets.dto.response.WalletOperationResult;
 import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import com.example.wallets.service.WalletExporter;
 import com.example.wallets.service.WalletServiceImpl;
 import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1")
 public class WalletController extends BaseLoggerService {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final WalletServiceImpl service;
+    private final AdmissionControl admission;
+    private final StreamProperties streamProperties;
 
-    public WalletController(WalletServiceImpl service) {
+    public WalletController(WalletServiceImpl service, AdmissionControl admission, StreamProperties streamProperties) {
         this.service = service;
+        this.admission = admission;
+        this.streamProperties = streamProperties;
     }
 
     @GetMapping("/wallets/{walletId}")
     public Mono<WalletResponse> getWalletByUuid(@PathVariable("walletId") UUID walletId) {
         logger.info("Request to get wallet with id: {}", walletId);
-        return service.getWalletByUuid(walletId);
+        return admission.read(() -> service.getWalletByUuid(walletId));
+    }
+
+    /**
+     * Server-sent events with the current balance first and then every change. Comments are
+     * sent as a heartbeat so idle streams are not closed by proxies. Like the export, streams
+     * bypass admission control.
+     */
+    @GetMapping(value = "/wallets/{walletId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<WalletResponse>> streamWallet(@PathVariable("walletId") UUID walletId) {
+        logger.info("Request to stream balance of wallet with id: {}", walletId);
+        Flux<ServerSentEvent<WalletResponse>> heartbeats = Flux.interval(streamProperties.getHeartbeat())
+                .map(tick -> ServerSentEvent.<WalletResponse>builder().comment("heartbeat").build());
+        return service.streamWallet(walletId)
+                .map(response -> ServerSentEvent.builder(response).event("balance").build())
+                .mergeWith(heartbeats);
+    }
+
+    @PostMapping("/wallets/balances")
+    public Mono<List<WalletResponse>> getWalletBalances(@RequestBody List<UUID> walletIds) {
+        logger.info("Request to get balances of {} wallets", walletIds == null ? 0 : walletIds.size());
+        return admission.read(() -> service.getWalletsByUuids(walletIds).collectList());
+    }
+
+    @GetMapping("/wallets/{walletId}/operations")
+    public Mono<WalletOperationPage> getWalletOperations(@PathVariable("walletId") UUID walletId,
+                                                         @RequestParam(value = "before", required = false) Long before,
+                                                         @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        logger.info("Request to get operations of wallet with id: {}", walletId);
+        return admission.read(() -> service.getOperationsByWallet(walletId, before, limit));
+    }
+
+    /**
+     * Bulk export for reconciliation. It bypasses admission control: a long stream would hold a
+     * read permit for its whole duration, and it reads one chunk at a time anyway.
+     */
+    @GetMapping("/wallets/export")
+    public ResponseEntity<Flux<String>> exportWallets(
+            @RequestParam(value = "format", defaultValue = "NDJSON") WalletExporter.Format format,
+            @RequestParam(value = "updatedSince", required = false) Instant updatedSince) {
+        logger.info("Request to export wallets as {}", format);
+        return ResponseEntity.ok()
+                .contentType(format == WalletExporter.Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(service.exportWallets(format, updatedSince));
+    }
+
+    @GetMapping("/wallets/cache/stats")
+    public CacheStatsResponse getCacheStats() {
+        return service.getCacheStats();
     }
 
     @PostMapping("/wallet")
-    public Mono<WalletResponse> postWalletOperation(@RequestBody WalletRequest request) {
+    public Mono<WalletResponse> postWalletOperation(@RequestBody WalletRequest request,
+                                                    @RequestHeader(value = "Idempotency-Key", required = false)
+                                                    String idempotencyKey) {
         logger.info("Processing json file and balance operation");
-        return service.createOperationByWallet(request);
+        UUID walletId = request == null ? null : request.getWalletId();
+        if (idempotencyKey != null) {
+            return admission.write(walletId, () -> service.createOperationByWallet(request, idempotencyKey));
+        }
+        return admission.write(walletId, () -> service.createOperationByWallet(request));
+    }
+
+    @PostMapping("/wallets/transfers")
+    public Mono<TransferResponse> postTransfer(@RequestBody(required = false) TransferRequest request) {
+        logger.info("Processing transfer between wallets");
+        UUID fromWalletId = request == null ? null : request.getFromWalletId();
+        return admission.write(fromWalletId, () -> service.transfer(request));
+    }
+
+    /**
+     * Reserves {@code amount} of the wallet's available balance for {@code ttlSeconds}, after
+     * which the hold is released unless it was captured.
+     */
+    @PostMapping("/wallets/{walletId}/holds")
+    public Mono<HoldResponse> postHold(@PathVariable("walletId") UUID walletId,
+                                       @RequestBody HoldRequest request) {
+        logger.info("Request to hold funds of wallet with id: {}", walletId);
+        return admission.write(walletId, () -> service.placeHold(walletId, request));
+    }
+
+    @PostMapping("/wallets/{walletId}/holds/{holdId}/capture")
+    public Mono<HoldResponse> captureHold(@PathVariable("walletId") UUID walletId,
+                                          @PathVariable("holdId") UUID holdId,
+                                          @RequestBody(required = false) HoldRequest request) {
+        logger.info("Request to capture hold {} of wallet with id: {}", holdId, walletId);
+        return admission.write(walletId, () -> service.captureHold(walletId, holdId, request));
+    }
+
+    @PostMapping("/wallets/{walletId}/holds/{holdId}/release")
+    public Mono<HoldResponse> releaseHold(@PathVariable("walletId") UUID walletId,
+                                          @PathVariable("holdId") UUID holdId) {
+        logger.info("Request to release hold {} of wallet with id: {}", holdId, walletId);
+        return admission.write(walletId, () -> service.releaseHold(walletId, holdId));
+    }
+
+    /**
+     * The body is read line by line, so a line that fails to decode is reported in its own
+     * result while the rest of the stream is applied.
+     */
+    @PostMapping(value = "/wallets/operations",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<WalletOperationResult> postWalletOperations(@RequestBody Flux<String> lines) {
+        logger.info("Processing stream of balance operations");
+        return admission.writeStream(() -> service.createOperationsByWalletLines(lines));
+    }
+
+    /**
+     * Creates {@code count} wallets with random IDs and balances between the bounds. Like the
+     * export, provisioning bypasses admission control; it is off unless
+     * {@code wallet.provisioning.endpoint-enabled} is set, and bounded by {@code max-count}.
+     */
+    @PostMapping(value = "/wallets/provision", params = "count")
+    public Mono<ProvisioningResponse> provisionWallets(
+            @RequestParam("count") long count,
+            @RequestParam(value = "minBalance", defaultValue = "0") BigDecimal minBalance,
+            @RequestParam(value = "maxBalance", required = false) BigDecimal maxBalance) {
+        logger.info("Request to provision {} generated wallets", count);
+        return service.provisionWallets(count, Money.of(minBalance), Money.of(maxBalance == null ? minBalance : maxBalance));
+    }
+
+    /**
+     * Creates the wallets streamed as NDJSON, one {@code {"walletId", "balance"}} object per
+     * line; either field may be left out.
+     */
+    @PostMapping(value = "/wallets/provision", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ProvisioningResponse> provisionWallets(@RequestBody Flux<WalletProvisionRequest> wallets) {
+        logger.info("Request to provision streamed wallets");
+        return service.provisionWallets(wallets);
+    }
+
+    @PostMapping("/wallets/{walletId}/striping")
+    public Mono<WalletResponse> enableStriping(@PathVariable("walletId") UUID walletId,
+                                               @RequestParam("slots") int slots) {
+        logger.info("Request to stripe wallet {} over {} slots", walletId, slots);
+        return admission.write(walletId, () -> service.enableStriping(walletId, slots));
     }
 }
@@ -0,0 +1,33 @@
+package com.example.wallets.dto.request;
+
+import com.example.wallets.money.Money;
+
+/**
+ * Body of a hold, and optionally of a capture, where only {@code amount} is read. Without
+ * {@code ttlSeconds} the hold lasts {@code wallet.holds.default-ttl}.
+ */
+public class HoldRequest {
+    private Money amount;
+    private Long ttlSeconds;
+
+    public HoldRequest(Money amount, Long ttlSeconds) {
+        this.amount = amount;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
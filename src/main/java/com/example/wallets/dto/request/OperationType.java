@@ -2,5 +2,9 @@ package com.example.wallets.dto.request;
 
 public enum OperationType {
     DEPOSIT,
-    WITHDRAW
+    WITHDRAW,
+    TRANSFER,
+    HOLD,
+    CAPTURE,
+    RELEASE
 }
@@ -0,0 +1,41 @@
+package com.example.wallets.dto.request;
+
+import com.example.wallets.money.Money;
+
+import java.util.UUID;
+
+public class TransferRequest {
+    private UUID fromWalletId;
+    private UUID toWalletId;
+    private Money amount;
+
+    public TransferRequest(UUID fromWalletId, UUID toWalletId, Money amount) {
+        this.fromWalletId = fromWalletId;
+        this.toWalletId = toWalletId;
+        this.amount = amount;
+    }
+
+    public UUID getFromWalletId() {
+        return fromWalletId;
+    }
+
+    public void setFromWalletId(UUID fromWalletId) {
+        this.fromWalletId = fromWalletId;
+    }
+
+    public UUID getToWalletId() {
+        return toWalletId;
+    }
+
+    public void setToWalletId(UUID toWalletId) {
+        this.toWalletId = toWalletId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+}
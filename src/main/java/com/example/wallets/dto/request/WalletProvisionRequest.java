@@ -0,0 +1,31 @@
+package com.example.wallets.dto.request;
+
+import com.example.wallets.money.Money;
+
+import java.util.UUID;
+
+public class WalletProvisionRequest {
+    private UUID walletId;
+    private Money balance;
+
+    public WalletProvisionRequest(UUID walletId, Money balance) {
+        this.walletId = walletId;
+        this.balance = balance;
+    }
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(UUID walletId) {
+        this.walletId = walletId;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+}
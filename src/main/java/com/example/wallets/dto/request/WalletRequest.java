@@ -1,14 +1,17 @@
 package com.example.wallets.dto.request;
 
-import java.math.BigDecimal;
+import com.example.wallets.money.Money;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import java.util.UUID;
 
+@JsonDeserialize(using = WalletRequestDeserializer.class)
 public class WalletRequest {
     private UUID walletId;
     private OperationType type;
-    private BigDecimal amount;
+    private Money amount;
 
-    public WalletRequest(UUID walletId, OperationType type, BigDecimal amount) {
+    public WalletRequest(UUID walletId, OperationType type, Money amount) {
         this.walletId = walletId;
         this.type = type;
         this.amount = amount;
@@ -30,11 +33,11 @@ public class WalletRequest {
         this.type = type;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 }
@@ -0,0 +1,87 @@
+package com.example.wallets.dto.request;
+
+import com.example.wallets.money.Money;
+import com.example.wallets.money.MoneyDeserializer;
+import com.example.wallets.utils.UuidChars;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Streams a {@link WalletRequest} off the parser: the wallet id, type and amount are decoded
+ * from the parser's character buffer instead of through intermediate strings and bean
+ * property buffers. Values the fast paths do not recognise fall back to Jackson's standard
+ * handling, so accepted input and error responses stay the same.
+ */
+public class WalletRequestDeserializer extends StdDeserializer<WalletRequest> {
+
+    private static final OperationType[] TYPES = OperationType.values();
+
+    public WalletRequestDeserializer() {
+        super(WalletRequest.class);
+    }
+
+    @Override
+    public WalletRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            return (WalletRequest) ctxt.handleUnexpectedToken(WalletRequest.class, p);
+        }
+        UUID walletId = null;
+        OperationType type = null;
+        Money amount = null;
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (name) {
+                case "walletId" -> walletId = value == JsonToken.VALUE_NULL ? null : readWalletId(p, ctxt, value);
+                case "type" -> type = value == JsonToken.VALUE_NULL ? null : readType(p, ctxt, value);
+                case "amount" -> amount = value == JsonToken.VALUE_NULL ? null : MoneyDeserializer.read(p, ctxt);
+                default -> p.skipChildren();
+            }
+        }
+        return new WalletRequest(walletId, type, amount);
+    }
+
+    private static UUID readWalletId(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            UUID walletId = UuidChars.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (walletId != null) {
+                return walletId;
+            }
+        }
+        return ctxt.readValue(p, UUID.class);
+    }
+
+    private static OperationType readType(JsonParser p, DeserializationContext ctxt, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            char[] chars = p.getTextCharacters();
+            int offset = p.getTextOffset();
+            int length = p.getTextLength();
+            for (OperationType type : TYPES) {
+                if (matches(type.name(), chars, offset, length)) {
+                    return type;
+                }
+            }
+        }
+        return ctxt.readValue(p, OperationType.class);
+    }
+
+    private static boolean matches(String name, char[] chars, int offset, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
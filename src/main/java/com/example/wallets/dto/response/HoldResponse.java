@@ -0,0 +1,88 @@
+package com.example.wallets.dto.response;
+
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.money.Money;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outcome of a hold operation: {@code amount} is the amount held, captured or released, and
+ * {@code balance} the settled balance, of which {@code available} is not under a hold.
+ */
+public class HoldResponse {
+    private UUID holdId;
+    private UUID walletId;
+    private OperationType type;
+    private Money amount;
+    private Instant expiresAt;
+    private Money balance;
+    private Money available;
+
+    public HoldResponse(UUID holdId, UUID walletId, OperationType type, Money amount, Instant expiresAt,
+                        Money balance, Money available) {
+        this.holdId = holdId;
+        this.walletId = walletId;
+        this.type = type;
+        this.amount = amount;
+        this.expiresAt = expiresAt;
+        this.balance = balance;
+        this.available = available;
+    }
+
+    public UUID getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(UUID holdId) {
+        this.holdId = holdId;
+    }
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(UUID walletId) {
+        this.walletId = walletId;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public void setType(OperationType type) {
+        this.type = type;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+
+    public Money getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Money available) {
+        this.available = available;
+    }
+}
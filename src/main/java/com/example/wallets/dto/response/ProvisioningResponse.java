@@ -0,0 +1,47 @@
+package com.example.wallets.dto.response;
+
+public class ProvisioningResponse {
+    private long wallets;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private String method;
+
+    public ProvisioningResponse(long wallets, long elapsedMillis, double rowsPerSecond, String method) {
+        this.wallets = wallets;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rowsPerSecond;
+        this.method = method;
+    }
+
+    public long getWallets() {
+        return wallets;
+    }
+
+    public void setWallets(long wallets) {
+        this.wallets = wallets;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wallets.dto.response;
+
+public class TransferResponse {
+    private WalletResponse from;
+    private WalletResponse to;
+
+    public TransferResponse(WalletResponse from, WalletResponse to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public WalletResponse getFrom() {
+        return from;
+    }
+
+    public void setFrom(WalletResponse from) {
+        this.from = from;
+    }
+
+    public WalletResponse getTo() {
+        return to;
+    }
+
+    public void setTo(WalletResponse to) {
+        this.to = to;
+    }
+}
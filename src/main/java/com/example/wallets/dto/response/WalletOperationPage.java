@@ -0,0 +1,29 @@
+package com.example.wallets.dto.response;
+
+import java.util.List;
+
+public class WalletOperationPage {
+    private List<WalletOperationResponse> operations;
+    private Long nextBefore;
+
+    public WalletOperationPage(List<WalletOperationResponse> operations, Long nextBefore) {
+        this.operations = operations;
+        this.nextBefore = nextBefore;
+    }
+
+    public List<WalletOperationResponse> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<WalletOperationResponse> operations) {
+        this.operations = operations;
+    }
+
+    public Long getNextBefore() {
+        return nextBefore;
+    }
+
+    public void setNextBefore(Long nextBefore) {
+        this.nextBefore = nextBefore;
+    }
+}
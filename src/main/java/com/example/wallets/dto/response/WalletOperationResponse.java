@@ -0,0 +1,74 @@
+package com.example.wallets.dto.response;
+
+import com.example.wallets.dto.request.OperationType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public class WalletOperationResponse {
+    private Long id;
+    private UUID walletId;
+    private OperationType type;
+    private BigDecimal amount;
+    private BigDecimal balance;
+    private Instant createdAt;
+
+    public WalletOperationResponse(Long id, UUID walletId, OperationType type, BigDecimal amount,
+                                   BigDecimal balance, Instant createdAt) {
+        this.id = id;
+        this.walletId = walletId;
+        this.type = type;
+        this.amount = amount;
+        this.balance = balance;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(UUID walletId) {
+        this.walletId = walletId;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public void setType(OperationType type) {
+        this.type = type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.wallets.dto.response;
+
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.money.Money;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WalletOperationResult {
+    private UUID walletId;
+    private Money amount;
+    private String error;
+    private String message;
+
+    public WalletOperationResult(UUID walletId, Money amount, String error, String message) {
+        this.walletId = walletId;
+        this.amount = amount;
+        this.error = error;
+        this.message = message;
+    }
+
+    public static WalletOperationResult success(WalletResponse response) {
+        return new WalletOperationResult(response.getWalletId(), response.getAmount(), null, null);
+    }
+
+    public static WalletOperationResult failure(UUID walletId, Throwable ex) {
+        String error;
+        if (ex instanceof WalletNotFoundException) {
+            error = "Wallet not found";
+        } else if (ex instanceof InsufficientFundsException) {
+            error = "Not enough funds for this transaction";
+        } else if (ex instanceof NotValidJsonException) {
+            error = "Invalid JSON";
+        } else {
+            error = "Internal Server Error";
+        }
+        return new WalletOperationResult(walletId, null, error, ex.getMessage());
+    }
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(UUID walletId) {
+        this.walletId = walletId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
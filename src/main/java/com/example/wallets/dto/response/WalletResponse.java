@@ -1,15 +1,29 @@
 package com.example.wallets.dto.response;
 
-import java.math.BigDecimal;
+import com.example.wallets.money.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.util.UUID;
 
+/**
+ * The {@code version} is the wallet row's version the balance was read or written at, used to
+ * order balances of the same wallet; it is null when unknown and is not serialized.
+ */
+@JsonSerialize(using = WalletResponseSerializer.class)
 public class WalletResponse {
     private UUID walletId;
-    private BigDecimal amount;
+    private Money amount;
+    private Long version;
+
+    public WalletResponse(UUID walletId, Money amount) {
+        this.walletId = walletId;
+        this.amount = amount;
+    }
 
-    public WalletResponse(UUID walletId, BigDecimal amount) {
+    public WalletResponse(UUID walletId, Money amount, Long version) {
         this.walletId = walletId;
         this.amount = amount;
+        this.version = version;
     }
 
     public UUID getWalletId() {
@@ -20,11 +34,19 @@ public class WalletResponse {
         this.walletId = walletId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.wallets.dto.response;
+
+import com.example.wallets.utils.UuidChars;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link WalletResponse} through one scratch buffer shared by the wallet id and the
+ * amount, with the same JSON shape the bean serializer produced.
+ */
+public class WalletResponseSerializer extends StdSerializer<WalletResponse> {
+
+    private static final SerializedString WALLET_ID = new SerializedString("walletId");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+
+    public WalletResponseSerializer() {
+        super(WalletResponse.class);
+    }
+
+    @Override
+    public void serialize(WalletResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[UuidChars.LENGTH];
+        gen.writeStartObject(value);
+        gen.writeFieldName(WALLET_ID);
+        if (value.getWalletId() == null) {
+            gen.writeNull();
+        } else {
+            UuidChars.format(value.getWalletId(), buffer);
+            gen.writeString(buffer, 0, UuidChars.LENGTH);
+        }
+        gen.writeFieldName(AMOUNT);
+        if (value.getAmount() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(buffer, 0, value.getAmount().format(buffer));
+        }
+        gen.writeEndObject();
+    }
+}
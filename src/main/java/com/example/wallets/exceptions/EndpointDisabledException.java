@@ -0,0 +1,11 @@
+package com.example.wallets.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class EndpointDisabledException extends RuntimeException {
+    public EndpointDisabledException(String message) {
+        super(message);
+    }
+}
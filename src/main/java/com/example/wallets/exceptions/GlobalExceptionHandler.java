@@ -2,6 +2,9 @@ package com.example.wallets.exceptions;
 
 import com.example.wallets.exceptions.response.ErrorResponse;
 import com.example.wallets.utils.BaseLoggerService;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -10,12 +13,20 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler extends BaseLoggerService {
 
+    private static final String BALANCE_RANGE_CONSTRAINT = "balance_range";
+
     @ExceptionHandler(WalletNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleWalletNotFound(WalletNotFoundException ex) {
         logger.error("Wallet not found: {}", ex.getMessage());
         return buildErrorResponse(HttpStatus.NOT_FOUND, "Wallet not found", ex.getMessage());
     }
 
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleHoldNotFound(HoldNotFoundException ex) {
+        logger.error("Hold not found: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "Hold not found", ex.getMessage());
+    }
+
     @ExceptionHandler(InsufficientFundsException.class)
     public ResponseEntity<ErrorResponse> handleInsufficientFunds(InsufficientFundsException ex) {
         logger.error("Not enough funds for this transaction: {}", ex.getMessage());
@@ -28,6 +39,42 @@ public class GlobalExceptionHandler extends BaseLoggerService {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid JSON", ex.getMessage());
     }
 
+    @ExceptionHandler(EndpointDisabledException.class)
+    public ResponseEntity<ErrorResponse> handleEndpointDisabled(EndpointDisabledException ex) {
+        logger.error("Endpoint disabled: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.FORBIDDEN, "Endpoint disabled", ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        logger.error("Idempotency key conflict: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key conflict", ex.getMessage());
+    }
+
+    /**
+     * Shed requests are expected under overload, so they are neither logged nor given a stack trace.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse("Too many requests", ex.getMessage()));
+    }
+
+    /**
+     * A write that would take a balance past what {@link com.example.wallets.money.Money} can
+     * hold is refused by the balance check constraints, and rolled back, so it is the client's
+     * amount that is at fault. Any other integrity violation is a server error.
+     */
+    @ExceptionHandler({DataIntegrityViolationException.class, R2dbcDataIntegrityViolationException.class})
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(Exception ex) {
+        if (ex.getMessage() != null && ex.getMessage().contains(BALANCE_RANGE_CONSTRAINT)) {
+            logger.error("Invalid JSON: {}", ex.getMessage());
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid JSON", "Invalid JSON: amount exceeds the supported balance");
+        }
+        return handleGlobalException(ex);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
         logger.error("Internal Server Error: {}", ex.getMessage());
@@ -0,0 +1,82 @@
+package com.example.wallets.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the R2DBC {@link ConnectionFactory} to time connection acquisition as
+ * {@code r2dbc.pool.acquire}. The wrapper implements {@link Wrapped}, so Boot's pool gauges
+ * ({@code r2dbc.pool.pending} for the queue depth, acquired, idle, ...) still find the pool.
+ */
+@Component
+public class ConnectionAcquireMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public ConnectionAcquireMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof TimedConnectionFactory)) {
+            return new TimedConnectionFactory(connectionFactory, beanName);
+        }
+        return bean;
+    }
+
+    private final class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+        private final ConnectionFactory delegate;
+        private final String name;
+        private volatile Timer acquire;
+
+        private TimedConnectionFactory(ConnectionFactory delegate, String name) {
+            this.delegate = delegate;
+            this.name = name;
+        }
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.defer(() -> {
+                long started = System.nanoTime();
+                return Mono.from(delegate.create())
+                        .doOnNext(connection -> timer().record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+            });
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return delegate;
+        }
+
+        private Timer timer() {
+            Timer timer = acquire;
+            if (timer == null) {
+                timer = Timer.builder("r2dbc.pool.acquire")
+                        .description("Time to obtain a connection from the factory")
+                        .tag("name", name)
+                        .publishPercentileHistogram()
+                        .register(registry.getObject());
+                acquire = timer;
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wallets.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/hotwallets}: the wallets with the most operations in the current decay
+ * window, as tracked by the space-saving sketch.
+ */
+@Component
+@Endpoint(id = "hotwallets")
+public class HotWalletsEndpoint {
+
+    private final WalletMetrics metrics;
+
+    public HotWalletsEndpoint(WalletMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public List<SpaceSavingSketch.HotWallet> hotWallets() {
+        return metrics.hotWallets().top();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.wallets.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every repository method from subscription to termination, which for R2DBC is the
+ * actual query time (the method call itself only assembles the publisher). Published as
+ * {@code wallet.repository.invocations} tagged with repository and method.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(
+                            new TimingInterceptor(information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private final class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+        private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+        private TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            if (result instanceof Mono<?> mono) {
+                Timer timer = timer(invocation.getMethod());
+                return Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    return mono.doFinally(signal -> timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+                });
+            }
+            if (result instanceof Flux<?> flux) {
+                Timer timer = timer(invocation.getMethod());
+                return Flux.defer(() -> {
+                    long started = System.nanoTime();
+                    return flux.doFinally(signal -> timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+                });
+            }
+            return result;
+        }
+
+        private Timer timer(Method method) {
+            Timer timer = timers.get(method);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(method, key -> Timer.builder("wallet.repository.invocations")
+                        .description("Repository query time from subscription to completion")
+                        .tag("repository", repository)
+                        .tag("method", key.getName())
+                        .publishPercentileHistogram()
+                        .register(registry.getObject()));
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.wallets.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Space-saving top-k counter over wallet ids. Keeps a fixed number of slots in primitive arrays,
+ * so counting never allocates; a new wallet takes over the slot with the smallest count, which
+ * bounds the overestimate of any reported count by that minimum.
+ * <p>
+ * Counting is striped by thread: each thread counts into one of a power-of-two number of
+ * sketches with its own lock, so request threads do not queue on one monitor. {@link #top()}
+ * merges the stripes; a wallet missing from a full stripe may have been evicted there, so that
+ * stripe's minimum is added to both its count and its overestimate.
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public SpaceSavingSketch(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The stripe count is rounded up to a power of two.
+     */
+    public SpaceSavingSketch(int capacity, int stripes) {
+        if (capacity <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("capacity and stripes must be positive");
+        }
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.capacity = capacity;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+        this.mask = count - 1;
+    }
+
+    public void offer(UUID walletId) {
+        stripes[(int) Thread.currentThread().getId() & mask]
+                .offer(walletId.getMostSignificantBits(), walletId.getLeastSignificantBits());
+    }
+
+    /**
+     * Halves every count, so the ranking follows recent traffic rather than all-time totals.
+     */
+    public void decay() {
+        for (Stripe stripe : stripes) {
+            stripe.decay();
+        }
+    }
+
+    public List<HotWallet> top() {
+        List<Map<UUID, long[]>> entries = new ArrayList<>(stripes.length);
+        long[] floors = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            entries.add(stripes[i].snapshot(floors, i));
+        }
+        Map<UUID, long[]> merged = new HashMap<>();
+        for (Map<UUID, long[]> stripe : entries) {
+            stripe.keySet().forEach(walletId -> merged.put(walletId, new long[2]));
+        }
+        merged.forEach((walletId, total) -> {
+            for (int i = 0; i < stripes.length; i++) {
+                long[] entry = entries.get(i).get(walletId);
+                total[0] += entry == null ? floors[i] : entry[0];
+                total[1] += entry == null ? floors[i] : entry[1];
+            }
+        });
+        List<HotWallet> top = new ArrayList<>(merged.size());
+        merged.forEach((walletId, total) -> top.add(new HotWallet(walletId, total[0], total[1])));
+        top.sort((left, right) -> Long.compare(right.count(), left.count()));
+        return top.size() > capacity ? new ArrayList<>(top.subList(0, capacity)) : top;
+    }
+
+    public record HotWallet(UUID walletId, long count, long maxOverestimate) {
+    }
+
+    private static final class Stripe {
+
+        private final long[] mostSignificantBits;
+        private final long[] leastSignificantBits;
+        private final long[] counts;
+        private final long[] errors;
+        private int size;
+
+        Stripe(int capacity) {
+            this.mostSignificantBits = new long[capacity];
+            this.leastSignificantBits = new long[capacity];
+            this.counts = new long[capacity];
+            this.errors = new long[capacity];
+        }
+
+        synchronized void offer(long most, long least) {
+            int min = 0;
+            for (int i = 0; i < size; i++) {
+                if (mostSignificantBits[i] == most && leastSignificantBits[i] == least) {
+                    counts[i]++;
+                    return;
+                }
+                if (counts[i] < counts[min]) {
+                    min = i;
+                }
+            }
+            if (size < counts.length) {
+                min = size++;
+                counts[min] = 0;
+                errors[min] = 0;
+            } else {
+                errors[min] = counts[min];
+            }
+            mostSignificantBits[min] = most;
+            leastSignificantBits[min] = least;
+            counts[min]++;
+        }
+
+        synchronized void decay() {
+            for (int i = 0; i < size; i++) {
+                counts[i] >>= 1;
+                errors[i] >>= 1;
+            }
+        }
+
+        /**
+         * Stores the count a wallet missing from this stripe may still have had in
+         * {@code floors[index]}: the smallest count once the stripe is full, zero before.
+         */
+        synchronized Map<UUID, long[]> snapshot(long[] floors, int index) {
+            Map<UUID, long[]> entries = new HashMap<>();
+            long floor = size < counts.length ? 0 : Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                entries.put(new UUID(mostSignificantBits[i], leastSignificantBits[i]),
+                        new long[]{counts[i], errors[i]});
+                floor = Math.min(floor, counts[i]);
+            }
+            floors[index] = size == 0 ? 0 : floor;
+            return entries;
+        }
+    }
+}
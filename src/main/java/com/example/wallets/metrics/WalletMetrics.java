@@ -0,0 +1,92 @@
+package com.example.wallets.metrics;
+
+import com.example.wallets.config.MetricsProperties;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.exceptions.WalletNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Operation outcome counters and hot-wallet tracking. Every counter is registered up front and
+ * looked up by array index, so recording an operation does not allocate.
+ */
+@Component
+public class WalletMetrics {
+
+    public enum Outcome {
+        OK,
+        NOT_FOUND,
+        INSUFFICIENT_FUNDS,
+        INVALID,
+        ERROR
+    }
+
+    private static final String UNKNOWN_TYPE = "UNKNOWN";
+    private static final int UNKNOWN_TYPE_INDEX = OperationType.values().length;
+
+    private final Counter[][] operations;
+    private final SpaceSavingSketch hotWallets;
+
+    public WalletMetrics(MeterRegistry registry, MetricsProperties properties) {
+        OperationType[] types = OperationType.values();
+        Outcome[] outcomes = Outcome.values();
+        this.operations = new Counter[types.length + 1][outcomes.length];
+        for (int type = 0; type <= types.length; type++) {
+            String typeTag = type < types.length ? types[type].name() : UNKNOWN_TYPE;
+            for (Outcome outcome : outcomes) {
+                operations[type][outcome.ordinal()] = Counter.builder("wallet.operations")
+                        .description("Balance operations by type and outcome")
+                        .tag("type", typeTag)
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(registry);
+            }
+        }
+        this.hotWallets = new SpaceSavingSketch(properties.getHotWallets());
+    }
+
+    public void recordSuccess(OperationType type, UUID walletId) {
+        operations[typeIndex(type)][Outcome.OK.ordinal()].increment();
+        if (walletId != null) {
+            hotWallets.offer(walletId);
+        }
+    }
+
+    public void recordFailure(OperationType type, UUID walletId, Throwable error) {
+        operations[typeIndex(type)][outcomeOf(error).ordinal()].increment();
+        if (walletId != null && !(error instanceof NotValidJsonException)) {
+            hotWallets.offer(walletId);
+        }
+    }
+
+    public SpaceSavingSketch hotWallets() {
+        return hotWallets;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.metrics.hot-wallets-decay-interval}")
+    public void decayHotWallets() {
+        hotWallets.decay();
+    }
+
+    private static int typeIndex(OperationType type) {
+        return type == null ? UNKNOWN_TYPE_INDEX : type.ordinal();
+    }
+
+    private static Outcome outcomeOf(Throwable error) {
+        if (error instanceof WalletNotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (error instanceof InsufficientFundsException) {
+            return Outcome.INSUFFICIENT_FUNDS;
+        }
+        if (error instanceof NotValidJsonException) {
+            return Outcome.INVALID;
+        }
+        return Outcome.ERROR;
+    }
+}
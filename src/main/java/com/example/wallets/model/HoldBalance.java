@@ -0,0 +1,75 @@
+package com.example.wallets.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Row returned by the hold statements: the hold that was placed, captured or released, with
+ * the settled and held amounts of its wallet afterwards.
+ */
+public class HoldBalance {
+    private UUID holdId;
+    private UUID walletId;
+    private BigDecimal amount;
+    private Instant expiresAt;
+    private BigDecimal balance;
+    private BigDecimal held;
+    private Long version;
+
+    public UUID getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(UUID holdId) {
+        this.holdId = holdId;
+    }
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(UUID walletId) {
+        this.walletId = walletId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public BigDecimal getHeld() {
+        return held;
+    }
+
+    public void setHeld(BigDecimal held) {
+        this.held = held;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.wallets.model;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Row returned by the keyed balance updates: the balance after the operation, the operation
+ * the key was recorded for, and whether it was replayed from an already stored idempotency key
+ * instead of applied now.
+ */
+public class IdempotentBalance {
+    private UUID walletId;
+    private BigDecimal balance;
+    private Long version;
+    private String type;
+    private BigDecimal amount;
+    private boolean replayed;
+
+    public UUID getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(UUID walletId) {
+        this.walletId = walletId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(boolean replayed) {
+        this.replayed = replayed;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.wallets.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Row returned by the transfer statement: both balances after the transfer was applied.
+ */
+public class TransferBalances {
+    private BigDecimal fromBalance;
+    private BigDecimal toBalance;
+    private Long fromVersion;
+    private Long toVersion;
+
+    public BigDecimal getFromBalance() {
+        return fromBalance;
+    }
+
+    public void setFromBalance(BigDecimal fromBalance) {
+        this.fromBalance = fromBalance;
+    }
+
+    public BigDecimal getToBalance() {
+        return toBalance;
+    }
+
+    public void setToBalance(BigDecimal toBalance) {
+        this.toBalance = toBalance;
+    }
+
+    public Long getFromVersion() {
+        return fromVersion;
+    }
+
+    public void setFromVersion(Long fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+
+    public Long getToVersion() {
+        return toVersion;
+    }
+
+    public void setToVersion(Long toVersion) {
+        this.toVersion = toVersion;
+    }
+}
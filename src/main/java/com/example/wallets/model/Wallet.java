@@ -1,24 +1,33 @@
 package com.example.wallets.model;
 
-import jakarta.persistence.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
 
 import java.math.BigDecimal;
 import java.util.UUID;
 
-@Entity
-@Table(name = "wallet")
+@Table("wallet")
 public class Wallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "wallet_id", nullable = false, unique = true)
+    @Column("wallet_id")
     private UUID walletId;
 
-    @Column(nullable = false)
     private BigDecimal balance;
 
+    private BigDecimal held;
+
+    private Integer slots;
+
+    /**
+     * Bumped by every statement that changes the row, under its row lock. Left null where the
+     * balance of a striped wallet is summed over its slots, whose changes do not bump it.
+     */
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -42,4 +51,28 @@ public class Wallet {
     public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
+
+    public BigDecimal getHeld() {
+        return held;
+    }
+
+    public void setHeld(BigDecimal held) {
+        this.held = held;
+    }
+
+    public Integer getSlots() {
+        return slots;
+    }
+
+    public void setSlots(Integer slots) {
+        this.slots = slots;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
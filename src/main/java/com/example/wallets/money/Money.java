@@ -0,0 +1,155 @@
+package com.example.wallets.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a {@code long} count of minor units, matching the {@code decimal(20,1)}
+ * balance columns: one minor unit is 0.1. Arithmetic is exact and throws
+ * {@link ArithmeticException} on overflow. Conversion to {@link BigDecimal} happens only at the
+ * database boundary.
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 1;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts a decimal amount, rounding extra fraction digits half-up the way the database
+     * does when it stores a value into a {@code decimal(20,1)} column.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(amount.setScale(SCALE, RoundingMode.HALF_UP).scaleByPowerOfTen(SCALE).longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    /**
+     * Parses a plain decimal number ({@code -?digits[.digits]}) without intermediate objects,
+     * rounding half-up to one fraction digit.
+     *
+     * @throws NumberFormatException for any other syntax, such as an exponent
+     * @throws ArithmeticException   if the amount does not fit in a {@code long} of minor units
+     */
+    public static Money parse(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = i < end && chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+            value = Math.addExact(Math.multiplyExact(value, 10), chars[i++] - '0');
+            digits++;
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a plain decimal amount");
+        }
+        int fraction = 0;
+        boolean roundUp = false;
+        if (i < end && chars[i] == '.') {
+            i++;
+            int fractionDigits = 0;
+            while (i < end && chars[i] >= '0' && chars[i] <= '9') {
+                if (fractionDigits == 0) {
+                    fraction = chars[i] - '0';
+                } else if (fractionDigits == 1) {
+                    roundUp = chars[i] >= '5';
+                }
+                fractionDigits++;
+                i++;
+            }
+            if (fractionDigits == 0) {
+                throw new NumberFormatException("Not a plain decimal amount");
+            }
+        }
+        if (i != end) {
+            throw new NumberFormatException("Not a plain decimal amount");
+        }
+        long minorUnits = Math.addExact(Math.multiplyExact(value, 10), fraction + (roundUp ? 1 : 0));
+        return ofMinorUnits(negative ? -minorUnits : minorUnits);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Writes the amount as a plain decimal with one fraction digit into {@code buffer}, which
+     * needs room for 21 characters, and returns the number of characters written.
+     */
+    public int format(char[] buffer) {
+        long value = minorUnits;
+        boolean negative = value < 0;
+        int position = buffer.length;
+        buffer[--position] = (char) ('0' + Math.abs(value % 10));
+        buffer[--position] = '.';
+        value /= 10;
+        do {
+            buffer[--position] = (char) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        int length = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Money money && minorUnits == money.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[21];
+        return new String(buffer, 0, format(buffer));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.wallets.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads a JSON number (or numeric string) into {@link Money} straight from the parser's
+ * character buffer. Anything the plain-decimal parser does not handle, such as exponents,
+ * goes through Jackson's own {@link BigDecimal} handling, so accepted input is unchanged.
+ */
+public class MoneyDeserializer extends StdDeserializer<Money> {
+
+    public MoneyDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return read(p, ctxt);
+    }
+
+    public static Money read(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                || token == JsonToken.VALUE_STRING) {
+            try {
+                return Money.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            } catch (NumberFormatException | ArithmeticException ex) {
+                // not a plain decimal or out of range, let Jackson decide below
+            }
+        }
+        BigDecimal amount = ctxt.readValue(p, BigDecimal.class);
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException ex) {
+            return (Money) ctxt.handleWeirdNumberValue(Money.class, amount, "amount is out of range");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.wallets.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Money} as a plain JSON number with one fraction digit, the same text the
+ * {@code decimal(20,1)} {@link java.math.BigDecimal} balances used to produce.
+ */
+public class MoneySerializer extends StdSerializer<Money> {
+
+    public MoneySerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[21];
+        gen.writeNumber(buffer, 0, value.format(buffer));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.wallets.replica;
+
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.utils.BaseLoggerService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Decides which reads may go to the read replica configured under {@code wallet.replica}.
+ * A read is sent there only while the replica answers its health check within
+ * {@code max-lag}, and only for wallets that were not written in the last
+ * {@code read-your-writes-window} by this instance. Everything else, and every write, stays on
+ * the primary. The choice travels in the Reactor context to {@link RoutingConnectionFactory}.
+ */
+@Component
+public class ReplicaRouting extends BaseLoggerService implements DisposableBean {
+
+    static final String READ_FROM_REPLICA = ReplicaRouting.class.getName() + ".READ_FROM_REPLICA";
+
+    /**
+     * Zero when the replica has replayed everything it received, or when it is not a standby
+     * at all, so a second standalone instance can stand in for a replica locally.
+     */
+    private static final String LAG_QUERY = """
+            SELECT CAST(CASE WHEN pg_is_in_recovery()
+                                  AND pg_last_wal_receive_lsn() IS DISTINCT FROM pg_last_wal_replay_lsn()
+                             THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                             ELSE 0
+                        END AS float8) AS lag
+            """;
+
+    private static final Context READ_CONTEXT = Context.of(READ_FROM_REPLICA, Boolean.TRUE);
+
+    private final ReplicaProperties properties;
+    private final ConnectionPool replica;
+    private final DatabaseClient replicaClient;
+    private final Cache<UUID, Boolean> recentWrites;
+    private volatile boolean available;
+
+    public ReplicaRouting(ReplicaProperties properties) {
+        this.properties = properties;
+        if (properties.isEnabled()) {
+            this.replica = createPool(properties);
+            this.replicaClient = DatabaseClient.create(replica);
+            this.recentWrites = Caffeine.newBuilder()
+                    .expireAfterWrite(properties.getReadYourWritesWindow())
+                    .maximumSize(1_000_000)
+                    .build();
+        } else {
+            this.replica = null;
+            this.replicaClient = null;
+            this.recentWrites = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return replica != null;
+    }
+
+    public <T> Mono<T> read(UUID walletId, Mono<T> query) {
+        return available && recentWrites.getIfPresent(walletId) == null ? query.contextWrite(READ_CONTEXT) : query;
+    }
+
+    public <T> Flux<T> read(Collection<UUID> walletIds, Flux<T> query) {
+        if (!available || walletIds.stream().anyMatch(walletId -> recentWrites.getIfPresent(walletId) != null)) {
+            return query;
+        }
+        return query.contextWrite(READ_CONTEXT);
+    }
+
+    /**
+     * For reads that are not tied to particular wallets and tolerate the replica's lag.
+     */
+    public <T> Flux<T> read(Flux<T> query) {
+        return available ? query.contextWrite(READ_CONTEXT) : query;
+    }
+
+    public void markWritten(UUID walletId) {
+        if (recentWrites != null) {
+            recentWrites.put(walletId, Boolean.TRUE);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.replica.health-check-interval}")
+    public void checkHealth() {
+        if (replica == null) {
+            return;
+        }
+        Double lag = replicaClient.sql(LAG_QUERY)
+                .map(row -> row.get("lag", Double.class))
+                .one()
+                .onErrorResume(ex -> {
+                    markUnavailable(ex);
+                    return Mono.empty();
+                })
+                .block(properties.getMaxAcquireTime().plus(properties.getHealthCheckInterval()));
+        if (lag == null) {
+            return;
+        }
+        boolean caughtUp = lag * 1000 <= properties.getMaxLag().toMillis();
+        if (caughtUp != available) {
+            logger.info("Read replica {}, lag {} s", caughtUp ? "in use" : "lagging, reads go to the primary", lag);
+        }
+        available = caughtUp;
+    }
+
+    @Override
+    public void destroy() {
+        if (replica != null) {
+            replica.dispose();
+        }
+    }
+
+    ConnectionFactory replica() {
+        return replica;
+    }
+
+    void markUnavailable(Throwable error) {
+        if (available) {
+            logger.warn("Read replica unavailable, reads go to the primary: {}", error.getMessage());
+        }
+        available = false;
+    }
+
+    private static ConnectionPool createPool(ReplicaProperties properties) {
+        if (properties.getUrl() == null || properties.getUrl().isBlank()) {
+            throw new IllegalStateException("wallet.replica.url must be set when the replica is enabled");
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("replica")
+                .initialSize(0)
+                .maxSize(properties.getMaxSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.wallets.replica;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts {@link RoutingConnectionFactory} in front of the primary {@link ConnectionFactory}
+ * when a replica is configured, so repositories, {@code DatabaseClient} and the transaction
+ * manager all go through it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ReplicaRouting> routing;
+
+    public ReplicaRoutingPostProcessor(ObjectProvider<ReplicaRouting> routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof RoutingConnectionFactory)) {
+            return new RoutingConnectionFactory(connectionFactory, routing.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.wallets.replica;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out replica connections to subscribers whose context was marked by
+ * {@link ReplicaRouting}, and primary connections to everyone else, transactions included.
+ * A replica that cannot give a connection is taken out of use and the read falls back to the
+ * primary.
+ */
+class RoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory primary;
+    private final ReplicaRouting routing;
+
+    RoutingConnectionFactory(ConnectionFactory primary, ReplicaRouting routing) {
+        this.primary = primary;
+        this.routing = routing;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (!context.hasKey(ReplicaRouting.READ_FROM_REPLICA)) {
+                return Mono.from(primary.create());
+            }
+            return Mono.<Connection>from(routing.replica().create())
+                    .onErrorResume(ex -> {
+                        routing.markUnavailable(ex);
+                        return Mono.from(primary.create());
+                    });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.wallets.repository;
+
+import com.example.wallets.model.IdempotencyKey;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface IdempotencyKeyRepository extends R2dbcRepository<IdempotencyKey, String> {
+
+    @Query("SELECT * FROM idempotency_key WHERE idempotency_key = :idempotencyKey")
+    Mono<IdempotencyKey> findByKey(String idempotencyKey);
+
+    @Modifying
+    @Query("""
+            INSERT INTO idempotency_key (idempotency_key, wallet_id, balance, type, amount, expires_at)
+            VALUES (:idempotencyKey, :walletId, :balance, :type, :amount, :expiresAt)
+            """)
+    Mono<Integer> insertKey(String idempotencyKey, UUID walletId, BigDecimal balance, String type,
+                            BigDecimal amount, Instant expiresAt);
+
+    @Modifying
+    @Query("""
+            DELETE FROM idempotency_key
+            WHERE idempotency_key IN (
+                SELECT idempotency_key FROM idempotency_key WHERE expires_at < :now LIMIT :batchSize
+            )
+            """)
+    Mono<Integer> deleteExpired(Instant now, int batchSize);
+}
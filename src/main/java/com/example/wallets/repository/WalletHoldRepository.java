@@ -0,0 +1,115 @@
+package com.example.wallets.repository;
+
+import com.example.wallets.model.HoldBalance;
+import com.example.wallets.model.WalletHold;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Each statement moves the hold row and the wallet's {@code held} total together. Holds exist
+ * only on unstriped wallets, and a statement that matches nothing returns nothing.
+ */
+@Repository
+public interface WalletHoldRepository extends R2dbcRepository<WalletHold, UUID> {
+
+    Mono<Boolean> existsByWalletId(UUID walletId);
+
+    @Query("""
+            WITH updated AS (
+                UPDATE wallet SET held = held + :amount, version = version + 1
+                WHERE wallet_id = :walletId AND slots = 0 AND balance - held >= :amount
+                RETURNING wallet_id, balance, held, version
+            ), inserted AS (
+                INSERT INTO wallet_hold (hold_id, wallet_id, amount, expires_at)
+                SELECT :holdId, wallet_id, :amount, :expiresAt FROM updated
+                RETURNING hold_id, wallet_id, amount, expires_at
+            )
+            SELECT i.hold_id, i.wallet_id, i.amount, i.expires_at, u.balance, u.held, u.version
+            FROM inserted i JOIN updated u ON u.wallet_id = i.wallet_id
+            """)
+    Mono<HoldBalance> hold(UUID holdId, UUID walletId, BigDecimal amount, Instant expiresAt);
+
+    /**
+     * Settles {@code amount} of an unexpired hold, or all of it when the amount is null, and
+     * releases the rest. Returns nothing when the hold is unknown, expired, or smaller than the
+     * amount.
+     */
+    @Query("""
+            WITH captured AS (
+                DELETE FROM wallet_hold
+                WHERE hold_id = :holdId AND wallet_id = :walletId AND expires_at > :now
+                  AND amount >= COALESCE(CAST(:amount AS numeric), amount)
+                RETURNING hold_id, wallet_id, amount, COALESCE(CAST(:amount AS numeric), amount) AS captured, expires_at
+            ), updated AS (
+                UPDATE wallet w SET balance = w.balance - c.captured, held = w.held - c.amount,
+                                    version = w.version + 1, updated_at = now()
+                FROM captured c WHERE w.wallet_id = c.wallet_id
+                RETURNING w.wallet_id, w.balance, w.held, w.version
+            )
+            SELECT c.hold_id, c.wallet_id, c.captured AS amount, c.expires_at, u.balance, u.held, u.version
+            FROM captured c JOIN updated u ON u.wallet_id = c.wallet_id
+            """)
+    Mono<HoldBalance> capture(UUID holdId, UUID walletId, BigDecimal amount, Instant now);
+
+    @Query("""
+            WITH released AS (
+                DELETE FROM wallet_hold WHERE hold_id = :holdId AND wallet_id = :walletId
+                RETURNING hold_id, wallet_id, amount, expires_at
+            ), updated AS (
+                UPDATE wallet w SET held = w.held - r.amount, version = w.version + 1
+                FROM released r WHERE w.wallet_id = r.wallet_id
+                RETURNING w.wallet_id, w.balance, w.held, w.version
+            )
+            SELECT r.hold_id, r.wallet_id, r.amount, r.expires_at, u.balance, u.held, u.version
+            FROM released r JOIN updated u ON u.wallet_id = r.wallet_id
+            """)
+    Mono<HoldBalance> release(UUID holdId, UUID walletId);
+
+    /**
+     * Releases those of the given holds that have expired by {@code now}; holds captured or
+     * released in the meantime are skipped. The wallets are locked in {@code wallet_id} order,
+     * like transfers and batches lock them, before their totals are reduced. A wallet's version
+     * goes up once per released hold, and each hold gets its own.
+     */
+    @Query("""
+            WITH expired AS (
+                DELETE FROM wallet_hold WHERE hold_id = ANY(:holdIds) AND expires_at <= :now
+                RETURNING hold_id, wallet_id, amount, expires_at
+            ), totals AS (
+                SELECT wallet_id, SUM(amount) AS amount, COUNT(*) AS holds FROM expired GROUP BY wallet_id
+            ), locked AS (
+                SELECT wallet_id FROM wallet
+                WHERE wallet_id IN (SELECT wallet_id FROM totals)
+                ORDER BY wallet_id
+                FOR UPDATE
+            ), updated AS (
+                UPDATE wallet w SET held = w.held - t.amount, version = w.version + t.holds
+                FROM totals t JOIN locked l ON l.wallet_id = t.wallet_id
+                WHERE w.wallet_id = t.wallet_id
+                RETURNING w.wallet_id, w.balance, w.held, w.version, t.holds
+            )
+            SELECT e.hold_id, e.wallet_id, e.amount, e.expires_at, u.balance, u.held,
+                   u.version - u.holds + ROW_NUMBER() OVER (PARTITION BY e.wallet_id ORDER BY e.hold_id) AS version
+            FROM expired e JOIN updated u ON u.wallet_id = e.wallet_id
+            """)
+    Flux<HoldBalance> expire(UUID[] holdIds, Instant now);
+
+    /**
+     * Holds expiring before {@code until}, in expiry order from the given position, off the
+     * {@code (expires_at, hold_id)} index.
+     */
+    @Query("""
+            SELECT hold_id, wallet_id, amount, expires_at FROM wallet_hold
+            WHERE expires_at < :until AND (expires_at, hold_id) > (:afterExpiresAt, :afterHoldId)
+            ORDER BY expires_at, hold_id
+            LIMIT :limit
+            """)
+    Flux<WalletHold> findExpiring(Instant afterExpiresAt, UUID afterHoldId, Instant until, int limit);
+}
@@ -0,0 +1,110 @@
+package com.example.wallets.repository;
+
+import com.example.wallets.model.WalletOperation;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface WalletOperationRepository extends R2dbcRepository<WalletOperation, Long> {
+
+    /**
+     * Newest-first page of a wallet's operations with ids below {@code beforeId}; served by the
+     * (wallet_id, id desc) index regardless of how deep the cursor is.
+     */
+    @Query("""
+            SELECT * FROM wallet_operation
+            WHERE wallet_id = :walletId AND id < :beforeId
+            ORDER BY id DESC
+            LIMIT :limit
+            """)
+    Flux<WalletOperation> findPage(UUID walletId, long beforeId, int limit);
+
+    /**
+     * The version is the wallet row's version the operation was applied at. Rows also record
+     * the id of the inserting transaction, see {@link #snapshot}.
+     */
+    @Modifying
+    @Query("""
+            INSERT INTO wallet_operation (wallet_id, type, amount, balance, version, created_at)
+            SELECT v.wallet_id, v.type, v.amount, v.balance, v.version, to_timestamp(v.created_at_micros / 1000000.0)
+            FROM unnest(:walletIds, :types, :amounts, :balances, :versions, :createdAtMicros)
+                AS v(wallet_id, type, amount, balance, version, created_at_micros)
+            """)
+    Mono<Integer> insertAll(UUID[] walletIds, String[] types, BigDecimal[] amounts, BigDecimal[] balances,
+                            Long[] versions, Long[] createdAtMicros);
+
+    /**
+     * Moves the snapshot of every wallet with operations among the next {@code batchSize}
+     * operations past the watermark to its latest operation there, and returns how many were
+     * read. Entries are written after their transaction commits, so neither their ids nor their
+     * commit order follow the order the balances changed in: the latest operation is the one
+     * with the highest wallet version, and a snapshot never moves back to a lower one. Entries
+     * of striped wallets carry no version and count as the wallet row's current one, so among
+     * themselves they are ordered by id.
+     * <p>
+     * The watermark advances in the order of the inserting transactions' ids, and only past
+     * transactions older than every one still running, so an entry committing late is never
+     * skipped behind it.
+     */
+    @Query("""
+            WITH watermark AS (
+                SELECT txid, operation_id FROM ledger_watermark WHERE id = 1
+            ), pending AS (
+                SELECT o.id, o.txid FROM wallet_operation o, watermark m
+                WHERE (o.txid, o.id) > (m.txid, m.operation_id)
+                  AND o.txid < txid_snapshot_xmin(txid_current_snapshot())
+                ORDER BY o.txid, o.id
+                LIMIT :batchSize
+            ), latest AS (
+                SELECT DISTINCT ON (o.wallet_id) o.wallet_id, o.id, o.balance,
+                       COALESCE(o.version, w.version, 0) AS version
+                FROM wallet_operation o
+                JOIN pending p ON p.id = o.id
+                LEFT JOIN wallet w ON w.wallet_id = o.wallet_id
+                ORDER BY o.wallet_id, COALESCE(o.version, w.version, 0) DESC, o.id DESC
+            ), snapshots AS (
+                INSERT INTO wallet_snapshot (wallet_id, operation_id, version, balance, created_at)
+                SELECT wallet_id, id, version, balance, now() FROM latest
+                ON CONFLICT (wallet_id) DO UPDATE
+                    SET operation_id = EXCLUDED.operation_id, version = EXCLUDED.version,
+                        balance = EXCLUDED.balance, created_at = EXCLUDED.created_at
+                    WHERE (EXCLUDED.version, EXCLUDED.operation_id)
+                          > (wallet_snapshot.version, wallet_snapshot.operation_id)
+            ), advanced AS (
+                UPDATE ledger_watermark m SET txid = l.txid, operation_id = l.id
+                FROM (SELECT txid, id FROM pending ORDER BY txid DESC, id DESC LIMIT 1) l
+                WHERE m.id = 1
+            )
+            SELECT COUNT(*) FROM pending
+            """)
+    Mono<Long> snapshot(int batchSize);
+
+    /**
+     * Deletes up to {@code batchSize} operations older than {@code cutoff} that the watermark
+     * has passed and that come before their wallet's snapshot in version order.
+     */
+    @Modifying
+    @Query("""
+            DELETE FROM wallet_operation
+            WHERE id IN (
+                SELECT o.id FROM wallet_operation o
+                JOIN wallet_snapshot s ON s.wallet_id = o.wallet_id
+                LEFT JOIN wallet w ON w.wallet_id = o.wallet_id
+                CROSS JOIN ledger_watermark m
+                WHERE m.id = 1
+                  AND (o.txid, o.id) <= (m.txid, m.operation_id)
+                  AND (COALESCE(o.version, w.version, 0), o.id) < (s.version, s.operation_id)
+                  AND o.created_at < :cutoff
+                LIMIT :batchSize
+            )
+            """)
+    Mono<Integer> compact(Instant cutoff, int batchSize);
+}
@@ -1,13 +1,234 @@
 package com.example.wallets.repository;
 
+import com.example.wallets.model.IdempotentBalance;
+import com.example.wallets.model.TransferBalances;
 import com.example.wallets.model.Wallet;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.UUID;
 
 @Repository
 public interface WalletRepository extends R2dbcRepository<Wallet, Long> {
+
+    /**
+     * Striped wallets keep their balance in {@code wallet_slot}, so the balance is summed
+     * over the slots in the same query, and their version is left out.
+     */
+    @Query("""
+            SELECT w.id, w.wallet_id, w.slots,
+                   CASE WHEN w.slots = 0 THEN w.balance
+                        ELSE (SELECT COALESCE(SUM(s.balance), 0) FROM wallet_slot s WHERE s.wallet_id = w.wallet_id)
+                   END AS balance,
+                   CASE WHEN w.slots = 0 THEN w.version END AS version
+            FROM wallet w
+            WHERE w.wallet_id = :walletId
+            """)
     Mono<Wallet> findByWalletId(UUID walletId);
+
+    @Query("""
+            SELECT w.id, w.wallet_id, w.slots,
+                   CASE WHEN w.slots = 0 THEN w.balance
+                        ELSE (SELECT COALESCE(SUM(s.balance), 0) FROM wallet_slot s WHERE s.wallet_id = w.wallet_id)
+                   END AS balance,
+                   CASE WHEN w.slots = 0 THEN w.version END AS version
+            FROM wallet w
+            WHERE w.wallet_id = ANY(:walletIds)
+            """)
+    Flux<Wallet> findAllByWalletIds(UUID[] walletIds);
+
+    @Query("SELECT * FROM wallet WHERE wallet_id = ANY(:walletIds) ORDER BY wallet_id FOR UPDATE")
+    Flux<Wallet> lockAllByWalletIds(UUID[] walletIds);
+
+    /**
+     * Writes balances and versions computed from rows locked by {@link #lockAllByWalletIds}.
+     */
+    @Modifying
+    @Query("""
+            UPDATE wallet w SET balance = v.balance, version = v.version, updated_at = now()
+            FROM unnest(:walletIds, :balances, :versions) AS v(wallet_id, balance, version)
+            WHERE w.wallet_id = v.wallet_id
+            """)
+    Mono<Integer> updateBalances(UUID[] walletIds, BigDecimal[] balances, Long[] versions);
+
+    @Query("SELECT slots FROM wallet WHERE wallet_id = :walletId")
+    Mono<Integer> findSlotsByWalletId(UUID walletId);
+
+    @Query("""
+            UPDATE wallet SET balance = balance + :amount, version = version + 1, updated_at = now()
+            WHERE wallet_id = :walletId AND slots = 0
+            RETURNING *
+            """)
+    Mono<Wallet> deposit(UUID walletId, BigDecimal amount);
+
+    @Query("""
+            UPDATE wallet SET balance = balance - :amount, version = version + 1, updated_at = now()
+            WHERE wallet_id = :walletId AND slots = 0 AND balance - held >= :amount
+            RETURNING *
+            """)
+    Mono<Wallet> withdraw(UUID walletId, BigDecimal amount);
+
+    /**
+     * Moves {@code amount} between two unstriped wallets in one statement. Both rows are locked
+     * in {@code wallet_id} order, the same order {@link #lockAllByWalletIds} uses, so concurrent
+     * transfers in opposite directions queue up instead of deadlocking. Returns nothing when
+     * either wallet is missing or striped, or the source is short of funds not under a hold.
+     */
+    @Query("""
+            WITH locked AS (
+                SELECT wallet_id, balance, held FROM wallet
+                WHERE wallet_id IN (:fromWalletId, :toWalletId) AND slots = 0
+                ORDER BY wallet_id
+                FOR UPDATE
+            ), allowed AS (
+                SELECT 1 FROM locked
+                HAVING COUNT(*) = 2 AND bool_or(wallet_id = :fromWalletId AND balance - held >= :amount)
+            ), updated AS (
+                UPDATE wallet w
+                SET balance = CASE WHEN w.wallet_id = :fromWalletId THEN w.balance - :amount
+                                   ELSE w.balance + :amount END,
+                    version = w.version + 1,
+                    updated_at = now()
+                FROM locked l
+                WHERE w.wallet_id = l.wallet_id AND EXISTS (SELECT 1 FROM allowed)
+                RETURNING w.wallet_id, w.balance, w.version
+            )
+            SELECT f.balance AS from_balance, f.version AS from_version,
+                   t.balance AS to_balance, t.version AS to_version
+            FROM updated f JOIN updated t ON f.wallet_id = :fromWalletId AND t.wallet_id = :toWalletId
+            """)
+    Mono<TransferBalances> transfer(UUID fromWalletId, UUID toWalletId, BigDecimal amount);
+
+    /**
+     * Deposit recorded under an idempotency key in the same statement, together with the
+     * operation it was used for. A key that is already stored returns its original result and
+     * operation, and leaves the wallet row untouched.
+     */
+    @Query("""
+            WITH existing AS (
+                SELECT wallet_id, balance, type, amount FROM idempotency_key WHERE idempotency_key = :idempotencyKey
+            ), updated AS (
+                UPDATE wallet SET balance = balance + :amount, version = version + 1, updated_at = now()
+                WHERE wallet_id = :walletId AND slots = 0 AND NOT EXISTS (SELECT 1 FROM existing)
+                RETURNING wallet_id, balance, version
+            ), recorded AS (
+                INSERT INTO idempotency_key (idempotency_key, wallet_id, balance, type, amount, expires_at)
+                SELECT :idempotencyKey, wallet_id, balance, 'DEPOSIT', :amount, :expiresAt FROM updated
+            )
+            SELECT wallet_id, balance, version, 'DEPOSIT' AS type, CAST(:amount AS numeric) AS amount,
+                   FALSE AS replayed
+            FROM updated
+            UNION ALL
+            SELECT wallet_id, balance, CAST(NULL AS bigint) AS version, type, amount, TRUE AS replayed FROM existing
+            """)
+    Mono<IdempotentBalance> depositOnce(UUID walletId, BigDecimal amount, String idempotencyKey, Instant expiresAt);
+
+    @Query("""
+            WITH existing AS (
+                SELECT wallet_id, balance, type, amount FROM idempotency_key WHERE idempotency_key = :idempotencyKey
+            ), updated AS (
+                UPDATE wallet SET balance = balance - :amount, version = version + 1, updated_at = now()
+                WHERE wallet_id = :walletId AND slots = 0 AND balance - held >= :amount
+                  AND NOT EXISTS (SELECT 1 FROM existing)
+                RETURNING wallet_id, balance, version
+            ), recorded AS (
+                INSERT INTO idempotency_key (idempotency_key, wallet_id, balance, type, amount, expires_at)
+                SELECT :idempotencyKey, wallet_id, balance, 'WITHDRAW', :amount, :expiresAt FROM updated
+            )
+            SELECT wallet_id, balance, version, 'WITHDRAW' AS type, CAST(:amount AS numeric) AS amount,
+                   FALSE AS replayed
+            FROM updated
+            UNION ALL
+            SELECT wallet_id, balance, CAST(NULL AS bigint) AS version, type, amount, TRUE AS replayed FROM existing
+            """)
+    Mono<IdempotentBalance> withdrawOnce(UUID walletId, BigDecimal amount, String idempotencyKey, Instant expiresAt);
+
+    /**
+     * Spreads the balance evenly over the slots, in 0.1 units, so no slot starts above the cap
+     * {@link #depositToSlot} keeps it under. A balance too large to spread that way is left
+     * unstriped.
+     */
+    @Query("""
+            WITH source AS (
+                SELECT wallet_id, balance FROM wallet
+                WHERE wallet_id = :walletId AND slots = 0 AND held = 0
+                  AND balance * 10 <= 9223372036854775807 / :slots * :slots
+                FOR UPDATE
+            ), striped AS (
+                UPDATE wallet w SET slots = :slots, balance = 0, version = w.version + 1, updated_at = now()
+                FROM source s WHERE w.wallet_id = s.wallet_id
+                RETURNING w.id, w.wallet_id, w.slots
+            ), seeded AS (
+                INSERT INTO wallet_slot (wallet_id, slot, balance)
+                SELECT s.wallet_id, g.slot,
+                       (FLOOR(s.balance * 10 / :slots) + CASE WHEN g.slot < MOD(s.balance * 10, :slots) THEN 1 ELSE 0 END) / 10
+                FROM source s CROSS JOIN generate_series(0, :slots - 1) AS g(slot)
+            )
+            SELECT st.id, st.wallet_id, st.slots, s.balance
+            FROM striped st JOIN source s ON s.wallet_id = st.wallet_id
+            """)
+    Mono<Wallet> enableStriping(UUID walletId, int slots);
+
+    /**
+     * The wallet's balance is the sum of its slots, so each slot is capped at a {@code slots}th
+     * of the largest balance {@link com.example.wallets.money.Money} can hold; that needs only
+     * the slot's own row lock. A deposit that would take the slot past the cap returns nothing.
+     */
+    @Query("""
+            WITH updated AS (
+                UPDATE wallet_slot SET balance = balance + :amount, updated_at = now()
+                WHERE wallet_id = :walletId AND slot = :slot
+                  AND (balance + :amount) * 10 <= 9223372036854775807 / :slots
+                RETURNING wallet_id, balance
+            )
+            SELECT u.wallet_id,
+                   u.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM wallet_slot s
+                                WHERE s.wallet_id = :walletId AND s.slot <> :slot) AS balance
+            FROM updated u
+            """)
+    Mono<Wallet> depositToSlot(UUID walletId, int slot, int slots, BigDecimal amount);
+
+    @Query("""
+            WITH updated AS (
+                UPDATE wallet_slot SET balance = balance - :amount, updated_at = now()
+                WHERE wallet_id = :walletId AND slot = :slot AND balance >= :amount
+                RETURNING wallet_id, balance
+            )
+            SELECT u.wallet_id,
+                   u.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM wallet_slot s
+                                WHERE s.wallet_id = :walletId AND s.slot <> :slot) AS balance
+            FROM updated u
+            """)
+    Mono<Wallet> withdrawFromSlot(UUID walletId, int slot, BigDecimal amount);
+
+    /**
+     * Fallback for a striped withdrawal whose slot is short: locks every slot of the wallet and
+     * spreads the remaining total evenly over them, like {@link #enableStriping} does, so no slot
+     * ends up above its deposit cap. Returns nothing when the total is below the amount.
+     */
+    @Query("""
+            WITH locked AS (
+                SELECT slot, balance FROM wallet_slot WHERE wallet_id = :walletId ORDER BY slot FOR UPDATE
+            ), total AS (
+                SELECT SUM(balance) AS balance, COUNT(*) AS slots FROM locked
+            ), updated AS (
+                UPDATE wallet_slot s
+                SET balance = (FLOOR((t.balance - :amount) * 10 / t.slots)
+                               + CASE WHEN s.slot < MOD((t.balance - :amount) * 10, t.slots) THEN 1 ELSE 0 END) / 10,
+                    updated_at = now()
+                FROM total t
+                WHERE s.wallet_id = :walletId AND t.balance >= :amount
+                RETURNING s.balance
+            )
+            SELECT CAST(:walletId AS uuid) AS wallet_id, SUM(balance) AS balance
+            FROM updated
+            HAVING COUNT(*) > 0
+            """)
+    Mono<Wallet> withdrawConsolidated(UUID walletId, BigDecimal amount);
 }
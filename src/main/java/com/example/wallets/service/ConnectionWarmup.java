@@ -0,0 +1,93 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.WarmupProperties;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens the pool's initial connections before the application reports ready and prepares the
+ * hot statements on each of them, since the driver caches prepared statements per connection.
+ * The statements target a random wallet id, so they touch no rows, and every transaction is
+ * rolled back. A failed warm-up is logged and startup carries on.
+ */
+@Component
+public class ConnectionWarmup extends BaseLoggerService implements ApplicationRunner {
+
+    private static final BigDecimal WARMUP_AMOUNT = BigDecimal.ONE;
+
+    private final WalletRepository repository;
+    private final TransactionalOperator transactionalOperator;
+    private final R2dbcProperties r2dbcProperties;
+    private final WarmupProperties properties;
+
+    public ConnectionWarmup(WalletRepository repository, TransactionalOperator transactionalOperator,
+                            R2dbcProperties r2dbcProperties, WarmupProperties properties) {
+        this.repository = repository;
+        this.transactionalOperator = transactionalOperator;
+        this.r2dbcProperties = r2dbcProperties;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        int connections = Math.max(Math.min(pool.getInitialSize(), pool.getMaxSize()), 1);
+        long started = System.nanoTime();
+        warmUp(connections)
+                .timeout(properties.getTimeout())
+                .doOnSuccess(ignored -> logger.info("Warmed up {} connections in {} ms",
+                        connections, (System.nanoTime() - started) / 1_000_000))
+                .onErrorResume(ex -> {
+                    logger.warn("Connection warm-up failed: {}", ex.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    /**
+     * Each transaction holds its connection until all of them have prepared their statements,
+     * so every one of the {@code connections} transactions runs on a distinct connection. A
+     * transaction that fails releases the others at once instead of leaving them waiting for
+     * the timeout.
+     */
+    private Mono<Void> warmUp(int connections) {
+        AtomicInteger remaining = new AtomicInteger(connections);
+        Sinks.Empty<Void> allPrepared = Sinks.empty();
+        return Flux.range(0, connections)
+                .flatMapDelayError(i -> transactionalOperator.execute(status -> {
+                    status.setRollbackOnly();
+                    return prepareStatements().then(Mono.defer(() -> {
+                        if (remaining.decrementAndGet() == 0) {
+                            allPrepared.tryEmitEmpty();
+                        }
+                        return allPrepared.asMono();
+                    }));
+                }).doOnError(ex -> allPrepared.tryEmitEmpty()), connections, 1)
+                .then();
+    }
+
+    private Mono<Void> prepareStatements() {
+        UUID walletId = UUID.randomUUID();
+        return repository.findByWalletId(walletId)
+                .then(repository.deposit(walletId, WARMUP_AMOUNT))
+                .then(repository.withdraw(walletId, WARMUP_AMOUNT))
+                .thenMany(repository.lockAllByWalletIds(new UUID[]{walletId}))
+                .then(repository.updateBalances(new UUID[]{walletId}, new BigDecimal[]{WARMUP_AMOUNT}, new Long[]{1L}))
+                .then();
+    }
+}
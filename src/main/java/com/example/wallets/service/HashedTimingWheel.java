@@ -0,0 +1,101 @@
+package com.example.wallets.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel after Varghese and Lauck: an entry goes into the bucket of the tick its
+ * deadline falls on, modulo the wheel size, and advancing the wheel by one tick empties one
+ * bucket. Only deadlines less than one rotation ahead are accepted, so every entry in a bucket
+ * is due when the wheel reaches it; adding an entry and advancing a tick cost O(1) besides the
+ * entries that fall due, however many are waiting. Later deadlines are left to the caller to
+ * add once the wheel has turned far enough, see {@link #horizon()}. Not thread-safe.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<T>> buckets;
+    private long currentTick;
+    private int size;
+
+    /**
+     * The wheel size is rounded up to a power of two.
+     */
+    public HashedTimingWheel(Duration tick, int wheelSize, Instant start) {
+        if (tick.toMillis() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheelSize must be positive");
+        }
+        this.tickMillis = tick.toMillis();
+        int capacity = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.mask = capacity - 1;
+        this.buckets = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            buckets.add(null);
+        }
+        this.currentTick = Math.floorDiv(start.toEpochMilli(), tickMillis);
+    }
+
+    /**
+     * The latest deadline {@link #add} accepts now; it moves forward as the wheel advances.
+     */
+    public Instant horizon() {
+        return Instant.ofEpochMilli((currentTick + buckets.size()) * tickMillis);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns false, leaving the wheel unchanged, when the deadline is beyond the horizon. An
+     * overdue deadline is due on the next tick.
+     */
+    public boolean add(Instant deadline, T value) {
+        long tick = Math.max(Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis), currentTick + 1);
+        if (tick > currentTick + buckets.size()) {
+            return false;
+        }
+        int index = (int) (tick & mask);
+        List<T> bucket = buckets.get(index);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.set(index, bucket);
+        }
+        bucket.add(value);
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances through every tick up to {@code now}, handing the entries that fell due to
+     * {@code due}. After a pause longer than one rotation every bucket is emptied once.
+     */
+    public void advance(Instant now, Consumer<T> due) {
+        long target = Math.floorDiv(now.toEpochMilli(), tickMillis);
+        if (target - currentTick > buckets.size()) {
+            for (int i = 0; i < buckets.size(); i++) {
+                expire(i, due);
+            }
+            currentTick = target;
+            return;
+        }
+        while (currentTick < target) {
+            currentTick++;
+            expire((int) (currentTick & mask), due);
+        }
+    }
+
+    private void expire(int index, Consumer<T> due) {
+        List<T> bucket = buckets.get(index);
+        if (bucket == null) {
+            return;
+        }
+        buckets.set(index, null);
+        size -= bucket.size();
+        bucket.forEach(due);
+    }
+}
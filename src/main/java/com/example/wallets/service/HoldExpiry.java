@@ -0,0 +1,254 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.HoldProperties;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.model.WalletHold;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.WalletHoldRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.stream.BalanceNotifier;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Releases holds when they expire. Holds expiring within one rotation of a
+ * {@link HashedTimingWheel} are kept in memory and released on the tick they fall due, in
+ * batches per shard, so the {@code wallet_hold} table is never polled. The rest stay in the
+ * table: whenever the wheel has turned half a rotation, the next window of holds is read off
+ * the {@code expires_at} index, and the first window after a start also covers holds that
+ * expired while the application was down. A new hold expiring within the loaded window is added
+ * directly, and a captured or released one is dropped from the wheel. With
+ * {@code wallet.stream.notify} enabled, both are also announced to the other instances, which do
+ * the same, so every instance expires every hold; the release statement skips holds that are
+ * already gone, so only one instance records each release in the ledger. Without it, a hold
+ * placed within an instance's loaded window is expired only by the instance that placed it.
+ */
+@Component
+public class HoldExpiry extends BaseLoggerService implements ApplicationRunner, DisposableBean {
+
+    private static final UUID FIRST_HOLD_ID = new UUID(0, 0);
+    private static final int EXPIRY_CONCURRENCY = 4;
+
+    private final WalletHoldRepository repository;
+    private final HoldProperties properties;
+    private final ShardRouting shards;
+    private final LedgerWriter ledger;
+    private final BalanceNotifier notifier;
+    private final Queue<ScheduledHold> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<UUID> settled = new ConcurrentLinkedQueue<>();
+    private final HashedTimingWheel<ScheduledHold> wheel;
+    /**
+     * Holds in the wheel, so one both loaded and scheduled is added once, and those of them
+     * settled since, which are skipped when they fall due. Owned by the expiry thread like the
+     * wheel.
+     */
+    private final Set<UUID> scheduled = new HashSet<>();
+    private final Set<UUID> cancelled = new HashSet<>();
+    private final Scheduler scheduler = Schedulers.newSingle("hold-expiry");
+    /**
+     * Holds expiring before this instant are in the wheel, or being loaded into it. It is
+     * moved forward before a window is read, so a hold created meanwhile is either seen by
+     * the read or added by {@link #schedule}.
+     */
+    private volatile Instant loadedUntil = Instant.EPOCH;
+    private volatile boolean loading;
+    private volatile Instant nextLoad = Instant.EPOCH;
+    private Disposable ticker;
+
+    public HoldExpiry(WalletHoldRepository repository, HoldProperties properties, ShardRouting shards,
+                      LedgerWriter ledger, BalanceNotifier notifier) {
+        this.repository = repository;
+        this.properties = properties;
+        this.shards = shards;
+        this.ledger = ledger;
+        this.notifier = notifier;
+        this.wheel = new HashedTimingWheel<>(properties.getTick(), properties.getWheelSize(), Instant.now());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ticker = Flux.interval(Duration.ZERO, properties.getTick(), scheduler)
+                .subscribe(tick -> tick());
+    }
+
+    /**
+     * A hold placed by this instance.
+     */
+    public void schedule(UUID holdId, UUID walletId, Instant expiresAt) {
+        deliverPlaced(holdId, walletId, expiresAt);
+        if (notifier.isEnabled()) {
+            notifier.enqueueHoldPlaced(holdId, walletId, expiresAt);
+        }
+    }
+
+    /**
+     * A hold captured or released by this instance.
+     */
+    public void settle(UUID holdId) {
+        deliverSettled(holdId);
+        if (notifier.isEnabled()) {
+            notifier.enqueueHoldSettled(holdId);
+        }
+    }
+
+    /**
+     * A hold placed through another instance. Holds beyond the loaded window are left to the
+     * window load.
+     */
+    public void deliverPlaced(UUID holdId, UUID walletId, Instant expiresAt) {
+        if (expiresAt.isBefore(loadedUntil)) {
+            pending.offer(new ScheduledHold(holdId, walletId, expiresAt));
+        }
+    }
+
+    public void deliverSettled(UUID holdId) {
+        settled.offer(holdId);
+    }
+
+    /**
+     * Runs on the expiry thread only, the one owner of the wheel. An exception is logged rather
+     * than thrown, since it would end the interval and no hold would expire again.
+     */
+    private void tick() {
+        try {
+            ScheduledHold hold;
+            while ((hold = pending.poll()) != null) {
+                if (!scheduled.add(hold.holdId())) {
+                    continue;
+                }
+                if (!wheel.add(hold.expiresAt(), hold)) {
+                    wheel.add(wheel.horizon(), hold);
+                }
+            }
+            UUID holdId;
+            while ((holdId = settled.poll()) != null) {
+                if (scheduled.remove(holdId)) {
+                    cancelled.add(holdId);
+                }
+            }
+            Instant now = Instant.now();
+            List<ScheduledHold> due = new ArrayList<>();
+            wheel.advance(now, expired -> {
+                if (!cancelled.remove(expired.holdId())) {
+                    scheduled.remove(expired.holdId());
+                    due.add(expired);
+                }
+            });
+            if (!due.isEmpty()) {
+                expire(due, now);
+            }
+            Duration halfRotation = properties.getTick().multipliedBy(properties.getWheelSize() / 2);
+            if (!loading && loadedUntil.isBefore(now.plus(halfRotation)) && !now.isBefore(nextLoad)) {
+                load(wheel.horizon());
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Hold expiry tick failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private void load(Instant until) {
+        Instant from = loadedUntil;
+        loading = true;
+        loadedUntil = until;
+        read(from, until)
+                .subscribe(count -> {
+                    if (count > 0) {
+                        logger.info("Loaded {} holds expiring before {}", count, until);
+                    }
+                    loading = false;
+                }, ex -> {
+                    logger.error("Loading holds expiring before {} failed: {}", until, ex.getMessage());
+                    loadedUntil = from;
+                    nextLoad = Instant.now().plus(properties.getRetryDelay());
+                    loading = false;
+                });
+    }
+
+    /**
+     * Queues the holds expiring in {@code [from, until)} for the wheel and counts them.
+     */
+    private Mono<Long> read(Instant from, Instant until) {
+        int batchSize = properties.getLoadBatchSize();
+        return Flux.range(0, shards.shardCount())
+                .concatMap(shard -> shards.onShard(shard, page(from, FIRST_HOLD_ID, until, batchSize)
+                        .expand(holds -> holds.size() < batchSize
+                                ? Mono.empty()
+                                : page(holds.get(holds.size() - 1).getExpiresAt(),
+                                        holds.get(holds.size() - 1).getHoldId(), until, batchSize))))
+                .doOnNext(holds -> holds.forEach(loaded ->
+                        pending.offer(new ScheduledHold(loaded.getHoldId(), loaded.getWalletId(), loaded.getExpiresAt()))))
+                .reduce(0L, (count, holds) -> count + holds.size());
+    }
+
+    private Mono<List<WalletHold>> page(Instant afterExpiresAt, UUID afterHoldId, Instant until, int batchSize) {
+        return repository.findExpiring(afterExpiresAt, afterHoldId, until, batchSize).collectList();
+    }
+
+    /**
+     * A batch that fails is retried after {@code retry-delay}, like a window that fails to load.
+     */
+    private void expire(List<ScheduledHold> due, Instant now) {
+        int batchSize = properties.getExpiryBatchSize();
+        Flux.fromIterable(shards.partition(due, ScheduledHold::walletId).entrySet())
+                .flatMapIterable(shard -> {
+                    List<List<ScheduledHold>> batches = new ArrayList<>();
+                    for (int i = 0; i < shard.getValue().size(); i += batchSize) {
+                        batches.add(shard.getValue().subList(i, Math.min(i + batchSize, shard.getValue().size())));
+                    }
+                    return batches.stream().map(batch -> new ShardBatch(shard.getKey(), batch)).toList();
+                })
+                .flatMap(batch -> shards.route(batch.shard(),
+                                batch.holds().stream().map(ScheduledHold::walletId).distinct().toList(),
+                                repository.expire(batch.holds().stream().map(ScheduledHold::holdId).toArray(UUID[]::new), now)
+                                        .collectList())
+                        .doOnNext(released -> released.forEach(hold -> ledger.record(hold.getWalletId(),
+                                OperationType.RELEASE, Money.of(hold.getAmount()), Money.of(hold.getBalance()),
+                                hold.getVersion())))
+                        .onErrorResume(ex -> {
+                            logger.error("Releasing {} expired holds failed: {}", batch.holds().size(), ex.getMessage());
+                            Instant retry = Instant.now().plus(properties.getRetryDelay());
+                            batch.holds().forEach(hold -> pending.offer(
+                                    new ScheduledHold(hold.holdId(), hold.walletId(), retry)));
+                            return Mono.empty();
+                        }), EXPIRY_CONCURRENCY)
+                .map(List::size)
+                .reduce(0, Integer::sum)
+                .subscribe(released -> {
+                    if (released > 0) {
+                        logger.info("Released {} expired holds", released);
+                    }
+                });
+    }
+
+    @Override
+    public void destroy() {
+        if (ticker != null) {
+            ticker.dispose();
+        }
+        scheduler.dispose();
+    }
+
+    private record ScheduledHold(UUID holdId, UUID walletId, Instant expiresAt) {
+    }
+
+    private record ShardBatch(int shard, List<ScheduledHold> holds) {
+    }
+}
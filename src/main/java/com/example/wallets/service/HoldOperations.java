@@ -0,0 +1,90 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.HoldProperties;
+import com.example.wallets.exceptions.HoldNotFoundException;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.model.HoldBalance;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.WalletHoldRepository;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Holds reserve part of an unstriped wallet's balance: {@code held} grows by the amount, and
+ * withdrawals and transfers may only spend {@code balance - held}. A capture settles the hold,
+ * or part of it, against the balance; a release, or the hold's expiry, gives it back. Each is
+ * one statement, and only a rejected one pays for the lookups that tell the caller why.
+ */
+@Component
+public class HoldOperations extends BaseLoggerService {
+
+    private final WalletHoldRepository repository;
+    private final StripedWalletOperations striped;
+    private final HoldExpiry expiry;
+    private final HoldProperties properties;
+
+    public HoldOperations(WalletHoldRepository repository, StripedWalletOperations striped, HoldExpiry expiry,
+                          HoldProperties properties) {
+        this.repository = repository;
+        this.striped = striped;
+        this.expiry = expiry;
+        this.properties = properties;
+    }
+
+    /**
+     * Expiry times are kept to the millisecond, which the database stores exactly.
+     */
+    public Mono<HoldBalance> hold(UUID walletId, Money amount, Long ttlSeconds) {
+        Duration ttl = ttlSeconds == null ? properties.getDefaultTtl() : Duration.ofSeconds(ttlSeconds);
+        if (ttl.compareTo(properties.getMaxTtl()) > 0) {
+            return Mono.error(new NotValidJsonException(
+                    "Invalid JSON: ttlSeconds cannot exceed " + properties.getMaxTtl().toSeconds()));
+        }
+        UUID holdId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plus(ttl).truncatedTo(ChronoUnit.MILLIS);
+        return repository.hold(holdId, walletId, amount.toBigDecimal(), expiresAt)
+                .doOnNext(hold -> expiry.schedule(hold.getHoldId(), hold.getWalletId(), hold.getExpiresAt()))
+                .switchIfEmpty(Mono.defer(() -> rejectHold(walletId)));
+    }
+
+    /**
+     * Captures the whole hold when {@code amount} is null.
+     */
+    public Mono<HoldBalance> capture(UUID walletId, UUID holdId, Money amount) {
+        Instant now = Instant.now();
+        return repository.capture(holdId, walletId, amount == null ? null : amount.toBigDecimal(), now)
+                .doOnNext(hold -> expiry.settle(holdId))
+                .switchIfEmpty(Mono.defer(() -> repository.findById(holdId)
+                        .filter(hold -> hold.getWalletId().equals(walletId) && hold.getExpiresAt().isAfter(now))
+                        .switchIfEmpty(Mono.error(() -> new HoldNotFoundException("Hold not found with id: " + holdId)))
+                        .flatMap(hold -> Mono.error(new NotValidJsonException(
+                                "Invalid JSON: amount cannot exceed the held amount of " + Money.of(hold.getAmount()))))));
+    }
+
+    public Mono<HoldBalance> release(UUID walletId, UUID holdId) {
+        return repository.release(holdId, walletId)
+                .doOnNext(hold -> expiry.settle(holdId))
+                .switchIfEmpty(Mono.error(() -> new HoldNotFoundException("Hold not found with id: " + holdId)));
+    }
+
+    public Mono<Boolean> hasHolds(UUID walletId) {
+        return repository.existsByWalletId(walletId);
+    }
+
+    private Mono<HoldBalance> rejectHold(UUID walletId) {
+        logger.info("Checking wallet of rejected hold");
+        return striped.resolveSlots(walletId)
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id: " + walletId)))
+                .flatMap(slots -> Mono.error(slots > 0
+                        ? new NotValidJsonException("Invalid JSON: holds are not supported for striped wallets")
+                        : new InsufficientFundsException("Not enough funds for this transaction")));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.IdempotencyProperties;
+import com.example.wallets.repository.IdempotencyKeyRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Deletes expired idempotency keys in bounded batches, so a large backlog never turns into one
+ * long-running delete. Each shard is purged in turn.
+ */
+@Component
+public class IdempotencyKeyPurger extends BaseLoggerService {
+
+    private final IdempotencyKeyRepository repository;
+    private final IdempotencyProperties properties;
+    private final ShardRouting shards;
+
+    public IdempotencyKeyPurger(IdempotencyKeyRepository repository, IdempotencyProperties properties,
+                                ShardRouting shards) {
+        this.repository = repository;
+        this.properties = properties;
+        this.shards = shards;
+    }
+
+    @Scheduled(initialDelayString = "${wallet.idempotency.purge-interval}",
+            fixedDelayString = "${wallet.idempotency.purge-interval}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int batchSize = properties.getPurgeBatchSize();
+        Long purged = Flux.range(0, shards.shardCount())
+                .concatMap(shard -> shards.onShard(shard, repository.deleteExpired(now, batchSize)
+                        .expand(deleted -> deleted < batchSize ? Mono.empty() : repository.deleteExpired(now, batchSize))))
+                .reduce(0L, Long::sum)
+                .onErrorResume(ex -> {
+                    logger.error("Purging expired idempotency keys failed: {}", ex.getMessage());
+                    return Mono.just(0L);
+                })
+                .block();
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.IdempotencyProperties;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.IdempotencyKeyConflictException;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.model.IdempotentBalance;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.IdempotencyKeyRepository;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.utils.BaseLoggerService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static com.example.wallets.dto.request.OperationType.DEPOSIT;
+
+/**
+ * Operations carrying an {@code Idempotency-Key}. The key, the operation it was used for and its
+ * result are stored in the same transaction as the balance change, and recent keys are also
+ * indexed in memory so most retries are answered without a query. Reusing a key for a different
+ * operation is rejected rather than answered with the other operation's result.
+ */
+@Component
+public class IdempotentOperations extends BaseLoggerService {
+
+    private final WalletRepository walletRepository;
+    private final IdempotencyKeyRepository keyRepository;
+    private final StripedWalletOperations striped;
+    private final LedgerWriter ledger;
+    private final TransactionalOperator transactionalOperator;
+    private final IdempotencyProperties properties;
+    private final Cache<String, StoredKey> index;
+
+    public IdempotentOperations(WalletRepository walletRepository, IdempotencyKeyRepository keyRepository,
+                                StripedWalletOperations striped, LedgerWriter ledger,
+                                TransactionalOperator transactionalOperator, IdempotencyProperties properties) {
+        this.walletRepository = walletRepository;
+        this.keyRepository = keyRepository;
+        this.striped = striped;
+        this.ledger = ledger;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = properties;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(properties.getIndexSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    public Mono<IdempotentOutcome> execute(String idempotencyKey, WalletRequest request) {
+        StoredKey known = index.getIfPresent(idempotencyKey);
+        if (known != null) {
+            logger.info("Replaying result for idempotency key: {}", idempotencyKey);
+            return replay(idempotencyKey, known, request);
+        }
+        Instant expiresAt = Instant.now().plus(properties.getTtl());
+        Mono<IdempotentBalance> keyed = request.getType() == DEPOSIT
+                ? walletRepository.depositOnce(request.getWalletId(), request.getAmount().toBigDecimal(), idempotencyKey, expiresAt)
+                : walletRepository.withdrawOnce(request.getWalletId(), request.getAmount().toBigDecimal(), idempotencyKey, expiresAt);
+
+        return keyed
+                .flatMap(result -> {
+                    StoredKey stored = new StoredKey(result.getWalletId(), result.getType(), result.getAmount(),
+                            new WalletResponse(result.getWalletId(), Money.of(result.getBalance()), result.getVersion()));
+                    if (result.isReplayed()) {
+                        return replay(idempotencyKey, stored, request)
+                                .doOnNext(outcome -> index.put(idempotencyKey, stored));
+                    }
+                    ledger.record(stored.walletId(), request.getType(), request.getAmount(), stored.response().getAmount(),
+                            stored.response().getVersion());
+                    index.put(idempotencyKey, stored);
+                    return Mono.just(IdempotentOutcome.applied(stored.response()));
+                })
+                .onErrorResume(DuplicateKeyException.class, ex -> findStored(idempotencyKey, request))
+                .switchIfEmpty(Mono.defer(() -> rejectOrStriped(idempotencyKey, request, expiresAt)));
+    }
+
+    /**
+     * Answers with the stored result when the key was recorded for this same operation. Keys
+     * stored before the operation was recorded with them only have their wallet checked.
+     */
+    private Mono<IdempotentOutcome> replay(String idempotencyKey, StoredKey stored, WalletRequest request) {
+        boolean sameOperation = stored.walletId().equals(request.getWalletId())
+                && (stored.type() == null || stored.type().equals(request.getType().name()))
+                && (stored.amount() == null || stored.amount().compareTo(request.getAmount().toBigDecimal()) == 0);
+        if (!sameOperation) {
+            return Mono.error(new IdempotencyKeyConflictException(
+                    "Idempotency key " + idempotencyKey + " was already used for a different operation"));
+        }
+        return Mono.just(IdempotentOutcome.replayed(stored.response()));
+    }
+
+    /**
+     * A concurrent request with the same key committed first; its stored result is the answer.
+     */
+    private Mono<IdempotentOutcome> findStored(String idempotencyKey, WalletRequest request) {
+        return keyRepository.findByKey(idempotencyKey)
+                .map(stored -> new StoredKey(stored.getWalletId(), stored.getType(), stored.getAmount(),
+                        new WalletResponse(stored.getWalletId(), Money.of(stored.getBalance()))))
+                .flatMap(stored -> replay(idempotencyKey, stored, request)
+                        .doOnNext(outcome -> index.put(idempotencyKey, stored)));
+    }
+
+    /**
+     * The keyed statement changed nothing: the wallet is missing, short of funds, or striped.
+     * A striped operation and its key are written in one transaction, so when a concurrent
+     * request recorded the key first, the operation is rolled back and that request's result
+     * is the answer.
+     */
+    private Mono<IdempotentOutcome> rejectOrStriped(String idempotencyKey, WalletRequest request, Instant expiresAt) {
+        UUID walletId = request.getWalletId();
+        return striped.resolveSlots(walletId)
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id: " + walletId)))
+                .flatMap(slots -> {
+                    if (slots == 0) {
+                        return Mono.<WalletResponse>error(new InsufficientFundsException("Not enough funds for this transaction"));
+                    }
+                    Mono<Wallet> applied = request.getType() == DEPOSIT
+                            ? striped.deposit(walletId, request.getAmount(), slots)
+                            : striped.withdraw(walletId, request.getAmount(), slots)
+                                    .switchIfEmpty(Mono.error(() -> new InsufficientFundsException("Not enough funds for this transaction")));
+                    return applied
+                            .map(wallet -> new WalletResponse(walletId, Money.of(wallet.getBalance())))
+                            .flatMap(response -> keyRepository
+                                    .insertKey(idempotencyKey, walletId, response.getAmount().toBigDecimal(),
+                                            request.getType().name(), request.getAmount().toBigDecimal(), expiresAt)
+                                    .thenReturn(response))
+                            .as(transactionalOperator::transactional);
+                })
+                .map(response -> {
+                    ledger.record(walletId, request.getType(), request.getAmount(), response.getAmount(), null);
+                    index.put(idempotencyKey, new StoredKey(walletId, request.getType().name(),
+                            request.getAmount().toBigDecimal(), response));
+                    return IdempotentOutcome.applied(response);
+                })
+                .onErrorResume(DuplicateKeyException.class, ex -> findStored(idempotencyKey, request));
+    }
+
+    /**
+     * A recorded key: the operation it was used for and its result.
+     */
+    private record StoredKey(UUID walletId, String type, BigDecimal amount, WalletResponse response) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.wallets.service;
+
+import com.example.wallets.dto.response.WalletResponse;
+
+/**
+ * Result of an operation carrying an idempotency key: applied now, or replayed from the
+ * result stored when the key was first used.
+ */
+public record IdempotentOutcome(WalletResponse response, boolean replayed) {
+
+    public static IdempotentOutcome applied(WalletResponse response) {
+        return new IdempotentOutcome(response, false);
+    }
+
+    public static IdempotentOutcome replayed(WalletResponse response) {
+        return new IdempotentOutcome(response, true);
+    }
+}
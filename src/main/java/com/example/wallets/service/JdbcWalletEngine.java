@@ -0,0 +1,157 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.JdbcEngineProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.utils.BaseLoggerService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Blocking JDBC alternative to the R2DBC repository for the single-wallet hot path: lookups,
+ * deposits and withdrawals, on a HikariCP pool configured under {@code wallet.jdbc}. Calls
+ * run on a bounded scheduler with one thread per pooled connection, so no thread ever waits
+ * for a connection and the event loop never blocks. The results match the repository's:
+ * nothing for a missing or striped wallet, or a withdrawal short of funds, and the caller
+ * takes the usual fallbacks. Batches, keyed operations and striped wallets stay on R2DBC.
+ */
+@Component
+public class JdbcWalletEngine extends BaseLoggerService implements DisposableBean {
+
+    private static final String FIND = """
+            SELECT w.id, w.wallet_id, w.slots,
+                   CASE WHEN w.slots = 0 THEN w.balance
+                        ELSE (SELECT COALESCE(SUM(s.balance), 0) FROM wallet_slot s WHERE s.wallet_id = w.wallet_id)
+                   END AS balance,
+                   CASE WHEN w.slots = 0 THEN w.version END AS version
+            FROM wallet w
+            """;
+    private static final String FIND_ONE = FIND + "WHERE w.wallet_id = ?";
+    private static final String FIND_ALL = FIND + "WHERE w.wallet_id = ANY(?)";
+    private static final String DEPOSIT = """
+            UPDATE wallet SET balance = balance + ?, version = version + 1, updated_at = now()
+            WHERE wallet_id = ? AND slots = 0
+            RETURNING id, wallet_id, balance, slots, version
+            """;
+    private static final String LOCK = "SELECT balance - held AS available, slots FROM wallet WHERE wallet_id = ? FOR UPDATE";
+    private static final String WITHDRAW = """
+            UPDATE wallet SET balance = balance - ?, version = version + 1, updated_at = now()
+            WHERE wallet_id = ?
+            RETURNING id, wallet_id, balance, slots, version
+            """;
+
+    private static final RowMapper<Wallet> WALLET = (row, rowNum) -> {
+        Wallet wallet = new Wallet();
+        wallet.setId(row.getLong("id"));
+        wallet.setWalletId(row.getObject("wallet_id", UUID.class));
+        wallet.setBalance(row.getBigDecimal("balance"));
+        wallet.setSlots(row.getInt("slots"));
+        wallet.setVersion(row.getObject("version", Long.class));
+        return wallet;
+    };
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final Scheduler scheduler;
+
+    public JdbcWalletEngine(JdbcEngineProperties properties, ShardProperties shardProperties) {
+        if (!properties.isEnabled()) {
+            this.dataSource = null;
+            this.jdbc = null;
+            this.transactions = null;
+            this.scheduler = null;
+            return;
+        }
+        if (shardProperties.isEnabled()) {
+            throw new IllegalStateException("wallet.jdbc and wallet.sharding cannot be enabled together");
+        }
+        this.dataSource = createDataSource(properties);
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.scheduler = Schedulers.newBoundedElastic(properties.getMaximumPoolSize(), properties.getQueueSize(),
+                "wallet-jdbc");
+        logger.info("Single-wallet operations run on JDBC with {} connections", properties.getMaximumPoolSize());
+    }
+
+    public boolean isEnabled() {
+        return dataSource != null;
+    }
+
+    public Mono<Wallet> find(UUID walletId) {
+        return Mono.fromCallable(() -> single(jdbc.query(FIND_ONE, WALLET, walletId)))
+                .subscribeOn(scheduler);
+    }
+
+    public Flux<Wallet> findAll(Collection<UUID> walletIds) {
+        UUID[] ids = walletIds.toArray(UUID[]::new);
+        return Mono.fromCallable(() -> jdbc.query(FIND_ALL,
+                        statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids)),
+                        WALLET))
+                .subscribeOn(scheduler)
+                .flatMapIterable(wallets -> wallets);
+    }
+
+    public Mono<Wallet> deposit(UUID walletId, BigDecimal amount) {
+        return Mono.fromCallable(() -> single(jdbc.query(DEPOSIT, WALLET, amount, walletId)))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Locks the row first, so the funds check and the update see the same balance. Funds under
+     * a hold are not available.
+     */
+    public Mono<Wallet> withdraw(UUID walletId, BigDecimal amount) {
+        return Mono.fromCallable(() -> transactions.execute(status -> {
+                    List<Boolean> allowed = jdbc.query(LOCK, (row, rowNum) ->
+                            row.getInt("slots") == 0 && row.getBigDecimal("available").compareTo(amount) >= 0, walletId);
+                    if (allowed.isEmpty() || !allowed.get(0)) {
+                        return null;
+                    }
+                    return single(jdbc.query(WITHDRAW, WALLET, amount, walletId));
+                }))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public void destroy() {
+        if (dataSource != null) {
+            scheduler.dispose();
+            dataSource.close();
+        }
+    }
+
+    private static Wallet single(List<Wallet> wallets) {
+        return wallets.isEmpty() ? null : wallets.get(0);
+    }
+
+    private static HikariDataSource createDataSource(JdbcEngineProperties properties) {
+        if (properties.getUrl() == null || properties.getUrl().isBlank()) {
+            throw new IllegalStateException("wallet.jdbc.url must be set when the JDBC engine is enabled");
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("wallet-jdbc");
+        config.setJdbcUrl(properties.getUrl());
+        config.setUsername(properties.getUsername());
+        config.setPassword(properties.getPassword());
+        config.setMaximumPoolSize(properties.getMaximumPoolSize());
+        config.setMinimumIdle(properties.getMaximumPoolSize());
+        config.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        return new HikariDataSource(config);
+    }
+}
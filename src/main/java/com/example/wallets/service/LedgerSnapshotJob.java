@@ -0,0 +1,67 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.LedgerProperties;
+import com.example.wallets.repository.WalletOperationRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Instant;
+
+/**
+ * Keeps {@code wallet_snapshot} at each wallet's latest ledger entry and, when a retention is
+ * configured, deletes old entries the snapshots already cover. Each shard is processed in turn.
+ */
+@Component
+public class LedgerSnapshotJob extends BaseLoggerService {
+
+    private final WalletOperationRepository repository;
+    private final LedgerProperties properties;
+    private final ShardRouting shards;
+
+    public LedgerSnapshotJob(WalletOperationRepository repository, LedgerProperties properties, ShardRouting shards) {
+        this.repository = repository;
+        this.properties = properties;
+        this.shards = shards;
+    }
+
+    @Scheduled(initialDelayString = "${wallet.ledger.snapshot-interval}",
+            fixedDelayString = "${wallet.ledger.snapshot-interval}")
+    public void snapshotAndCompact() {
+        Flux.range(0, shards.shardCount())
+                .concatMap(shard -> shards.onShard(shard, snapshotAndCompactShard()))
+                .reduce((total, shard) -> Tuples.of(total.getT1() + shard.getT1(), total.getT2() + shard.getT2()))
+                .doOnNext(result -> {
+                    if (result.getT1() > 0 || result.getT2() > 0) {
+                        logger.info("Ledger entries snapshotted: {}, entries compacted: {}", result.getT1(), result.getT2());
+                    }
+                })
+                .onErrorResume(ex -> {
+                    logger.error("Ledger snapshot failed: {}", ex.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    private Mono<Tuple2<Long, Long>> snapshotAndCompactShard() {
+        int batchSize = properties.getSnapshotBatchSize();
+        Mono<Long> snapshots = repository.snapshot(batchSize)
+                .expand(read -> read == 0 ? Mono.empty() : repository.snapshot(batchSize))
+                .reduce(0L, Long::sum);
+        Mono<Long> compacted = properties.getRetention() == null
+                ? Mono.just(0L)
+                : Mono.defer(() -> {
+                    Instant cutoff = Instant.now().minus(properties.getRetention());
+                    return repository.compact(cutoff, batchSize)
+                            .expand(deleted -> deleted < batchSize ? Mono.empty() : repository.compact(cutoff, batchSize))
+                            .reduce(0L, Long::sum);
+                });
+
+        return snapshots.zipWhen(read -> compacted);
+    }
+}
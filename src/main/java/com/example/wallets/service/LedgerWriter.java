@@ -0,0 +1,211 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.LedgerProperties;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.WalletOperationRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends operations to the {@code wallet_operation} ledger off the request path. Entries are
+ * queued in memory and written as multi-row inserts of up to {@code batch-size} rows, at most
+ * {@code max-linger} after the first entry of a batch was queued. With sharding, a batch is
+ * written as one insert per shard. Entries whose insert failed are retried before any newer
+ * ones, after a delay that doubles from {@code retry-delay} up to {@code max-retry-delay}.
+ * <p>
+ * One flush runs at a time, guarded by {@code running}. At shutdown {@link #drain()} takes that
+ * guard for good, after any write in flight has completed, so a batch is never written by the
+ * drain and by a pending retry both.
+ */
+@Component
+public class LedgerWriter extends BaseLoggerService {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WalletOperationRepository repository;
+    private final LedgerProperties properties;
+    private final ShardRouting shards;
+    private final Queue<LedgerEntry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+    /**
+     * Entries of the last batch that could not be written, the delay before the next attempt
+     * and when it is due. Only the holder of {@code running} touches them.
+     */
+    private volatile List<LedgerEntry> unwritten = List.of();
+    private volatile Duration retryDelay;
+    private volatile long retryAtNanos;
+    private volatile boolean closed;
+
+    public LedgerWriter(WalletOperationRepository repository, LedgerProperties properties, ShardRouting shards) {
+        this.repository = repository;
+        this.properties = properties;
+        this.shards = shards;
+    }
+
+    /**
+     * The version is the wallet version the operation was applied at, or null for striped wallets.
+     */
+    public void record(UUID walletId, OperationType type, Money amount, Money balance, Long version) {
+        pending.offer(new LedgerEntry(walletId, type, amount, balance, version, Instant.now()));
+        int queued = size.incrementAndGet();
+        if (queued >= properties.getBatchSize()) {
+            tryFlush();
+        } else if (queued == 1) {
+            Schedulers.parallel().schedule(this::tryFlush, properties.getMaxLinger().toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Waits for a write in flight, then writes the failed batch, without waiting for its retry
+     * delay, and everything still queued. The flush is never released again.
+     */
+    @PreDestroy
+    public void drain() {
+        closed = true;
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (!running.compareAndSet(false, true)) {
+            if (System.nanoTime() - deadline > 0) {
+                logger.error("Ledger flush still running on shutdown, dropping {} ledger entries",
+                        unwritten.size() + size.get());
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        List<LedgerEntry> batch = unwritten.isEmpty() ? poll() : unwritten;
+        while (!batch.isEmpty()) {
+            List<LedgerEntry> failed = write(batch).block(DRAIN_TIMEOUT);
+            if (failed != null && !failed.isEmpty()) {
+                unwritten = failed;
+                logger.error("Dropping {} ledger entries on shutdown", failed.size() + size.get());
+                return;
+            }
+            unwritten = List.of();
+            batch = poll();
+        }
+    }
+
+    private void tryFlush() {
+        if (running.compareAndSet(false, true)) {
+            flush();
+        }
+    }
+
+    /**
+     * A failed batch waiting for its retry releases {@code running}, so that {@link #drain()}
+     * can take over; a flush started before the retry is due gives it straight back.
+     */
+    private void flush() {
+        if (closed) {
+            running.set(false);
+            return;
+        }
+        if (!unwritten.isEmpty() && System.nanoTime() - retryAtNanos < 0) {
+            running.set(false);
+            if (System.nanoTime() - retryAtNanos >= 0) {
+                tryFlush();
+            }
+            return;
+        }
+        List<LedgerEntry> batch = unwritten.isEmpty() ? poll() : unwritten;
+        if (batch.isEmpty()) {
+            running.set(false);
+            if (!pending.isEmpty()) {
+                tryFlush();
+            }
+            return;
+        }
+        write(batch).subscribe(failed -> {
+            unwritten = failed;
+            if (failed.isEmpty()) {
+                retryDelay = null;
+                flush();
+                return;
+            }
+            retryDelay = retryDelay == null
+                    ? properties.getRetryDelay()
+                    : min(retryDelay.multipliedBy(2), properties.getMaxRetryDelay());
+            retryAtNanos = System.nanoTime() + retryDelay.toNanos();
+            logger.warn("Retrying {} ledger entries in {} ms", failed.size(), retryDelay.toMillis());
+            running.set(false);
+            Schedulers.parallel().schedule(this::tryFlush, retryDelay.toNanos(), TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private List<LedgerEntry> poll() {
+        List<LedgerEntry> batch = new ArrayList<>();
+        LedgerEntry entry;
+        while (batch.size() < properties.getBatchSize() && (entry = pending.poll()) != null) {
+            batch.add(entry);
+        }
+        size.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Emits the entries that could not be written. With sharding, a failed shard does not undo
+     * the inserts on the others, so only its own entries are returned.
+     */
+    private Mono<List<LedgerEntry>> write(List<LedgerEntry> batch) {
+        if (!shards.isEnabled()) {
+            return insert(batch)
+                    .thenReturn(List.<LedgerEntry>of())
+                    .onErrorReturn(batch);
+        }
+        return Flux.fromIterable(shards.partition(batch, LedgerEntry::walletId).entrySet())
+                .flatMap(shard -> shards.onShard(shard.getKey(), insert(shard.getValue()))
+                        .then(Mono.<List<LedgerEntry>>empty())
+                        .onErrorReturn(shard.getValue()))
+                .collectList()
+                .map(failed -> failed.stream().flatMap(List::stream).toList());
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private Mono<Integer> insert(List<LedgerEntry> batch) {
+        int count = batch.size();
+        UUID[] walletIds = new UUID[count];
+        String[] types = new String[count];
+        BigDecimal[] amounts = new BigDecimal[count];
+        BigDecimal[] balances = new BigDecimal[count];
+        Long[] versions = new Long[count];
+        Long[] createdAtMicros = new Long[count];
+        for (int i = 0; i < count; i++) {
+            LedgerEntry entry = batch.get(i);
+            walletIds[i] = entry.walletId();
+            types[i] = entry.type().name();
+            amounts[i] = entry.amount().toBigDecimal();
+            balances[i] = entry.balance().toBigDecimal();
+            versions[i] = entry.version();
+            createdAtMicros[i] = ChronoUnit.MICROS.between(Instant.EPOCH, entry.createdAt());
+        }
+        return repository.insertAll(walletIds, types, amounts, balances, versions, createdAtMicros)
+                .doOnError(ex -> logger.error("Writing {} ledger entries failed: {}", count, ex.getMessage()));
+    }
+
+    private record LedgerEntry(UUID walletId, OperationType type, Money amount, Money balance, Long version,
+                               Instant createdAt) {
+    }
+}
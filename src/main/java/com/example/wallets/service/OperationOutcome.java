@@ -0,0 +1,28 @@
+package com.example.wallets.service;
+
+import com.example.wallets.dto.response.WalletResponse;
+
+/**
+ * Result of one operation inside a batch: applied with a response, rejected with an error, or
+ * deferred to the single-operation path when the batch cannot apply it.
+ */
+public record OperationOutcome(WalletResponse response, RuntimeException error) {
+
+    private static final OperationOutcome DEFERRED = new OperationOutcome(null, null);
+
+    public static OperationOutcome applied(WalletResponse response) {
+        return new OperationOutcome(response, null);
+    }
+
+    public static OperationOutcome rejected(RuntimeException error) {
+        return new OperationOutcome(null, error);
+    }
+
+    public static OperationOutcome deferred() {
+        return DEFERRED;
+    }
+
+    public boolean isDeferred() {
+        return response == null && error == null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.wallets.service;
+
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance operations for wallets in striped mode, where the balance is spread over
+ * {@code wallet_slot} rows so concurrent operations do not all queue on one row lock.
+ */
+@Component
+public class StripedWalletOperations extends BaseLoggerService {
+
+    public static final int MIN_SLOTS = 2;
+    public static final int MAX_SLOTS = 64;
+
+    private final WalletRepository repository;
+    private final Map<UUID, Integer> slotsByWallet = new ConcurrentHashMap<>();
+
+    public StripedWalletOperations(WalletRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Slot count of a wallet already known to be striped, or {@code null}. Striping is never
+     * turned off, so a remembered value stays valid.
+     */
+    public Integer knownSlots(UUID walletId) {
+        return slotsByWallet.get(walletId);
+    }
+
+    /**
+     * Looks up the slot count of a wallet and remembers it when the wallet is striped.
+     * Completes empty when the wallet does not exist.
+     */
+    public Mono<Integer> resolveSlots(UUID walletId) {
+        return repository.findSlotsByWalletId(walletId)
+                .doOnNext(slots -> remember(walletId, slots));
+    }
+
+    public Mono<Wallet> enable(UUID walletId, int slots) {
+        logger.info("Enabling striping with {} slots for wallet: {}", slots, walletId);
+        return repository.enableStriping(walletId, slots)
+                .doOnNext(wallet -> remember(walletId, wallet.getSlots()));
+    }
+
+    public Mono<Wallet> deposit(UUID walletId, Money amount, int slots) {
+        return repository.depositToSlot(walletId, pickSlot(slots), slots, amount.toBigDecimal())
+                .switchIfEmpty(Mono.error(() -> new NotValidJsonException("Invalid JSON: amount exceeds the supported balance")));
+    }
+
+    /**
+     * Withdraws from one random slot and falls back to consolidating all slots when that slot
+     * is short. Completes empty when the wallet as a whole has insufficient funds.
+     */
+    public Mono<Wallet> withdraw(UUID walletId, Money amount, int slots) {
+        BigDecimal value = amount.toBigDecimal();
+        return repository.withdrawFromSlot(walletId, pickSlot(slots), value)
+                .switchIfEmpty(Mono.defer(() -> {
+                    logger.info("Slot short, consolidating wallet: {}", walletId);
+                    return repository.withdrawConsolidated(walletId, value);
+                }));
+    }
+
+    private void remember(UUID walletId, Integer slots) {
+        if (slots != null && slots > 0) {
+            slotsByWallet.put(walletId, slots);
+        }
+    }
+
+    private int pickSlot(int slots) {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.WalletCacheProperties;
+import com.example.wallets.dto.response.CacheStatsResponse;
+import com.example.wallets.dto.response.WalletResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of wallet balances. Concurrent misses for the same wallet share
+ * one in-flight load, and successful operations write their new balance through. Operations
+ * finish in any order, so a balance only replaces a cached one with a lower version.
+ */
+@Component
+public class WalletBalanceCache {
+
+    private final AsyncCache<UUID, WalletResponse> cache;
+
+    public WalletBalanceCache(WalletCacheProperties properties) {
+        this.cache = properties.isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .expireAfterWrite(properties.getTtl())
+                        .recordStats()
+                        .buildAsync()
+                : null;
+    }
+
+    /**
+     * Returns the cached balance or subscribes to {@code loader} once for all concurrent
+     * callers. Empty and failed loads are not cached.
+     */
+    public Mono<WalletResponse> get(UUID walletId, Function<UUID, Mono<WalletResponse>> loader) {
+        if (cache == null) {
+            return loader.apply(walletId);
+        }
+        return Mono.fromFuture(() -> cache.get(walletId, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * Returns the cached balances of {@code walletIds} and loads all missing ones with a single
+     * {@code loader} call. Wallets the loader does not return are left out of the result.
+     */
+    public Mono<Map<UUID, WalletResponse>> getAll(Set<UUID> walletIds,
+                                                  Function<Set<UUID>, Mono<Map<UUID, WalletResponse>>> loader) {
+        if (cache == null) {
+            return loader.apply(walletIds);
+        }
+        return Mono.fromFuture(() -> cache.getAll(walletIds, (keys, executor) ->
+                loader.apply(Set.copyOf(keys)).toFuture()), true);
+    }
+
+    /**
+     * A balance without a version, from a striped wallet or a replayed result, cannot be
+     * ordered against the cached one, so it evicts the wallet instead. A load still in flight
+     * is replaced, since it may have read the row before this write.
+     */
+    public void put(WalletResponse response) {
+        if (cache == null) {
+            return;
+        }
+        if (response.getVersion() == null) {
+            cache.synchronous().invalidate(response.getWalletId());
+            return;
+        }
+        CompletableFuture<WalletResponse> written = CompletableFuture.completedFuture(response);
+        cache.asMap().compute(response.getWalletId(), (walletId, cached) ->
+                isNewer(response, cached) ? written : cached);
+    }
+
+    private static boolean isNewer(WalletResponse response, CompletableFuture<WalletResponse> cached) {
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return true;
+        }
+        WalletResponse current = cached.join();
+        return current == null || current.getVersion() == null || current.getVersion() < response.getVersion();
+    }
+
+    public CacheStatsResponse stats() {
+        if (cache == null) {
+            return new CacheStatsResponse(false, 0, 0, 0, 0, 0);
+        }
+        CacheStats stats = cache.synchronous().stats();
+        return new CacheStatsResponse(true, cache.synchronous().estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.wallets.service;
+
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static com.example.wallets.dto.request.OperationType.DEPOSIT;
+
+/**
+ * Applies a list of validated operations in one transaction: one statement locks every wallet
+ * involved (in wallet_id order, so concurrent batches cannot deadlock), the operations are
+ * applied in list order in memory, and one multi-row statement writes the new balances. Each
+ * applied operation bumps its wallet's version by one, as a single-row update would. With
+ * sharding, each shard's operations form their own transaction.
+ */
+@Component
+public class WalletBatchExecutor extends BaseLoggerService {
+
+    private final WalletRepository repository;
+    private final TransactionalOperator transactionalOperator;
+    private final LedgerWriter ledger;
+    private final ShardRouting shards;
+
+    public WalletBatchExecutor(WalletRepository repository, TransactionalOperator transactionalOperator,
+                               LedgerWriter ledger, ShardRouting shards) {
+        this.repository = repository;
+        this.transactionalOperator = transactionalOperator;
+        this.ledger = ledger;
+        this.shards = shards;
+    }
+
+    /**
+     * Returns one outcome per request, in request order. Operations on striped wallets are
+     * deferred, since their balance lives in slots rather than on the wallet row. When the
+     * transaction of one shard fails, only that shard's operations are rejected.
+     */
+    public Mono<List<OperationOutcome>> execute(List<WalletRequest> requests) {
+        logger.info("Applying batch of {} operations", requests.size());
+        if (!shards.isEnabled()) {
+            return executeOnShard(0, requests);
+        }
+        Map<Integer, List<Integer>> byShard = shards.partition(
+                IntStream.range(0, requests.size()).boxed().toList(), i -> requests.get(i).getWalletId());
+        if (byShard.size() == 1) {
+            return executeOnShard(byShard.keySet().iterator().next(), requests);
+        }
+        OperationOutcome[] outcomes = new OperationOutcome[requests.size()];
+        return Flux.fromIterable(byShard.entrySet())
+                .flatMap(shard -> {
+                    List<Integer> positions = shard.getValue();
+                    return executeOnShard(shard.getKey(), positions.stream().map(requests::get).toList())
+                            .doOnNext(shardOutcomes -> {
+                                for (int i = 0; i < positions.size(); i++) {
+                                    outcomes[positions.get(i)] = shardOutcomes.get(i);
+                                }
+                            })
+                            .onErrorResume(ex -> {
+                                logger.error("Batch on shard {} failed: {}", shard.getKey(), ex.getMessage());
+                                OperationOutcome rejected = OperationOutcome.rejected(Exceptions.propagate(ex));
+                                positions.forEach(position -> outcomes[position] = rejected);
+                                return Mono.empty();
+                            });
+                })
+                .then(Mono.fromSupplier(() -> Arrays.asList(outcomes)));
+    }
+
+    private Mono<List<OperationOutcome>> executeOnShard(int shard, List<WalletRequest> requests) {
+        List<UUID> walletIds = requests.stream()
+                .map(WalletRequest::getWalletId)
+                .distinct()
+                .toList();
+
+        return shards.route(shard, walletIds, repository.lockAllByWalletIds(walletIds.toArray(UUID[]::new))
+                        .collectMap(Wallet::getWalletId)
+                        .flatMap(wallets -> apply(wallets, requests))
+                        .as(transactionalOperator::transactional))
+                .doOnNext(outcomes -> {
+                    for (int i = 0; i < outcomes.size(); i++) {
+                        WalletResponse response = outcomes.get(i).response();
+                        if (response != null) {
+                            WalletRequest request = requests.get(i);
+                            ledger.record(response.getWalletId(), request.getType(), request.getAmount(),
+                                    response.getAmount(), response.getVersion());
+                        }
+                    }
+                });
+    }
+
+    private Mono<List<OperationOutcome>> apply(Map<UUID, Wallet> wallets, List<WalletRequest> requests) {
+        List<OperationOutcome> outcomes = new ArrayList<>(requests.size());
+        Map<UUID, Money> changed = new LinkedHashMap<>();
+        Map<UUID, Long> versions = new LinkedHashMap<>();
+
+        for (WalletRequest request : requests) {
+            UUID walletId = request.getWalletId();
+            Wallet wallet = wallets.get(walletId);
+            if (wallet == null) {
+                outcomes.add(OperationOutcome.rejected(new WalletNotFoundException("Wallet not found with id: " + walletId)));
+                continue;
+            }
+            if (wallet.getSlots() != null && wallet.getSlots() > 0) {
+                outcomes.add(OperationOutcome.deferred());
+                continue;
+            }
+            Money balance = changed.get(walletId);
+            if (balance == null) {
+                balance = Money.of(wallet.getBalance());
+            }
+            if (request.getType() == DEPOSIT) {
+                try {
+                    balance = balance.plus(request.getAmount());
+                } catch (ArithmeticException ex) {
+                    outcomes.add(OperationOutcome.rejected(new NotValidJsonException("Invalid JSON: amount exceeds the supported balance")));
+                    continue;
+                }
+            } else if (balance.minus(held(wallet)).compareTo(request.getAmount()) >= 0) {
+                balance = balance.minus(request.getAmount());
+            } else {
+                outcomes.add(OperationOutcome.rejected(new InsufficientFundsException("Not enough funds for this transaction")));
+                continue;
+            }
+            long version = versions.getOrDefault(walletId, wallet.getVersion()) + 1;
+            changed.put(walletId, balance);
+            versions.put(walletId, version);
+            outcomes.add(OperationOutcome.applied(new WalletResponse(walletId, balance, version)));
+        }
+
+        if (changed.isEmpty()) {
+            return Mono.just(outcomes);
+        }
+        UUID[] walletIds = new UUID[changed.size()];
+        BigDecimal[] balances = new BigDecimal[changed.size()];
+        Long[] newVersions = new Long[changed.size()];
+        int i = 0;
+        for (Map.Entry<UUID, Money> entry : changed.entrySet()) {
+            walletIds[i] = entry.getKey();
+            balances[i] = entry.getValue().toBigDecimal();
+            newVersions[i++] = versions.get(entry.getKey());
+        }
+        return repository.updateBalances(walletIds, balances, newVersions)
+                .thenReturn(outcomes);
+    }
+
+    /**
+     * Holds cannot change while the rows are locked, so the held amount read with the lock
+     * applies to the whole batch.
+     */
+    private static Money held(Wallet wallet) {
+        return wallet.getHeld() == null ? Money.ZERO : Money.of(wallet.getHeld());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.ExportProperties;
+import com.example.wallets.money.Money;
+import com.example.wallets.replica.ReplicaRouting;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import com.example.wallets.utils.UuidChars;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams every wallet balance as NDJSON or CSV. The table is read in keyset chunks over
+ * {@code id}, one short query per chunk with the driver fetching {@code fetch-size} rows at a
+ * time, and each chunk is rendered into one string before the next one is requested. Memory
+ * therefore stays at one chunk however large the table is, and no cursor or snapshot is held
+ * open between chunks, so the export is not a point-in-time view. Chunks are read from the
+ * replica while it is in use. With sharding, the shards are exported one after another.
+ */
+@Component
+public class WalletExporter extends BaseLoggerService {
+
+    /**
+     * Striped wallets are always candidates for {@code updatedSince}, since their slots change
+     * without touching the wallet row; {@link #render} drops the ones that did not change.
+     */
+    private static final String SELECT = """
+            SELECT w.id, w.wallet_id,
+                   CASE WHEN w.slots = 0 THEN w.balance
+                        ELSE (SELECT COALESCE(SUM(s.balance), 0) FROM wallet_slot s WHERE s.wallet_id = w.wallet_id)
+                   END AS balance,
+                   CASE WHEN w.slots = 0 THEN w.updated_at
+                        ELSE (SELECT GREATEST(w.updated_at, MAX(s.updated_at)) FROM wallet_slot s WHERE s.wallet_id = w.wallet_id)
+                   END AS updated_at
+            FROM wallet w
+            """;
+    private static final String SELECT_ALL = SELECT + """
+            WHERE w.id > :afterId
+            ORDER BY w.id
+            LIMIT :limit
+            """;
+    private static final String SELECT_UPDATED = SELECT + """
+            WHERE w.id > :afterId AND (w.updated_at >= :updatedSince OR w.slots > 0)
+            ORDER BY w.id
+            LIMIT :limit
+            """;
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final DatabaseClient databaseClient;
+    private final ExportProperties properties;
+    private final ReplicaRouting routing;
+    private final ShardRouting shards;
+
+    public WalletExporter(DatabaseClient databaseClient, ExportProperties properties, ReplicaRouting routing,
+                          ShardRouting shards) {
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+        this.routing = routing;
+        this.shards = shards;
+    }
+
+    /**
+     * Emits one string per chunk, each holding complete lines; the CSV header comes first.
+     */
+    public Flux<String> export(Format format, Instant updatedSince) {
+        logger.info("Exporting wallets as {} updated since {}", format, updatedSince);
+        int chunkSize = properties.getChunkSize();
+        Flux<String> chunks = Flux.range(0, shards.shardCount())
+                .concatMap(shard -> fetchChunk(shard, 0L, updatedSince)
+                        .expand(chunk -> chunk.size() < chunkSize
+                                ? Mono.empty()
+                                : fetchChunk(shard, chunk.get(chunk.size() - 1).id(), updatedSince)))
+                .map(chunk -> render(chunk, format, updatedSince))
+                .filter(lines -> !lines.isEmpty());
+        return format == Format.CSV ? chunks.startWith("walletId,amount,updatedAt\n") : chunks;
+    }
+
+    private Mono<List<ExportRow>> fetchChunk(int shard, long afterId, Instant updatedSince) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(updatedSince == null ? SELECT_ALL : SELECT_UPDATED)
+                .filter(statement -> statement.fetchSize(properties.getFetchSize()))
+                .bind("afterId", afterId)
+                .bind("limit", properties.getChunkSize());
+        if (updatedSince != null) {
+            spec = spec.bind("updatedSince", updatedSince);
+        }
+        return shards.onShard(shard, routing.read(spec.map((row, metadata) -> new ExportRow(
+                                        row.get("id", Long.class),
+                                        row.get("wallet_id", UUID.class),
+                                        row.get("balance", BigDecimal.class),
+                                        row.get("updated_at", Instant.class)))
+                                .all())
+                        .collectList());
+    }
+
+    private static String render(List<ExportRow> chunk, Format format, Instant updatedSince) {
+        StringBuilder out = new StringBuilder(chunk.size() * 96);
+        char[] buffer = new char[UuidChars.LENGTH];
+        for (ExportRow row : chunk) {
+            if (updatedSince != null && row.updatedAt().isBefore(updatedSince)) {
+                continue;
+            }
+            UuidChars.format(row.walletId(), buffer);
+            if (format == Format.CSV) {
+                out.append(buffer, 0, UuidChars.LENGTH).append(',');
+                out.append(buffer, 0, Money.of(row.balance()).format(buffer)).append(',');
+                out.append(row.updatedAt()).append('\n');
+            } else {
+                out.append("{\"walletId\":\"").append(buffer, 0, UuidChars.LENGTH).append("\",\"amount\":");
+                out.append(buffer, 0, Money.of(row.balance()).format(buffer));
+                out.append(",\"updatedAt\":\"").append(row.updatedAt()).append("\"}\n");
+            }
+        }
+        return out.toString();
+    }
+
+    private record ExportRow(long id, UUID walletId, BigDecimal balance, Instant updatedAt) {
+    }
+}
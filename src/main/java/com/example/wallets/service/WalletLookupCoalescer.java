@@ -0,0 +1,109 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.LookupProperties;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.replica.ReplicaRouting;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merges single-wallet lookups from concurrent requests into one {@code wallet_id = ANY(...)}
+ * query. A lookup waits at most {@code max-linger} for others to join it, and a batch is sent
+ * as soon as it reaches {@code max-batch-size}. Batches do not wait for each other. With
+ * sharding, a batch becomes one query per shard.
+ */
+@Component
+public class WalletLookupCoalescer extends BaseLoggerService {
+
+    private final WalletRepository repository;
+    private final LookupProperties properties;
+    private final ReplicaRouting routing;
+    private final ShardRouting shards;
+    private final Queue<PendingLookup> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public WalletLookupCoalescer(WalletRepository repository, LookupProperties properties, ReplicaRouting routing,
+                                 ShardRouting shards) {
+        this.repository = repository;
+        this.properties = properties;
+        this.routing = routing;
+        this.shards = shards;
+    }
+
+    public boolean isEnabled() {
+        return properties.isCoalesce();
+    }
+
+    public Mono<Wallet> load(UUID walletId) {
+        return Mono.create(sink -> offer(new PendingLookup(walletId, sink)));
+    }
+
+    private void offer(PendingLookup lookup) {
+        pending.offer(lookup);
+        int queued = size.incrementAndGet();
+        long lingerNanos = properties.getMaxLinger().toNanos();
+        if (queued >= properties.getMaxBatchSize() || lingerNanos <= 0) {
+            flush();
+        } else if (queued == 1) {
+            Schedulers.parallel().schedule(this::flush, lingerNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flush() {
+        List<PendingLookup> batch;
+        while (!(batch = poll()).isEmpty()) {
+            lookup(batch);
+        }
+    }
+
+    private List<PendingLookup> poll() {
+        List<PendingLookup> batch = new ArrayList<>();
+        PendingLookup lookup;
+        while (batch.size() < properties.getMaxBatchSize() && (lookup = pending.poll()) != null) {
+            batch.add(lookup);
+        }
+        size.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void lookup(List<PendingLookup> batch) {
+        Set<UUID> walletIds = new LinkedHashSet<>();
+        batch.forEach(lookup -> walletIds.add(lookup.walletId()));
+        shards.routeAll(walletIds, ids -> routing.read(ids, repository.findAllByWalletIds(ids.toArray(UUID[]::new))))
+                .collectMap(Wallet::getWalletId)
+                .subscribe(wallets -> complete(batch, wallets), error -> {
+                    logger.error("Lookup of {} wallets failed: {}", walletIds.size(), error.getMessage());
+                    batch.forEach(lookup -> lookup.sink().error(error));
+                });
+    }
+
+    private static void complete(List<PendingLookup> batch, Map<UUID, Wallet> wallets) {
+        for (PendingLookup lookup : batch) {
+            Wallet wallet = wallets.get(lookup.walletId());
+            if (wallet == null) {
+                lookup.sink().success();
+            } else {
+                lookup.sink().success(wallet);
+            }
+        }
+    }
+
+    private record PendingLookup(UUID walletId, MonoSink<Wallet> sink) {
+    }
+}
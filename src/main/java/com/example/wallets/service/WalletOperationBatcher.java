@@ -0,0 +1,137 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.WalletOperationProperties;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Group commit for contended wallets: operations are queued per wallet and each micro-batch
+ * is applied by {@link WalletBatchExecutor} under one row lock with a single balance write.
+ * Every caller still receives its own post-operation balance, and a rejected withdrawal does
+ * not affect the rest of the batch.
+ */
+@Component
+public class WalletOperationBatcher extends BaseLoggerService {
+
+    private final WalletBatchExecutor executor;
+    private final WalletOperationProperties properties;
+    private final ConcurrentHashMap<UUID, WalletQueue> queues = new ConcurrentHashMap<>();
+
+    public WalletOperationBatcher(WalletBatchExecutor executor, WalletOperationProperties properties) {
+        this.executor = executor;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.getMode() == WalletOperationProperties.Mode.BATCHED;
+    }
+
+    /**
+     * Queues a validated request. {@code direct} handles requests the batcher cannot take:
+     * when the queue map is full, and for striped wallets, which spread their own contention.
+     */
+    public Mono<WalletResponse> submit(WalletRequest request, Function<WalletRequest, Mono<WalletResponse>> direct) {
+        UUID walletId = request.getWalletId();
+        WalletQueue queue = queues.get(walletId);
+        if (queue == null) {
+            if (queues.size() >= properties.getBatch().getMaxQueues()) {
+                return direct.apply(request);
+            }
+            queue = queues.computeIfAbsent(walletId, WalletQueue::new);
+        }
+        WalletQueue target = queue;
+        return Mono.create(sink -> target.offer(new PendingOperation(request, sink, direct)));
+    }
+
+    private record PendingOperation(WalletRequest request, MonoSink<WalletResponse> sink,
+                                    Function<WalletRequest, Mono<WalletResponse>> direct) {
+    }
+
+    private final class WalletQueue {
+        private final UUID walletId;
+        private final Queue<PendingOperation> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private WalletQueue(UUID walletId) {
+            this.walletId = walletId;
+        }
+
+        private void offer(PendingOperation operation) {
+            pending.offer(operation);
+            int queued = size.incrementAndGet();
+            long lingerNanos = properties.getBatch().getMaxLinger().toNanos();
+            if (queued >= properties.getBatch().getMaxSize() || lingerNanos <= 0) {
+                tryFlush();
+            } else if (queued == 1) {
+                Schedulers.parallel().schedule(this::tryFlush, lingerNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void tryFlush() {
+            if (running.compareAndSet(false, true)) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            List<PendingOperation> batch = new ArrayList<>();
+            PendingOperation operation;
+            while (batch.size() < properties.getBatch().getMaxSize() && (operation = pending.poll()) != null) {
+                batch.add(operation);
+            }
+            size.addAndGet(-batch.size());
+            if (batch.isEmpty()) {
+                running.set(false);
+                if (!pending.isEmpty()) {
+                    tryFlush();
+                } else {
+                    queues.remove(walletId, this);
+                }
+                return;
+            }
+            execute(batch).subscribe(null, error -> {
+                logger.error("Batch for wallet {} failed: {}", walletId, error.getMessage());
+                batch.forEach(pendingOperation -> pendingOperation.sink().error(error));
+                flush();
+            }, this::flush);
+        }
+
+        private Mono<Void> execute(List<PendingOperation> batch) {
+            return executor.execute(batch.stream().map(PendingOperation::request).toList())
+                    .doOnNext(outcomes -> complete(batch, outcomes))
+                    .then();
+        }
+
+        private void complete(List<PendingOperation> batch, List<OperationOutcome> outcomes) {
+            for (int i = 0; i < batch.size(); i++) {
+                PendingOperation operation = batch.get(i);
+                OperationOutcome outcome = outcomes.get(i);
+                if (outcome.isDeferred()) {
+                    operation.direct().apply(operation.request())
+                            .subscribe(operation.sink()::success, operation.sink()::error);
+                } else if (outcome.error() != null) {
+                    operation.sink().error(outcome.error());
+                } else {
+                    operation.sink().success(outcome.response());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.ProvisioningProperties;
+import com.example.wallets.dto.request.WalletProvisionRequest;
+import com.example.wallets.dto.response.ProvisioningResponse;
+import com.example.wallets.exceptions.EndpointDisabledException;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.money.Money;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.utils.BaseLoggerService;
+import com.example.wallets.utils.UuidChars;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates wallets in bulk, for migrations and load tests. Rows are taken in chunks of
+ * {@code chunk-size}, split by shard, and each chunk is streamed to Postgres with
+ * {@code COPY ... FROM STDIN} on a pooled connection, {@code concurrency} chunks at a time.
+ * Where the connection is not a Postgres one, or {@code copy} is off, chunks are written as
+ * multi-row inserts instead. Every chunk commits on its own, so a failed run keeps the chunks
+ * before the failure; a wallet ID that already exists fails its chunk, since COPY cannot skip
+ * conflicting rows. Progress is logged every {@code progress-interval}.
+ * <p>
+ * Provisioned balances are opening balances, not operations: they are written straight to
+ * {@code wallet} and have no ledger entry, so a provisioned wallet's ledger starts with its
+ * first operation and sums to its balance minus the opening one.
+ */
+@Component
+public class WalletProvisioner extends BaseLoggerService {
+
+    private static final String COPY = "COPY wallet (wallet_id, balance) FROM STDIN";
+    private static final int ROW_BYTES = UuidChars.LENGTH + 1 + 21 + 1;
+
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+    private final ShardRouting shards;
+    private final ProvisioningProperties properties;
+    private final String fullBatchInsert;
+    private volatile Boolean copySupported;
+
+    public WalletProvisioner(ConnectionFactory connectionFactory, DatabaseClient databaseClient, ShardRouting shards,
+                             ProvisioningProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = databaseClient;
+        this.shards = shards;
+        this.properties = properties;
+        this.fullBatchInsert = insertSql(properties.getInsertBatchSize());
+        this.copySupported = properties.isCopy() ? null : Boolean.FALSE;
+    }
+
+    /**
+     * Wallets with a random ID each and a balance drawn uniformly between the two bounds.
+     */
+    public Flux<WalletProvisionRequest> generate(long count, Money minBalance, Money maxBalance) {
+        if (count < 0) {
+            return Flux.error(new NotValidJsonException("Invalid JSON: count cannot be negative"));
+        }
+        if (minBalance.compareTo(Money.ZERO) < 0 || maxBalance.compareTo(minBalance) < 0) {
+            return Flux.error(new NotValidJsonException(
+                    "Invalid JSON: balances must satisfy 0 <= minBalance <= maxBalance"));
+        }
+        long min = minBalance.getMinorUnits();
+        long max = maxBalance.getMinorUnits();
+        return Flux.<WalletProvisionRequest, Long>generate(() -> 0L, (generated, sink) -> {
+            if (generated == count) {
+                sink.complete();
+                return generated;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long balance = min == max ? min : random.nextLong(min, max + 1);
+            sink.next(new WalletProvisionRequest(randomUuid(random), Money.ofMinorUnits(balance)));
+            return generated + 1;
+        });
+    }
+
+    /**
+     * Provisioning requested over the API rather than by the seeder: refused unless
+     * {@code endpoint-enabled} is set, and limited to {@code max-count} wallets per request.
+     */
+    public Mono<ProvisioningResponse> provisionRequested(Flux<WalletProvisionRequest> wallets) {
+        if (!properties.isEndpointEnabled()) {
+            return Mono.error(new EndpointDisabledException("Provisioning over the API is disabled"));
+        }
+        long maxCount = properties.getMaxCount();
+        return provision(wallets.index().map(indexed -> {
+            if (indexed.getT1() >= maxCount) {
+                throw new NotValidJsonException("Invalid JSON: at most " + maxCount + " wallets can be provisioned per request");
+            }
+            return indexed.getT2();
+        }));
+    }
+
+    public Mono<ProvisioningResponse> provisionRequested(long count, Money minBalance, Money maxBalance) {
+        if (properties.isEndpointEnabled() && count > properties.getMaxCount()) {
+            return Mono.error(new NotValidJsonException(
+                    "Invalid JSON: at most " + properties.getMaxCount() + " wallets can be provisioned per request"));
+        }
+        return provisionRequested(generate(count, minBalance, maxBalance));
+    }
+
+    /**
+     * Missing wallet IDs are generated and missing balances are zero.
+     */
+    public Mono<ProvisioningResponse> provision(Flux<WalletProvisionRequest> wallets) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            AtomicLong rows = new AtomicLong();
+            Disposable progress = Flux.interval(properties.getProgressInterval())
+                    .subscribe(tick -> logger.info("Provisioned {} wallets, {} rows/s",
+                            rows.get(), Math.round(rate(rows.get(), started))));
+            return wallets.map(WalletProvisioner::complete)
+                    .buffer(properties.getChunkSize())
+                    .flatMap(this::writeChunk, properties.getConcurrency())
+                    .doOnNext(rows::addAndGet)
+                    .onErrorMap(ex -> ex instanceof R2dbcDataIntegrityViolationException
+                                    || ex instanceof DataIntegrityViolationException,
+                            ex -> new NotValidJsonException("Invalid JSON: a wallet with one of the given ids already exists"))
+                    .doOnError(ex -> logger.warn("Provisioning stopped after {} wallets: {}", rows.get(), ex.getMessage()))
+                    .then(Mono.fromSupplier(() -> {
+                        long elapsed = (System.nanoTime() - started) / 1_000_000;
+                        double rate = rate(rows.get(), started);
+                        String method = Boolean.FALSE.equals(copySupported) ? "insert" : "copy";
+                        logger.info("Provisioned {} wallets in {} ms, {} rows/s, via {}",
+                                rows.get(), elapsed, Math.round(rate), method);
+                        return new ProvisioningResponse(rows.get(), elapsed, rate, method);
+                    }))
+                    .doFinally(signal -> progress.dispose());
+        });
+    }
+
+    private Mono<Long> writeChunk(List<WalletProvisionRequest> chunk) {
+        return Flux.fromIterable(shards.partition(chunk, WalletProvisionRequest::getWalletId).entrySet())
+                .flatMap(shard -> shards.onShard(shard.getKey(), write(shard.getValue())))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> write(List<WalletProvisionRequest> wallets) {
+        if (Boolean.FALSE.equals(copySupported)) {
+            return insert(wallets);
+        }
+        return Mono.usingWhen(Mono.from(connectionFactory.create()),
+                        connection -> {
+                            PostgresqlConnection postgres = unwrap(connection);
+                            if (postgres == null) {
+                                if (copySupported == null) {
+                                    logger.info("The database does not support COPY, using multi-row inserts");
+                                }
+                                copySupported = Boolean.FALSE;
+                                return Mono.empty();
+                            }
+                            copySupported = Boolean.TRUE;
+                            return postgres.copyIn(COPY, Mono.fromCallable(() -> encode(wallets)));
+                        },
+                        Connection::close)
+                .switchIfEmpty(Mono.defer(() -> insert(wallets)));
+    }
+
+    private Mono<Long> insert(List<WalletProvisionRequest> wallets) {
+        int batchSize = properties.getInsertBatchSize();
+        return Flux.range(0, (wallets.size() + batchSize - 1) / batchSize)
+                .concatMap(batch -> {
+                    List<WalletProvisionRequest> rows = wallets.subList(batch * batchSize,
+                            Math.min((batch + 1) * batchSize, wallets.size()));
+                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                            rows.size() == batchSize ? fullBatchInsert : insertSql(rows.size()));
+                    for (int i = 0; i < rows.size(); i++) {
+                        spec = spec.bind("walletId" + i, rows.get(i).getWalletId())
+                                .bind("balance" + i, rows.get(i).getBalance().toBigDecimal());
+                    }
+                    return spec.fetch().rowsUpdated();
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * The rows in COPY's text format: the wallet ID and the balance, tab-separated.
+     */
+    private static ByteBuf encode(List<WalletProvisionRequest> wallets) {
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(wallets.size() * ROW_BYTES);
+        char[] walletId = new char[UuidChars.LENGTH];
+        char[] balance = new char[21];
+        for (WalletProvisionRequest wallet : wallets) {
+            UuidChars.format(wallet.getWalletId(), walletId);
+            writeAscii(buffer, walletId, walletId.length);
+            buffer.writeByte('\t');
+            writeAscii(buffer, balance, wallet.getBalance().format(balance));
+            buffer.writeByte('\n');
+        }
+        return buffer;
+    }
+
+    private static void writeAscii(ByteBuf buffer, char[] chars, int length) {
+        for (int i = 0; i < length; i++) {
+            buffer.writeByte(chars[i]);
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO wallet (wallet_id, balance) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:walletId").append(i).append(", :balance").append(i).append(')');
+        }
+        return sql.toString();
+    }
+
+    private static WalletProvisionRequest complete(WalletProvisionRequest wallet) {
+        if (wallet.getBalance() != null && wallet.getBalance().compareTo(Money.ZERO) < 0) {
+            throw new NotValidJsonException("Invalid JSON: balance cannot be negative");
+        }
+        return new WalletProvisionRequest(
+                wallet.getWalletId() == null ? randomUuid(ThreadLocalRandom.current()) : wallet.getWalletId(),
+                wallet.getBalance() == null ? Money.ZERO : wallet.getBalance());
+    }
+
+    /**
+     * A version 4 UUID from a fast, non-cryptographic generator, as wallet IDs are not secrets.
+     */
+    private static UUID randomUuid(ThreadLocalRandom random) {
+        long most = random.nextLong() & ~0xF000L | 0x4000L;
+        long least = random.nextLong() & ~(0xC000000000000000L) | 0x8000000000000000L;
+        return new UUID(most, least);
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped) {
+            current = wrapped.unwrap();
+        }
+        return current instanceof PostgresqlConnection postgres ? postgres : null;
+    }
+
+    private static double rate(long rows, long started) {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.ProvisioningProperties;
+import com.example.wallets.money.Money;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeding mode: with {@code wallet.provisioning.seed.count} set, that many generated wallets
+ * are provisioned at startup, before the application reports ready, for example with
+ * {@code --wallet.provisioning.seed.count=5000000}. Balances are {@code seed.min-balance}, or
+ * spread up to {@code seed.max-balance} when it is set. With {@code seed.exit} the application
+ * shuts down afterwards, so the jar can be used as a one-off loader.
+ */
+@Component
+public class WalletSeeder extends BaseLoggerService implements ApplicationRunner {
+
+    private final WalletProvisioner provisioner;
+    private final ProvisioningProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    public WalletSeeder(WalletProvisioner provisioner, ProvisioningProperties properties,
+                        ConfigurableApplicationContext context) {
+        this.provisioner = provisioner;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ProvisioningProperties.Seed seed = properties.getSeed();
+        if (seed.getCount() <= 0) {
+            return;
+        }
+        logger.info("Seeding {} wallets", seed.getCount());
+        Money minBalance = Money.of(seed.getMinBalance());
+        Money maxBalance = seed.getMaxBalance() == null ? minBalance : Money.of(seed.getMaxBalance());
+        provisioner.provision(provisioner.generate(seed.getCount(), minBalance, maxBalance)).block();
+        if (seed.isExit()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
@@ -1,12 +1,40 @@
 package com.example.wallets.service;
 
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.TransferRequest;
+import com.example.wallets.dto.request.WalletProvisionRequest;
 import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.CacheStatsResponse;
+import com.example.wallets.dto.response.HoldResponse;
+import com.example.wallets.dto.response.ProvisioningResponse;
+import com.example.wallets.dto.response.TransferResponse;
+import com.example.wallets.dto.response.WalletOperationPage;
+import com.example.wallets.dto.response.WalletOperationResult;
 import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 public interface WalletService {
     Mono<WalletResponse> getWalletByUuid(UUID walletId);
+    Flux<WalletResponse> getWalletsByUuids(List<UUID> walletIds);
+    Flux<WalletResponse> streamWallet(UUID walletId);
     Mono<WalletResponse> createOperationByWallet (WalletRequest request);
+    Mono<WalletResponse> createOperationByWallet(WalletRequest request, String idempotencyKey);
+    Flux<WalletOperationResult> createOperationsByWallets(Flux<WalletRequest> requests);
+    Flux<WalletOperationResult> createOperationsByWalletLines(Flux<String> lines);
+    Mono<TransferResponse> transfer(TransferRequest request);
+    Mono<HoldResponse> placeHold(UUID walletId, HoldRequest request);
+    Mono<HoldResponse> captureHold(UUID walletId, UUID holdId, HoldRequest request);
+    Mono<HoldResponse> releaseHold(UUID walletId, UUID holdId);
+    Mono<WalletResponse> enableStriping(UUID walletId, int slots);
+    CacheStatsResponse getCacheStats();
+    Mono<WalletOperationPage> getOperationsByWallet(UUID walletId, Long before, int limit);
+    Flux<String> exportWallets(WalletExporter.Format format, Instant updatedSince);
+    Mono<ProvisioningResponse> provisionWallets(Flux<WalletProvisionRequest> wallets);
+    Mono<ProvisioningResponse> provisionWallets(long count, Money minBalance, Money maxBalance);
 }
@@ -1,72 +1,518 @@
 package com.example.wallets.service;
 
+import com.example.wallets.config.LookupProperties;
+import com.example.wallets.config.WalletOperationProperties;
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.TransferRequest;
+import com.example.wallets.dto.request.WalletProvisionRequest;
 import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.CacheStatsResponse;
+import com.example.wallets.dto.response.HoldResponse;
+import com.example.wallets.dto.response.ProvisioningResponse;
+import com.example.wallets.dto.response.TransferResponse;
+import com.example.wallets.dto.response.WalletOperationPage;
+import com.example.wallets.dto.response.WalletOperationResponse;
+import com.example.wallets.dto.response.WalletOperationResult;
 import com.example.wallets.dto.response.WalletResponse;
 import com.example.wallets.exceptions.InsufficientFundsException;
 import com.example.wallets.exceptions.NotValidJsonException;
 import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.metrics.WalletMetrics;
+import com.example.wallets.model.HoldBalance;
+import com.example.wallets.model.TransferBalances;
 import com.example.wallets.model.Wallet;
+import com.example.wallets.money.Money;
+import com.example.wallets.replica.ReplicaRouting;
+import com.example.wallets.repository.WalletOperationRepository;
 import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.stream.BalanceStreamHub;
 import com.example.wallets.utils.BaseLoggerService;
 import com.example.wallets.utils.JsonValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.example.wallets.dto.request.OperationType.DEPOSIT;
-import static com.example.wallets.dto.request.OperationType.WITHDRAW;
+import static com.example.wallets.service.StripedWalletOperations.MAX_SLOTS;
+import static com.example.wallets.service.StripedWalletOperations.MIN_SLOTS;
 
 @Service
 public class WalletServiceImpl extends BaseLoggerService implements WalletService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final WalletRepository repository;
+    private final StripedWalletOperations striped;
+    private final WalletOperationBatcher batcher;
+    private final WalletBatchExecutor batchExecutor;
+    private final WalletOperationProperties properties;
+    private final WalletBalanceCache cache;
+    private final IdempotentOperations idempotent;
+    private final LedgerWriter ledger;
+    private final WalletOperationRepository operationRepository;
+    private final WalletMetrics metrics;
+    private final WalletExporter exporter;
+    private final WalletLookupCoalescer lookups;
+    private final LookupProperties lookupProperties;
+    private final ReplicaRouting routing;
+    private final BalanceStreamHub balanceStream;
+    private final ShardRouting shards;
+    private final JdbcWalletEngine jdbc;
+    private final WalletProvisioner provisioner;
+    private final HoldOperations holds;
+    private final ObjectReader requestReader;
 
-    public WalletServiceImpl(WalletRepository repository) {
+    public WalletServiceImpl(WalletRepository repository, StripedWalletOperations striped,
+                             WalletOperationBatcher batcher, WalletBatchExecutor batchExecutor,
+                             WalletOperationProperties properties, WalletBalanceCache cache,
+                             IdempotentOperations idempotent, LedgerWriter ledger,
+                             WalletOperationRepository operationRepository, WalletMetrics metrics,
+                             WalletExporter exporter, WalletLookupCoalescer lookups,
+                             LookupProperties lookupProperties, ReplicaRouting routing,
+                             BalanceStreamHub balanceStream, ShardRouting shards, JdbcWalletEngine jdbc,
+                             WalletProvisioner provisioner, HoldOperations holds, ObjectMapper objectMapper) {
         this.repository = repository;
+        this.striped = striped;
+        this.batcher = batcher;
+        this.batchExecutor = batchExecutor;
+        this.properties = properties;
+        this.cache = cache;
+        this.idempotent = idempotent;
+        this.ledger = ledger;
+        this.operationRepository = operationRepository;
+        this.metrics = metrics;
+        this.exporter = exporter;
+        this.lookups = lookups;
+        this.lookupProperties = lookupProperties;
+        this.routing = routing;
+        this.balanceStream = balanceStream;
+        this.shards = shards;
+        this.jdbc = jdbc;
+        this.provisioner = provisioner;
+        this.holds = holds;
+        this.requestReader = objectMapper.readerFor(WalletRequest.class);
     }
 
     @Override
     public Mono<WalletResponse> getWalletByUuid(UUID walletId) {
         logger.info("Get wallet by uuid id, or exception response");
-        return repository.findByWalletId(walletId)
-                .switchIfEmpty(Mono.error(new WalletNotFoundException("Wallet not found with id: " + walletId)))
-                .map(wallet -> new WalletResponse(wallet.getWalletId(), wallet.getBalance()));
+        return cache.get(walletId, id -> (jdbc.isEnabled()
+                        ? jdbc.find(id)
+                        : lookups.isEnabled()
+                                ? lookups.load(id)
+                                : shards.route(id, routing.read(id, repository.findByWalletId(id))))
+                        .map(WalletServiceImpl::toResponse))
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id: " + walletId)));
+    }
+
+    /**
+     * Balances of the given wallets in request order, from the cache where possible and with
+     * one query for the rest. Unknown wallets are left out.
+     */
+    @Override
+    public Flux<WalletResponse> getWalletsByUuids(List<UUID> walletIds) {
+        logger.info("Get {} wallets by uuid", walletIds == null ? 0 : walletIds.size());
+        if (walletIds == null || walletIds.isEmpty() || walletIds.size() > lookupProperties.getMaxWalletIds()) {
+            return Flux.error(new NotValidJsonException(
+                    "Invalid JSON: walletIds must contain 1 to " + lookupProperties.getMaxWalletIds() + " ids"));
+        }
+        if (walletIds.contains(null)) {
+            return Flux.error(new NotValidJsonException("Invalid JSON: walletId cannot be null"));
+        }
+        return cache.getAll(new LinkedHashSet<>(walletIds), this::loadAll)
+                .flatMapIterable(wallets -> walletIds.stream()
+                        .distinct()
+                        .map(wallets::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    @Override
+    public Flux<WalletResponse> streamWallet(UUID walletId) {
+        logger.info("Streaming balance changes of wallet {}", walletId);
+        return getWalletByUuid(walletId).flatMapMany(balanceStream::subscribe);
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        return cache.stats();
     }
 
     @Override
     public Mono<WalletResponse> createOperationByWallet(WalletRequest request) {
         logger.info("Processing of deposits and withdrawals of cash");
-        return repository.findByWalletId(request.getWalletId())
-                .switchIfEmpty(Mono.error(new WalletNotFoundException("Wallet not found with id: " + request.getWalletId())))
-                .flatMap(wallet -> {
-                    checkNotValidJson(request);
-                    return switch (request.getType()) {
-                        case DEPOSIT -> handleDeposit(wallet, request);
-                        case WITHDRAW -> handleWithdraw(wallet, request);
-                    };
-                });
+        return Mono.defer(() -> {
+            checkNotValidJson(request);
+            if (batcher.isEnabled() && striped.knownSlots(request.getWalletId()) == null) {
+                return batcher.submit(request, this::applyOperation);
+            }
+            return applyOperation(request);
+        }).doOnNext(this::written)
+                .doOnNext(response -> metrics.recordSuccess(request.getType(), response.getWalletId()))
+                .doOnError(ex -> recordFailure(request, ex));
     }
 
-    @Transactional
-    public Mono<WalletResponse> handleDeposit(Wallet wallet, WalletRequest request) {
-        logger.info("Depositing amount: {}", request.getAmount());
-        wallet.setBalance(wallet.getBalance().add(request.getAmount()));
+    /**
+     * Keyed operations always take the single-statement path, since the key is recorded
+     * together with the balance change. A replayed result changed nothing now, so it is neither
+     * written through nor counted again.
+     */
+    @Override
+    public Mono<WalletResponse> createOperationByWallet(WalletRequest request, String idempotencyKey) {
+        logger.info("Processing of deposits and withdrawals with idempotency key: {}", idempotencyKey);
+        return Mono.defer(() -> {
+            checkNotValidJson(request);
+            JsonValidator.checkIdempotencyKey(idempotencyKey);
+            return shards.route(request.getWalletId(), idempotent.execute(idempotencyKey, request));
+        }).doOnNext(outcome -> {
+                    if (!outcome.replayed()) {
+                        written(outcome.response());
+                        metrics.recordSuccess(request.getType(), outcome.response().getWalletId());
+                    }
+                })
+                .map(IdempotentOutcome::response)
+                .doOnError(ex -> recordFailure(request, ex));
+    }
+
+    /**
+     * Streams operations through in chunks, each applied as one multi-row transaction with at
+     * most {@code concurrency} chunks in flight. A chunk that shares a wallet with an earlier
+     * chunk still in flight waits for it, so operations on a wallet apply in input order.
+     * Results come back in input order and a failed item is reported in its result instead of
+     * terminating the stream.
+     */
+    @Override
+    public Flux<WalletOperationResult> createOperationsByWallets(Flux<WalletRequest> requests) {
+        logger.info("Processing stream of deposits and withdrawals");
+        return applyStream(requests.map(request -> new StreamItem(request, null)));
+    }
+
+    /**
+     * NDJSON lines are decoded one at a time, so a malformed line or an unknown type fails only
+     * its own result. Blank lines are skipped.
+     */
+    @Override
+    public Flux<WalletOperationResult> createOperationsByWalletLines(Flux<String> lines) {
+        logger.info("Processing stream of deposits and withdrawals as NDJSON lines");
+        return applyStream(lines.filter(line -> !line.isBlank()).map(this::decode));
+    }
+
+    private Flux<WalletOperationResult> applyStream(Flux<StreamItem> items) {
+        WalletOperationProperties.Stream stream = properties.getStream();
+        return Flux.defer(() -> {
+                    Map<UUID, Mono<Void>> inFlight = new ConcurrentHashMap<>();
+                    return items.buffer(stream.getChunkSize())
+                            .map(chunk -> afterEarlierChunks(chunk, inFlight))
+                            .flatMapSequential(chunk -> chunk, stream.getConcurrency());
+                })
+                .concatMapIterable(results -> results);
+    }
 
-        return repository.save(wallet).
-                map(savedWallet -> new WalletResponse(savedWallet.getWalletId(), savedWallet.getBalance()));
+    /**
+     * Debits and credits both wallets in one statement, bypassing the batcher. The ledger gets a
+     * withdrawal on the source and a deposit on the destination. Both wallets must live on the
+     * same shard.
+     */
+    @Override
+    public Mono<TransferResponse> transfer(TransferRequest request) {
+        logger.info("Transferring amount: {}", request == null ? null : request.getAmount());
+        return Mono.defer(() -> {
+            JsonValidator.checkTransferRequest(request);
+            int shard = shards.shardOf(request.getFromWalletId());
+            if (shards.shardOf(request.getToWalletId()) != shard) {
+                return Mono.error(new NotValidJsonException("Invalid JSON: transfers between shards are not supported"));
+            }
+            return shards.route(shard, List.of(request.getFromWalletId(), request.getToWalletId()),
+                            repository.transfer(request.getFromWalletId(), request.getToWalletId(),
+                                            request.getAmount().toBigDecimal())
+                                    .switchIfEmpty(Mono.defer(() -> rejectTransfer(request))))
+                    .map(balances -> toResponse(request, balances));
+        }).doOnNext(response -> {
+            written(response.getFrom());
+            written(response.getTo());
+            ledger.record(response.getFrom().getWalletId(), OperationType.WITHDRAW, request.getAmount(),
+                    response.getFrom().getAmount(), response.getFrom().getVersion());
+            ledger.record(response.getTo().getWalletId(), OperationType.DEPOSIT, request.getAmount(),
+                    response.getTo().getAmount(), response.getTo().getVersion());
+            metrics.recordSuccess(OperationType.TRANSFER, response.getFrom().getWalletId());
+        }).doOnError(ex -> metrics.recordFailure(OperationType.TRANSFER,
+                request == null ? null : request.getFromWalletId(), ex));
+    }
+
+    public Mono<WalletResponse> applyOperation(WalletRequest request) {
+        Mono<WalletResponse> operation = switch (request.getType()) {
+            case DEPOSIT -> handleDeposit(request);
+            case WITHDRAW -> handleWithdraw(request);
+            case TRANSFER, HOLD, CAPTURE, RELEASE ->
+                    Mono.error(new NotValidJsonException("Invalid JSON: type must be either DEPOSIT or WITHDRAW"));
+        };
+        return shards.route(request.getWalletId(), operation).doOnNext(response ->
+                ledger.record(response.getWalletId(), request.getType(), request.getAmount(), response.getAmount(),
+                        response.getVersion()));
+    }
+
+    @Override
+    public Mono<WalletOperationPage> getOperationsByWallet(UUID walletId, Long before, int limit) {
+        logger.info("Get operations of wallet {} before {}", walletId, before);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        return shards.route(walletId, routing.read(List.of(walletId),
+                                operationRepository.findPage(walletId, before == null ? Long.MAX_VALUE : before, pageSize))
+                        .map(operation -> new WalletOperationResponse(operation.getId(), operation.getWalletId(),
+                                operation.getType(), operation.getAmount(), operation.getBalance(), operation.getCreatedAt()))
+                        .collectList())
+                .map(operations -> new WalletOperationPage(operations, operations.size() < pageSize
+                        ? null
+                        : operations.get(operations.size() - 1).getId()));
+    }
+
+    @Override
+    public Flux<String> exportWallets(WalletExporter.Format format, Instant updatedSince) {
+        return exporter.export(format, updatedSince);
+    }
+
+    @Override
+    public Mono<ProvisioningResponse> provisionWallets(Flux<WalletProvisionRequest> wallets) {
+        return provisioner.provisionRequested(wallets);
     }
 
-    @Transactional
-    public Mono<WalletResponse> handleWithdraw(Wallet wallet, WalletRequest request) {
+    @Override
+    public Mono<ProvisioningResponse> provisionWallets(long count, Money minBalance, Money maxBalance) {
+        if (minBalance == null || maxBalance == null) {
+            return Mono.error(new NotValidJsonException("Invalid JSON: minBalance and maxBalance cannot be null"));
+        }
+        return provisioner.provisionRequested(count, minBalance, maxBalance);
+    }
+
+    /**
+     * Holds, captures and releases always take the single-statement path on R2DBC, like keyed
+     * operations. Only a capture changes the settled balance that is cached and streamed.
+     */
+    @Override
+    public Mono<HoldResponse> placeHold(UUID walletId, HoldRequest request) {
+        logger.info("Holding amount: {}", request == null ? null : request.getAmount());
+        return Mono.defer(() -> {
+            JsonValidator.checkHoldRequest(request);
+            return shards.route(walletId, holds.hold(walletId, request.getAmount(), request.getTtlSeconds()));
+        }).doOnNext(hold -> recordHold(OperationType.HOLD, hold))
+                .map(hold -> toResponse(OperationType.HOLD, hold))
+                .doOnError(ex -> metrics.recordFailure(OperationType.HOLD, walletId, ex));
+    }
+
+    /**
+     * Captures the whole hold unless the body names a smaller amount.
+     */
+    @Override
+    public Mono<HoldResponse> captureHold(UUID walletId, UUID holdId, HoldRequest request) {
+        logger.info("Capturing hold {}", holdId);
+        Money amount = request == null ? null : request.getAmount();
+        return Mono.defer(() -> {
+            if (amount != null && !amount.isPositive()) {
+                return Mono.error(new NotValidJsonException("Invalid JSON: amount must be greater than zero"));
+            }
+            return shards.route(walletId, holds.capture(walletId, holdId, amount));
+        }).doOnNext(hold -> {
+                    written(new WalletResponse(walletId, Money.of(hold.getBalance()), hold.getVersion()));
+                    recordHold(OperationType.CAPTURE, hold);
+                })
+                .map(hold -> toResponse(OperationType.CAPTURE, hold))
+                .doOnError(ex -> metrics.recordFailure(OperationType.CAPTURE, walletId, ex));
+    }
+
+    @Override
+    public Mono<HoldResponse> releaseHold(UUID walletId, UUID holdId) {
+        logger.info("Releasing hold {}", holdId);
+        return shards.route(walletId, holds.release(walletId, holdId))
+                .doOnNext(hold -> recordHold(OperationType.RELEASE, hold))
+                .map(hold -> toResponse(OperationType.RELEASE, hold))
+                .doOnError(ex -> metrics.recordFailure(OperationType.RELEASE, walletId, ex));
+    }
+
+    /**
+     * Striping an already striped wallet again with the same slot count returns its balance;
+     * a different count is rejected, since the slots are not redistributed. A wallet with
+     * outstanding holds cannot be striped, since slots have no held amount.
+     */
+    @Override
+    public Mono<WalletResponse> enableStriping(UUID walletId, int slots) {
+        logger.info("Switching wallet {} to striped mode", walletId);
+        if (slots < MIN_SLOTS || slots > MAX_SLOTS) {
+            return Mono.error(new NotValidJsonException(
+                    "Invalid JSON: slots must be between " + MIN_SLOTS + " and " + MAX_SLOTS));
+        }
+        return shards.route(walletId, striped.enable(walletId, slots))
+                .map(WalletServiceImpl::toResponse)
+                .doOnNext(this::written)
+                .switchIfEmpty(Mono.defer(() -> rejectStriping(walletId, slots)));
+    }
+
+    public Mono<WalletResponse> handleDeposit(WalletRequest request) {
+        logger.info("Depositing amount: {}", request.getAmount());
+        UUID walletId = request.getWalletId();
+        Integer slots = striped.knownSlots(walletId);
+        if (slots != null) {
+            return striped.deposit(walletId, request.getAmount(), slots)
+                    .map(WalletServiceImpl::toResponse);
+        }
+        return (jdbc.isEnabled()
+                        ? jdbc.deposit(walletId, request.getAmount().toBigDecimal())
+                        : repository.deposit(walletId, request.getAmount().toBigDecimal()))
+                .switchIfEmpty(Mono.defer(() -> striped.resolveSlots(walletId)
+                        .filter(resolved -> resolved > 0)
+                        .flatMap(resolved -> striped.deposit(walletId, request.getAmount(), resolved))))
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id: " + walletId)))
+                .map(WalletServiceImpl::toResponse);
+    }
+
+    public Mono<WalletResponse> handleWithdraw(WalletRequest request) {
         logger.info("Withdraw amount: {}", request.getAmount());
-        checkSufficientFunds(wallet, request);
-        wallet.setBalance(wallet.getBalance().subtract(request.getAmount()));
+        UUID walletId = request.getWalletId();
+        Integer slots = striped.knownSlots(walletId);
+        if (slots != null) {
+            return striped.withdraw(walletId, request.getAmount(), slots)
+                    .switchIfEmpty(Mono.error(() -> new InsufficientFundsException("Not enough funds for this transaction")))
+                    .map(WalletServiceImpl::toResponse);
+        }
+        return (jdbc.isEnabled()
+                        ? jdbc.withdraw(walletId, request.getAmount().toBigDecimal())
+                        : repository.withdraw(walletId, request.getAmount().toBigDecimal()))
+                .switchIfEmpty(Mono.defer(() -> rejectOrStripedWithdraw(request)))
+                .map(WalletServiceImpl::toResponse);
+    }
+
+    /**
+     * Runs the chunk once every earlier chunk touching one of its wallets has finished. Chunks
+     * are mapped in input order, so each one only waits on chunks before it.
+     */
+    private Mono<List<WalletOperationResult>> afterEarlierChunks(List<StreamItem> chunk,
+                                                                 Map<UUID, Mono<Void>> inFlight) {
+        Set<UUID> walletIds = new LinkedHashSet<>();
+        for (StreamItem item : chunk) {
+            if (item.request() != null && item.request().getWalletId() != null) {
+                walletIds.add(item.request().getWalletId());
+            }
+        }
+        List<Mono<Void>> earlier = walletIds.stream()
+                .map(inFlight::get)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Sinks.Empty<Void> finished = Sinks.empty();
+        Mono<Void> done = finished.asMono();
+        walletIds.forEach(walletId -> inFlight.put(walletId, done));
+        return Mono.when(earlier)
+                .then(Mono.defer(() -> applyChunk(chunk)))
+                .doFinally(signal -> {
+                    walletIds.forEach(walletId -> inFlight.remove(walletId, done));
+                    finished.tryEmitEmpty();
+                });
+    }
+
+    Mono<List<WalletOperationResult>> applyChunk(List<StreamItem> chunk) {
+        WalletOperationResult[] results = new WalletOperationResult[chunk.size()];
+        List<WalletRequest> valid = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            WalletRequest request = chunk.get(i).request();
+            if (chunk.get(i).error() != null) {
+                recordFailure(request, chunk.get(i).error());
+                results[i] = WalletOperationResult.failure(null, chunk.get(i).error());
+                continue;
+            }
+            try {
+                checkNotValidJson(request);
+                valid.add(request);
+                positions.add(i);
+            } catch (NotValidJsonException ex) {
+                recordFailure(request, ex);
+                results[i] = WalletOperationResult.failure(request.getWalletId(), ex);
+            }
+        }
+        if (valid.isEmpty()) {
+            return Mono.just(Arrays.asList(results));
+        }
+        return batchExecutor.execute(valid)
+                .flatMap(outcomes -> Flux.range(0, outcomes.size())
+                        .concatMap(i -> {
+                            WalletRequest request = valid.get(i);
+                            OperationOutcome outcome = outcomes.get(i);
+                            Mono<WalletResponse> result = outcome.isDeferred()
+                                    ? applyOperation(request)
+                                    : outcome.error() != null ? Mono.error(outcome.error()) : Mono.just(outcome.response());
+                            return result.doOnNext(response -> {
+                                        written(response);
+                                        metrics.recordSuccess(request.getType(), response.getWalletId());
+                                    })
+                                    .map(WalletOperationResult::success)
+                                    .onErrorResume(ex -> {
+                                        recordFailure(request, ex);
+                                        return Mono.just(WalletOperationResult.failure(request.getWalletId(), ex));
+                                    })
+                                    .doOnNext(itemResult -> results[positions.get(i)] = itemResult);
+                        })
+                        .then(Mono.fromSupplier(() -> Arrays.asList(results))))
+                .onErrorResume(ex -> {
+                    logger.error("Chunk of {} operations failed: {}", valid.size(), ex.getMessage());
+                    for (int i = 0; i < valid.size(); i++) {
+                        recordFailure(valid.get(i), ex);
+                        results[positions.get(i)] = WalletOperationResult.failure(valid.get(i).getWalletId(), ex);
+                    }
+                    return Mono.just(Arrays.asList(results));
+                });
+    }
+
+    /**
+     * Writes the new balance through to the cache, keeps reads of the wallet on the primary for
+     * the read-your-writes window and pushes the change to stream subscribers.
+     */
+    private void written(WalletResponse response) {
+        cache.put(response);
+        routing.markWritten(response.getWalletId());
+        balanceStream.publish(response);
+    }
+
+    private void recordHold(OperationType type, HoldBalance hold) {
+        ledger.record(hold.getWalletId(), type, Money.of(hold.getAmount()), Money.of(hold.getBalance()),
+                hold.getVersion());
+        metrics.recordSuccess(type, hold.getWalletId());
+    }
 
-        return repository.save(wallet)
-                .map(savedWallet -> new WalletResponse(savedWallet.getWalletId(), savedWallet.getBalance()));
+    private static HoldResponse toResponse(OperationType type, HoldBalance hold) {
+        Money balance = Money.of(hold.getBalance());
+        return new HoldResponse(hold.getHoldId(), hold.getWalletId(), type, Money.of(hold.getAmount()),
+                hold.getExpiresAt(), balance, balance.minus(Money.of(hold.getHeld())));
+    }
+
+    private static WalletResponse toResponse(Wallet wallet) {
+        return new WalletResponse(wallet.getWalletId(), Money.of(wallet.getBalance()), wallet.getVersion());
+    }
+
+    private Mono<Map<UUID, WalletResponse>> loadAll(Set<UUID> walletIds) {
+        Flux<Wallet> wallets = jdbc.isEnabled()
+                ? jdbc.findAll(walletIds)
+                : shards.routeAll(walletIds, ids -> routing.read(ids, repository.findAllByWalletIds(ids.toArray(UUID[]::new))));
+        return wallets.collectMap(Wallet::getWalletId, WalletServiceImpl::toResponse);
+    }
+
+    private static TransferResponse toResponse(TransferRequest request, TransferBalances balances) {
+        return new TransferResponse(
+                new WalletResponse(request.getFromWalletId(), Money.of(balances.getFromBalance()), balances.getFromVersion()),
+                new WalletResponse(request.getToWalletId(), Money.of(balances.getToBalance()), balances.getToVersion()));
     }
 
     public void checkNotValidJson(WalletRequest request) {
@@ -77,10 +523,92 @@ public class WalletServiceImpl extends BaseLoggerService implements WalletServic
         JsonValidator.checkJsonRequestType(request);
     }
 
-    public void checkSufficientFunds(Wallet wallet, WalletRequest request) {
+    private StreamItem decode(String line) {
+        try {
+            WalletRequest request = requestReader.readValue(line);
+            return request == null
+                    ? new StreamItem(null, new NotValidJsonException("Invalid JSON: operation cannot be null"))
+                    : new StreamItem(request, null);
+        } catch (JsonProcessingException ex) {
+            return new StreamItem(null, new NotValidJsonException("Invalid JSON: " + ex.getOriginalMessage()));
+        }
+    }
+
+    private void recordFailure(WalletRequest request, Throwable error) {
+        if (request == null) {
+            metrics.recordFailure(null, null, error);
+        } else {
+            metrics.recordFailure(request.getType(), request.getWalletId(), error);
+        }
+    }
+
+    /**
+     * The conditional update matched no row: the wallet is missing, short of funds, or striped.
+     * Only this path pays for the extra lookup.
+     */
+    private Mono<Wallet> rejectOrStripedWithdraw(WalletRequest request) {
         logger.info("Checking remaining balance");
-        if (wallet.getBalance().subtract(request.getAmount()).compareTo(BigDecimal.ZERO) < 0) {
-            throw new InsufficientFundsException("Not enough funds for this transaction");
+        UUID walletId = request.getWalletId();
+        return striped.resolveSlots(walletId)
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id: " + walletId)))
+                .flatMap(slots -> slots > 0
+                        ? striped.withdraw(walletId, request.getAmount(), slots)
+                        : Mono.empty())
+                .switchIfEmpty(Mono.error(() -> new InsufficientFundsException("Not enough funds for this transaction")));
+    }
+
+    /**
+     * The striping statement matched nothing: the wallet is missing, already striped, or has
+     * outstanding holds.
+     */
+    private Mono<WalletResponse> rejectStriping(UUID walletId, int slots) {
+        return shards.route(walletId, striped.resolveSlots(walletId)
+                        .zipWith(holds.hasHolds(walletId)))
+                .switchIfEmpty(Mono.error(() -> new WalletNotFoundException("Wallet not found with id: " + walletId)))
+                .flatMap(state -> {
+                    int current = state.getT1();
+                    if (current == slots) {
+                        return getWalletByUuid(walletId);
+                    }
+                    if (current > 0) {
+                        return Mono.error(new NotValidJsonException(
+                                "Invalid JSON: wallet is already striped over " + current + " slots"));
+                    }
+                    if (state.getT2()) {
+                        return Mono.error(new NotValidJsonException(
+                                "Invalid JSON: wallets with outstanding holds cannot be striped"));
+                    }
+                    return getWalletByUuid(walletId);
+                });
+    }
+
+    /**
+     * The transfer statement matched nothing: a wallet is missing or striped, or the source is
+     * short of funds. Only this path pays for the extra lookups.
+     */
+    private Mono<TransferBalances> rejectTransfer(TransferRequest request) {
+        logger.info("Checking wallets of rejected transfer");
+        return Mono.zip(striped.resolveSlots(request.getFromWalletId()).defaultIfEmpty(-1),
+                        striped.resolveSlots(request.getToWalletId()).defaultIfEmpty(-1))
+                .flatMap(slots -> Mono.error(transferRejection(request, slots.getT1(), slots.getT2())));
+    }
+
+    private static RuntimeException transferRejection(TransferRequest request, int fromSlots, int toSlots) {
+        if (fromSlots < 0) {
+            return new WalletNotFoundException("Wallet not found with id: " + request.getFromWalletId());
+        }
+        if (toSlots < 0) {
+            return new WalletNotFoundException("Wallet not found with id: " + request.getToWalletId());
+        }
+        if (fromSlots > 0 || toSlots > 0) {
+            return new NotValidJsonException("Invalid JSON: transfers are not supported for striped wallets");
         }
+        return new InsufficientFundsException("Not enough funds for this transaction");
+    }
+
+    /**
+     * One item of an operation stream: the request, or the error its line failed to decode with.
+     */
+    record StreamItem(WalletRequest request, NotValidJsonException error) {
     }
 }
@@ -0,0 +1,31 @@
+package com.example.wallets.shard;
+
+import java.util.UUID;
+
+/**
+ * Lamping and Veach's jump consistent hash. Going from {@code n} to {@code n + 1} buckets
+ * moves only about {@code 1 / (n + 1)} of the keys, all of them into the new bucket.
+ */
+public final class JumpHash {
+
+    private JumpHash() {
+    }
+
+    public static int bucket(UUID walletId, int buckets) {
+        return bucket(walletId.getMostSignificantBits() ^ walletId.getLeastSignificantBits(), buckets);
+    }
+
+    public static int bucket(long key, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive: " + buckets);
+        }
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
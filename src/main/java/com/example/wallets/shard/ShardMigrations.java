@@ -0,0 +1,59 @@
+package com.example.wallets.shard;
+
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.utils.BaseLoggerService;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies the application's changelog to every shard besides shard 0, which Spring Boot
+ * migrates itself, before the application starts serving. The shards run it under the
+ * {@code shard} context, which leaves out the seed wallets.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class ShardMigrations extends BaseLoggerService implements InitializingBean {
+
+    static final String CONTEXT = "shard";
+
+    private final ShardProperties properties;
+    private final ObjectProvider<LiquibaseProperties> liquibaseProperties;
+    private final ResourceLoader resourceLoader;
+
+    public ShardMigrations(ShardProperties properties, ObjectProvider<LiquibaseProperties> liquibaseProperties,
+                           ResourceLoader resourceLoader) {
+        this.properties = properties;
+        this.liquibaseProperties = liquibaseProperties;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        LiquibaseProperties liquibase = liquibaseProperties.getIfAvailable();
+        if (liquibase == null || !liquibase.isEnabled()) {
+            return;
+        }
+        List<ShardProperties.Shard> shards = properties.getShards();
+        for (int i = 0; i < shards.size(); i++) {
+            ShardProperties.Shard shard = shards.get(i);
+            if (shard.getJdbcUrl() == null || shard.getJdbcUrl().isBlank()) {
+                throw new IllegalStateException("wallet.sharding.shards[" + i + "].jdbc-url must be set");
+            }
+            logger.info("Applying database changelog to shard {}", i + 1);
+            SpringLiquibase migration = new SpringLiquibase();
+            migration.setDataSource(new DriverManagerDataSource(shard.getJdbcUrl(), shard.getUsername(), shard.getPassword()));
+            migration.setChangeLog(liquibase.getChangeLog());
+            migration.setContexts(CONTEXT);
+            migration.setResourceLoader(resourceLoader);
+            migration.afterPropertiesSet();
+        }
+    }
+}
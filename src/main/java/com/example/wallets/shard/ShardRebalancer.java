@@ -0,0 +1,374 @@
+package com.example.wallets.shard;
+
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.utils.BaseLoggerService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves wallets to the shard they hash to after shards were added. A wallet is moved with its
+ * slots, holds, ledger entries and idempotency keys: its row is locked and everything is deleted on
+ * the old shard, copied to the new one in a transaction there, and only then is the deletion
+ * committed. A failure in between leaves the wallet on both shards; the copy on the new shard
+ * wins, and the next pass drops the old one. Wallets move on their first access and in a
+ * background pass over every shard, both only while {@code previous-count} is set. Every
+ * instance must run with the same shard list, since the move does not stop an instance still
+ * routing with the old one from writing to the old shard.
+ */
+@Component
+public class ShardRebalancer extends BaseLoggerService {
+
+    private static final String EXISTS = "SELECT 1 FROM wallet WHERE wallet_id = :walletId";
+    private static final String SCAN = """
+            SELECT id, wallet_id FROM wallet
+            WHERE id > :afterId
+            ORDER BY id
+            LIMIT :limit
+            """;
+    private static final String LOCK_WALLET = """
+            SELECT balance, held, slots, version, updated_at FROM wallet
+            WHERE wallet_id = :walletId
+            FOR UPDATE
+            """;
+    private static final String DELETE_SLOTS = """
+            DELETE FROM wallet_slot WHERE wallet_id = :walletId
+            RETURNING slot, balance, updated_at
+            """;
+    private static final String DELETE_HOLDS = """
+            DELETE FROM wallet_hold WHERE wallet_id = :walletId
+            RETURNING hold_id, amount, expires_at, created_at
+            """;
+    private static final String DELETE_OPERATIONS = """
+            DELETE FROM wallet_operation WHERE wallet_id = :walletId
+            RETURNING id, type, amount, balance, version, created_at
+            """;
+    private static final String DELETE_KEYS = """
+            DELETE FROM idempotency_key WHERE wallet_id = :walletId
+            RETURNING idempotency_key, balance, type, amount, expires_at
+            """;
+    private static final String DELETE_SNAPSHOT = "DELETE FROM wallet_snapshot WHERE wallet_id = :walletId";
+    private static final String DELETE_WALLET = "DELETE FROM wallet WHERE wallet_id = :walletId";
+    private static final String INSERT_WALLET = """
+            INSERT INTO wallet (wallet_id, balance, held, slots, version, updated_at)
+            VALUES (:walletId, :balance, :held, :slots, :version, :updatedAt)
+            ON CONFLICT (wallet_id) DO NOTHING
+            """;
+    private static final String INSERT_SLOTS = """
+            INSERT INTO wallet_slot (wallet_id, slot, balance, updated_at)
+            SELECT :walletId, v.slot, v.balance, to_timestamp(v.updated_at_micros / 1000000.0)
+            FROM unnest(:slots, :balances, :updatedAtMicros) AS v(slot, balance, updated_at_micros)
+            """;
+    private static final String INSERT_HOLDS = """
+            INSERT INTO wallet_hold (hold_id, wallet_id, amount, expires_at, created_at)
+            SELECT v.hold_id, :walletId, v.amount, to_timestamp(v.expires_at_micros / 1000000.0),
+                   to_timestamp(v.created_at_micros / 1000000.0)
+            FROM unnest(:holdIds, :amounts, :expiresAtMicros, :createdAtMicros)
+                AS v(hold_id, amount, expires_at_micros, created_at_micros)
+            """;
+    /**
+     * The entries get new ids on the new shard, assigned in their old order.
+     */
+    private static final String INSERT_OPERATIONS = """
+            INSERT INTO wallet_operation (wallet_id, type, amount, balance, version, created_at)
+            SELECT :walletId, v.type, v.amount, v.balance, v.version, to_timestamp(v.created_at_micros / 1000000.0)
+            FROM unnest(:types, :amounts, :balances, :versions, :createdAtMicros) WITH ORDINALITY
+                AS v(type, amount, balance, version, created_at_micros, position)
+            ORDER BY v.position
+            """;
+    private static final String INSERT_KEYS = """
+            INSERT INTO idempotency_key (idempotency_key, wallet_id, balance, type, amount, expires_at)
+            SELECT v.idempotency_key, :walletId, v.balance, v.type, v.amount,
+                   to_timestamp(v.expires_at_micros / 1000000.0)
+            FROM unnest(:keys, :balances, :types, :amounts, :expiresAtMicros)
+                AS v(idempotency_key, balance, type, amount, expires_at_micros)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """;
+
+    private final ShardRouting routing;
+    private final ShardProperties properties;
+    private final Cache<UUID, Boolean> settled;
+    private volatile boolean complete;
+
+    public ShardRebalancer(ShardRouting routing, ShardProperties properties) {
+        this.routing = routing;
+        this.properties = properties;
+        this.settled = Caffeine.newBuilder()
+                .maximumSize(1_000_000)
+                .build();
+    }
+
+    /**
+     * Completes once the wallet is on its shard, moving it there first if needed. Unknown
+     * wallets complete too, and their queries then find nothing.
+     */
+    public Mono<Void> settle(UUID walletId) {
+        if (settled.getIfPresent(walletId) != null) {
+            return Mono.empty();
+        }
+        int target = routing.shardOf(walletId);
+        return client(target).sql(EXISTS)
+                .bind("walletId", walletId)
+                .fetch()
+                .first()
+                .hasElement()
+                .flatMap(present -> present ? Mono.just(true) : move(walletId, routing.previousShardOf(walletId), target))
+                .doOnNext(found -> {
+                    if (found) {
+                        settled.put(walletId, Boolean.TRUE);
+                    }
+                })
+                .then();
+    }
+
+    @Scheduled(initialDelayString = "${wallet.sharding.rebalance-interval}",
+            fixedDelayString = "${wallet.sharding.rebalance-interval}")
+    public void rebalance() {
+        if (!routing.isRebalancing() || complete) {
+            return;
+        }
+        Long moved = Flux.range(0, routing.shardCount())
+                .concatMap(this::rebalanceShard)
+                .reduce(0L, Long::sum)
+                .onErrorResume(ex -> {
+                    logger.error("Rebalancing wallets failed: {}", ex.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+        if (moved == null) {
+            return;
+        }
+        if (moved > 0) {
+            logger.info("Moved {} wallets to their shards", moved);
+        } else {
+            logger.info("Every wallet is on its shard, wallet.sharding.previous-count can be removed");
+            complete = true;
+        }
+    }
+
+    private Mono<Long> rebalanceShard(int shard) {
+        int batchSize = properties.getRebalanceBatchSize();
+        return scan(shard, 0L)
+                .expand(chunk -> chunk.size() < batchSize
+                        ? Mono.empty()
+                        : scan(shard, chunk.get(chunk.size() - 1).id()))
+                .concatMap(chunk -> Flux.fromIterable(chunk)
+                        .map(ScannedWallet::walletId)
+                        .filter(walletId -> routing.shardOf(walletId) != shard)
+                        .concatMap(walletId -> move(walletId, shard, routing.shardOf(walletId))
+                                .filter(Boolean::booleanValue)
+                                .doOnNext(found -> settled.put(walletId, Boolean.TRUE)))
+                        .count())
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<List<ScannedWallet>> scan(int shard, long afterId) {
+        return client(shard).sql(SCAN)
+                .bind("afterId", afterId)
+                .bind("limit", properties.getRebalanceBatchSize())
+                .map((row, metadata) -> new ScannedWallet(row.get("id", Long.class), row.get("wallet_id", UUID.class)))
+                .all()
+                .collectList();
+    }
+
+    /**
+     * Emits whether the wallet was on {@code from}.
+     */
+    Mono<Boolean> move(UUID walletId, int from, int to) {
+        DatabaseClient source = client(from);
+        return source.sql(LOCK_WALLET)
+                .bind("walletId", walletId)
+                .map((row, metadata) -> new WalletRow(
+                        row.get("balance", BigDecimal.class),
+                        row.get("held", BigDecimal.class),
+                        row.get("slots", Integer.class),
+                        row.get("version", Long.class),
+                        row.get("updated_at", Instant.class)))
+                .one()
+                .flatMap(wallet -> take(source, walletId, wallet))
+                .flatMap(moved -> source.sql(DELETE_SNAPSHOT).bind("walletId", walletId).fetch().rowsUpdated()
+                        .then(source.sql(DELETE_WALLET).bind("walletId", walletId).fetch().rowsUpdated())
+                        .then(copy(client(to), walletId, moved).as(transactions(to)::transactional)))
+                .doOnNext(copied -> logger.info("Wallet {} moved from shard {} to shard {}{}", walletId, from, to,
+                        copied ? "" : ", dropped a stale copy"))
+                .thenReturn(true)
+                .defaultIfEmpty(false)
+                .as(transactions(from)::transactional);
+    }
+
+    private static Mono<MovedWallet> take(DatabaseClient source, UUID walletId, WalletRow wallet) {
+        Mono<List<SlotRow>> slots = source.sql(DELETE_SLOTS)
+                .bind("walletId", walletId)
+                .map((row, metadata) -> new SlotRow(
+                        row.get("slot", Integer.class),
+                        row.get("balance", BigDecimal.class),
+                        row.get("updated_at", Instant.class)))
+                .all()
+                .collectList();
+        Mono<List<HoldRow>> holds = source.sql(DELETE_HOLDS)
+                .bind("walletId", walletId)
+                .map((row, metadata) -> new HoldRow(
+                        row.get("hold_id", UUID.class),
+                        row.get("amount", BigDecimal.class),
+                        row.get("expires_at", Instant.class),
+                        row.get("created_at", Instant.class)))
+                .all()
+                .collectList();
+        Mono<List<OperationRow>> operations = source.sql(DELETE_OPERATIONS)
+                .bind("walletId", walletId)
+                .map((row, metadata) -> new OperationRow(
+                        row.get("id", Long.class),
+                        row.get("type", String.class),
+                        row.get("amount", BigDecimal.class),
+                        row.get("balance", BigDecimal.class),
+                        row.get("version", Long.class),
+                        row.get("created_at", Instant.class)))
+                .all()
+                .sort(Comparator.comparingLong(OperationRow::id))
+                .collectList();
+        Mono<List<KeyRow>> keys = source.sql(DELETE_KEYS)
+                .bind("walletId", walletId)
+                .map((row, metadata) -> new KeyRow(
+                        row.get("idempotency_key", String.class),
+                        row.get("balance", BigDecimal.class),
+                        row.get("type", String.class),
+                        row.get("amount", BigDecimal.class),
+                        row.get("expires_at", Instant.class)))
+                .all()
+                .collectList();
+        return slots.flatMap(slotRows -> holds.flatMap(holdRows -> operations.flatMap(operationRows ->
+                keys.map(keyRows -> new MovedWallet(wallet, slotRows, holdRows, operationRows, keyRows)))));
+    }
+
+    /**
+     * Emits false when the target already had the wallet, which makes the source copy stale.
+     */
+    private static Mono<Boolean> copy(DatabaseClient target, UUID walletId, MovedWallet moved) {
+        WalletRow wallet = moved.wallet();
+        return target.sql(INSERT_WALLET)
+                .bind("walletId", walletId)
+                .bind("balance", wallet.balance())
+                .bind("held", wallet.held())
+                .bind("slots", wallet.slots())
+                .bind("version", wallet.version())
+                .bind("updatedAt", wallet.updatedAt() == null ? Instant.now() : wallet.updatedAt())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(inserted -> inserted == 0
+                        ? Mono.just(false)
+                        : copySlots(target, walletId, moved.slots())
+                                .then(copyHolds(target, walletId, moved.holds()))
+                                .then(copyOperations(target, walletId, moved.operations()))
+                                .then(copyKeys(target, walletId, moved.keys()))
+                                .thenReturn(true));
+    }
+
+    private static Mono<Long> copySlots(DatabaseClient target, UUID walletId, List<SlotRow> slots) {
+        if (slots.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return target.sql(INSERT_SLOTS)
+                .bind("walletId", walletId)
+                .bind("slots", slots.stream().map(SlotRow::slot).toArray(Integer[]::new))
+                .bind("balances", slots.stream().map(SlotRow::balance).toArray(BigDecimal[]::new))
+                .bind("updatedAtMicros", slots.stream().map(slot -> micros(slot.updatedAt())).toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Mono<Long> copyHolds(DatabaseClient target, UUID walletId, List<HoldRow> holds) {
+        if (holds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return target.sql(INSERT_HOLDS)
+                .bind("walletId", walletId)
+                .bind("holdIds", holds.stream().map(HoldRow::holdId).toArray(UUID[]::new))
+                .bind("amounts", holds.stream().map(HoldRow::amount).toArray(BigDecimal[]::new))
+                .bind("expiresAtMicros", holds.stream().map(hold -> micros(hold.expiresAt())).toArray(Long[]::new))
+                .bind("createdAtMicros", holds.stream().map(hold -> micros(hold.createdAt())).toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Mono<Long> copyOperations(DatabaseClient target, UUID walletId, List<OperationRow> operations) {
+        if (operations.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return target.sql(INSERT_OPERATIONS)
+                .bind("walletId", walletId)
+                .bind("types", operations.stream().map(OperationRow::type).toArray(String[]::new))
+                .bind("amounts", operations.stream().map(OperationRow::amount).toArray(BigDecimal[]::new))
+                .bind("balances", operations.stream().map(OperationRow::balance).toArray(BigDecimal[]::new))
+                .bind("versions", operations.stream().map(OperationRow::version).toArray(Long[]::new))
+                .bind("createdAtMicros", operations.stream().map(operation -> micros(operation.createdAt())).toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Mono<Long> copyKeys(DatabaseClient target, UUID walletId, List<KeyRow> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return target.sql(INSERT_KEYS)
+                .bind("walletId", walletId)
+                .bind("keys", keys.stream().map(KeyRow::key).toArray(String[]::new))
+                .bind("balances", keys.stream().map(KeyRow::balance).toArray(BigDecimal[]::new))
+                .bind("types", keys.stream().map(KeyRow::type).toArray(String[]::new))
+                .bind("amounts", keys.stream().map(KeyRow::amount).toArray(BigDecimal[]::new))
+                .bind("expiresAtMicros", keys.stream().map(key -> micros(key.expiresAt())).toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant == null ? Instant.now() : instant);
+    }
+
+    /**
+     * Bound to the shard's own connection factory rather than the routed one, so a transaction
+     * on one shard does not capture the queries meant for another.
+     */
+    private DatabaseClient client(int shard) {
+        return DatabaseClient.create(routing.factory(shard));
+    }
+
+    private TransactionalOperator transactions(int shard) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(routing.factory(shard)));
+    }
+
+    private record ScannedWallet(long id, UUID walletId) {
+    }
+
+    private record WalletRow(BigDecimal balance, BigDecimal held, Integer slots, Long version, Instant updatedAt) {
+    }
+
+    private record SlotRow(Integer slot, BigDecimal balance, Instant updatedAt) {
+    }
+
+    private record HoldRow(UUID holdId, BigDecimal amount, Instant expiresAt, Instant createdAt) {
+    }
+
+    private record OperationRow(long id, String type, BigDecimal amount, BigDecimal balance, Long version,
+                                Instant createdAt) {
+    }
+
+    private record KeyRow(String key, BigDecimal balance, String type, BigDecimal amount, Instant expiresAt) {
+    }
+
+    private record MovedWallet(WalletRow wallet, List<SlotRow> slots, List<HoldRow> holds,
+                               List<OperationRow> operations, List<KeyRow> keys) {
+    }
+}
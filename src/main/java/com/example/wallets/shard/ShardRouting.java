@@ -0,0 +1,194 @@
+package com.example.wallets.shard;
+
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.utils.BaseLoggerService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Maps each wallet to one of the shards configured under {@code wallet.sharding} with
+ * {@link JumpHash} and pins queries to that shard. The shard travels in the Reactor context to
+ * {@link ShardedConnectionFactory}, so repositories, {@code DatabaseClient} and transactions
+ * need no changes; work spanning several shards is split here, one query per shard. While
+ * wallets are being rebalanced, a wallet whose shard changed is moved before its first query.
+ */
+@Component
+public class ShardRouting extends BaseLoggerService implements DisposableBean {
+
+    static final String SHARD = ShardRouting.class.getName() + ".SHARD";
+
+    private final ShardProperties properties;
+    private final ObjectProvider<ShardRebalancer> rebalancer;
+    private final List<ConnectionPool> pools;
+    private final Context[] contexts;
+    private volatile ConnectionFactory primary;
+
+    public ShardRouting(ShardProperties properties, ReplicaProperties replicaProperties,
+                        ObjectProvider<ShardRebalancer> rebalancer) {
+        this.properties = properties;
+        this.rebalancer = rebalancer;
+        this.pools = new ArrayList<>();
+        if (!properties.isEnabled()) {
+            this.contexts = new Context[0];
+            return;
+        }
+        if (replicaProperties.isEnabled()) {
+            throw new IllegalStateException("wallet.sharding and wallet.replica cannot be enabled together");
+        }
+        int count = properties.getShards().size() + 1;
+        Integer previous = properties.getPreviousCount();
+        if (previous != null && (previous < 1 || previous > count)) {
+            throw new IllegalStateException("wallet.sharding.previous-count must be between 1 and " + count);
+        }
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            pools.add(createPool(i + 1, properties.getShards().get(i), properties));
+        }
+        this.contexts = new Context[count];
+        for (int i = 0; i < count; i++) {
+            contexts[i] = Context.of(SHARD, i);
+        }
+        logger.info("Wallets are spread over {} shards{}", count,
+                isRebalancing() ? ", rebalancing from " + previous : "");
+    }
+
+    public boolean isEnabled() {
+        return contexts.length > 0;
+    }
+
+    /**
+     * One when sharding is off, so jobs can always run once per shard.
+     */
+    public int shardCount() {
+        return Math.max(contexts.length, 1);
+    }
+
+    public int shardOf(UUID walletId) {
+        return isEnabled() ? JumpHash.bucket(walletId, contexts.length) : 0;
+    }
+
+    public boolean isRebalancing() {
+        return isEnabled() && properties.getPreviousCount() != null && properties.getPreviousCount() < contexts.length;
+    }
+
+    int previousShardOf(UUID walletId) {
+        return isRebalancing() ? JumpHash.bucket(walletId, properties.getPreviousCount()) : shardOf(walletId);
+    }
+
+    public <T> Mono<T> route(UUID walletId, Mono<T> operation) {
+        if (!isEnabled() || walletId == null) {
+            return operation;
+        }
+        return route(shardOf(walletId), List.of(walletId), operation);
+    }
+
+    /**
+     * Runs {@code operation} on {@code shard}, which must own every one of {@code walletIds}.
+     */
+    public <T> Mono<T> route(int shard, Collection<UUID> walletIds, Mono<T> operation) {
+        if (!isEnabled()) {
+            return operation;
+        }
+        return settle(walletIds).then(operation).contextWrite(contexts[shard]);
+    }
+
+    /**
+     * Runs {@code query} once per shard with the wallets that shard owns and merges the results.
+     */
+    public <T> Flux<T> routeAll(Collection<UUID> walletIds, Function<List<UUID>, Flux<T>> query) {
+        if (!isEnabled()) {
+            return query.apply(List.copyOf(walletIds));
+        }
+        return Flux.fromIterable(partition(walletIds, Function.identity()).entrySet())
+                .flatMap(shard -> settle(shard.getValue())
+                        .thenMany(query.apply(shard.getValue()))
+                        .contextWrite(contexts[shard.getKey()]));
+    }
+
+    /**
+     * For work that is not tied to particular wallets, such as scans and maintenance jobs.
+     */
+    public <T> Mono<T> onShard(int shard, Mono<T> operation) {
+        return isEnabled() ? operation.contextWrite(contexts[shard]) : operation;
+    }
+
+    public <T> Flux<T> onShard(int shard, Flux<T> query) {
+        return isEnabled() ? query.contextWrite(contexts[shard]) : query;
+    }
+
+    /**
+     * Groups {@code items} by the shard of their wallet, keeping their order within each shard.
+     */
+    public <T> Map<Integer, List<T>> partition(Collection<T> items, Function<T, UUID> walletId) {
+        Map<Integer, List<T>> shards = new TreeMap<>();
+        for (T item : items) {
+            shards.computeIfAbsent(shardOf(walletId.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return shards;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    /**
+     * The unrouted connection factory of a shard, for work that must hold connections to
+     * several shards at once.
+     */
+    ConnectionFactory factory(int shard) {
+        return shard == 0 ? primary : pools.get(shard - 1);
+    }
+
+    void usePrimary(ConnectionFactory primary) {
+        this.primary = primary;
+    }
+
+    private Mono<Void> settle(Collection<UUID> walletIds) {
+        if (!isRebalancing()) {
+            return Mono.empty();
+        }
+        List<UUID> moving = walletIds.stream()
+                .filter(walletId -> previousShardOf(walletId) != shardOf(walletId))
+                .toList();
+        return moving.isEmpty() ? Mono.empty() : Flux.fromIterable(moving)
+                .concatMap(walletId -> rebalancer.getObject().settle(walletId))
+                .then();
+    }
+
+    private static ConnectionPool createPool(int index, ShardProperties.Shard shard, ShardProperties properties) {
+        if (shard.getUrl() == null || shard.getUrl().isBlank()) {
+            throw new IllegalStateException("wallet.sharding.shards[" + (index - 1) + "].url must be set");
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(shard.getUrl()).mutate();
+        if (shard.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, shard.getUsername());
+        }
+        if (shard.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, shard.getPassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("shard-" + index)
+                .initialSize(0)
+                .maxSize(properties.getMaxSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.wallets.shard;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out connections to the shard {@link ShardRouting} put in the subscriber's context, and
+ * shard 0 connections to subscribers without one.
+ */
+class ShardedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory primary;
+    private final ShardRouting routing;
+
+    ShardedConnectionFactory(ConnectionFactory primary, ShardRouting routing) {
+        this.primary = primary;
+        this.routing = routing;
+        routing.usePrimary(primary);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            Integer shard = context.getOrDefault(ShardRouting.SHARD, null);
+            return Mono.from(shard == null || shard == 0 ? primary.create() : routing.factory(shard).create());
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.wallets.shard;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts {@link ShardedConnectionFactory} in front of the primary {@link ConnectionFactory}
+ * when sharding is enabled, so repositories, {@code DatabaseClient} and the transaction
+ * manager all go through it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.sharding", name = "enabled", havingValue = "true")
+public class ShardingPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ShardRouting> routing;
+
+    public ShardingPostProcessor(ObjectProvider<ShardRouting> routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ConnectionFactory connectionFactory && !(bean instanceof ShardedConnectionFactory)) {
+            return new ShardedConnectionFactory(connectionFactory, routing.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.wallets.stream;
+
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import com.example.wallets.service.HoldExpiry;
+import com.example.wallets.utils.BaseLoggerService;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Delivers balance changes announced by other instances to local subscribers, and their holds
+ * placed and settled to the local hold expiry. It listens on its own connection outside the
+ * pool and reconnects with backoff when that connection fails.
+ */
+@Component
+public class BalanceNotificationListener extends BaseLoggerService implements ApplicationRunner, DisposableBean {
+
+    private final R2dbcProperties r2dbcProperties;
+    private final BalanceNotifier notifier;
+    private final BalanceStreamHub hub;
+    private final HoldExpiry holdExpiry;
+    private volatile Disposable subscription;
+
+    public BalanceNotificationListener(R2dbcProperties r2dbcProperties, BalanceNotifier notifier, BalanceStreamHub hub,
+                                       HoldExpiry holdExpiry) {
+        this.r2dbcProperties = r2dbcProperties;
+        this.notifier = notifier;
+        this.hub = hub;
+        this.holdExpiry = holdExpiry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!notifier.isEnabled()) {
+            return;
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl()).mutate();
+        if (r2dbcProperties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (r2dbcProperties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        subscription = Mono.usingWhen(
+                        Mono.from(ConnectionFactories.get(options.build()).create()).cast(PostgresqlConnection.class),
+                        this::listen,
+                        PostgresqlConnection::close)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> logger.warn("Balance notification listener failed, reconnecting: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> listen(PostgresqlConnection connection) {
+        return connection.createStatement("LISTEN " + BalanceNotifier.CHANNEL)
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .thenMany(connection.getNotifications())
+                .doOnNext(this::deliver)
+                .then(Mono.error(() -> new IllegalStateException("Notification connection closed")));
+    }
+
+    void deliver(Notification notification) {
+        String[] fields = notification.getParameter() == null ? new String[0] : notification.getParameter().split(",", -1);
+        if (fields.length < 3) {
+            logger.warn("Ignoring malformed notification: {}", notification.getParameter());
+            return;
+        }
+        if (fields[0].equals(notifier.instanceId())) {
+            return;
+        }
+        try {
+            switch (fields[1]) {
+                case BalanceNotifier.BALANCE -> {
+                    checkLength(fields, 5);
+                    Long version = fields[4].isEmpty() ? null : Long.valueOf(fields[4]);
+                    hub.deliver(new WalletResponse(UUID.fromString(fields[2]), Money.of(fields[3]), version));
+                }
+                case BalanceNotifier.HOLD_PLACED -> {
+                    checkLength(fields, 5);
+                    holdExpiry.deliverPlaced(UUID.fromString(fields[2]), UUID.fromString(fields[3]),
+                            Instant.ofEpochMilli(Long.parseLong(fields[4])));
+                }
+                case BalanceNotifier.HOLD_SETTLED -> {
+                    checkLength(fields, 3);
+                    holdExpiry.deliverSettled(UUID.fromString(fields[2]));
+                }
+                default -> throw new IllegalArgumentException("Unknown notification kind " + fields[1]);
+            }
+        } catch (IllegalArgumentException | ArithmeticException ex) {
+            logger.warn("Ignoring malformed notification: {}", notification.getParameter());
+        }
+    }
+
+    private static void checkLength(String[] fields, int length) {
+        if (fields.length != length) {
+            throw new IllegalArgumentException("Expected " + length + " fields");
+        }
+    }
+}
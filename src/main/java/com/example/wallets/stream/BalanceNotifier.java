@@ -0,0 +1,120 @@
+package com.example.wallets.stream;
+
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.utils.BaseLoggerService;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Announces balance changes, and holds placed and settled, to other instances over
+ * {@code NOTIFY}. Announcements are queued and sent as one {@code pg_notify} statement per batch,
+ * keeping only the latest one per wallet or hold in the batch, since every notifying commit
+ * takes a database-wide lock. A payload is {@code instance,kind,fields...}: {@code B} with the
+ * wallet, balance and version, {@code H} with the hold, wallet and expiry in epoch milliseconds,
+ * or {@code S} with the hold.
+ */
+@Component
+public class BalanceNotifier extends BaseLoggerService {
+
+    static final String CHANNEL = "wallet_balance";
+    static final String BALANCE = "B";
+    static final String HOLD_PLACED = "H";
+    static final String HOLD_SETTLED = "S";
+
+    private final DatabaseClient databaseClient;
+    private final StreamProperties.Notify properties;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Queue<Announcement> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BalanceNotifier(DatabaseClient databaseClient, StreamProperties properties) {
+        this.databaseClient = databaseClient;
+        this.properties = properties.getNotify();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void enqueue(WalletResponse response) {
+        enqueue(new Announcement(response.getWalletId(), BALANCE + "," + response.getWalletId() + ","
+                + response.getAmount() + "," + (response.getVersion() == null ? "" : response.getVersion())));
+    }
+
+    public void enqueueHoldPlaced(UUID holdId, UUID walletId, Instant expiresAt) {
+        enqueue(new Announcement(holdId, HOLD_PLACED + "," + holdId + "," + walletId + "," + expiresAt.toEpochMilli()));
+    }
+
+    public void enqueueHoldSettled(UUID holdId) {
+        enqueue(new Announcement(holdId, HOLD_SETTLED + "," + holdId));
+    }
+
+    private void enqueue(Announcement announcement) {
+        pending.offer(announcement);
+        int queued = size.incrementAndGet();
+        if (queued >= properties.getBatchSize()) {
+            tryFlush();
+        } else if (queued == 1) {
+            Schedulers.parallel().schedule(this::tryFlush, properties.getMaxLinger().toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+
+    private void tryFlush() {
+        if (running.compareAndSet(false, true)) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        Map<UUID, String> batch = new LinkedHashMap<>();
+        Announcement announcement;
+        int polled = 0;
+        while (polled < properties.getBatchSize() && (announcement = pending.poll()) != null) {
+            batch.put(announcement.key(), announcement.payload());
+            polled++;
+        }
+        size.addAndGet(-polled);
+        if (batch.isEmpty()) {
+            running.set(false);
+            if (!pending.isEmpty()) {
+                tryFlush();
+            }
+            return;
+        }
+        send(batch).subscribe(null, error -> flush(), this::flush);
+    }
+
+    private Mono<Void> send(Map<UUID, String> batch) {
+        String[] payloads = batch.values().stream()
+                .map(payload -> instanceId + "," + payload)
+                .toArray(String[]::new);
+        return databaseClient.sql("SELECT pg_notify('" + CHANNEL + "', payload) FROM unnest(:payloads) AS payload")
+                .bind("payloads", payloads)
+                .then()
+                .doOnError(ex -> logger.error("Notifying {} changes failed: {}", payloads.length, ex.getMessage()));
+    }
+
+    /**
+     * The key is the wallet of a balance change and the hold of a hold announcement.
+     */
+    private record Announcement(UUID key, String payload) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.wallets.stream;
+
+import com.example.wallets.dto.response.WalletResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans balance changes out to stream subscribers. All subscribers of a wallet share one
+ * channel, which exists only while someone listens, so a change costs a map lookup when nobody
+ * does. A subscriber that falls behind keeps only the latest balance instead of a backlog.
+ */
+@Component
+public class BalanceStreamHub {
+
+    private final ConcurrentHashMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final BalanceNotifier notifier;
+
+    public BalanceStreamHub(BalanceNotifier notifier) {
+        this.notifier = notifier;
+    }
+
+    /**
+     * Starts with {@code current}, or with a newer balance the channel already has, and then
+     * emits every change. Versions keep a change that races the subscription from being
+     * followed by the older starting balance.
+     */
+    public Flux<WalletResponse> subscribe(WalletResponse current) {
+        UUID walletId = current.getWalletId();
+        return Flux.defer(() -> {
+            Channel channel = channels.compute(walletId, (id, existing) -> {
+                Channel acquired = existing == null ? new Channel() : existing;
+                acquired.subscribers++;
+                return acquired;
+            });
+            long[] seen = {-1};
+            return Flux.merge(channel.sink.asFlux().onBackpressureLatest(),
+                            Mono.fromSupplier(() -> channel.latest != null ? channel.latest : new Versioned(0, current)))
+                    .filter(versioned -> {
+                        if (versioned.version() <= seen[0]) {
+                            return false;
+                        }
+                        seen[0] = versioned.version();
+                        return true;
+                    })
+                    .map(Versioned::response)
+                    .doFinally(signal -> release(walletId, channel));
+        }).onBackpressureLatest();
+    }
+
+    /**
+     * A change made by this instance: delivered locally and announced to other instances.
+     */
+    public void publish(WalletResponse response) {
+        deliver(response);
+        if (notifier.isEnabled()) {
+            notifier.enqueue(response);
+        }
+    }
+
+    /**
+     * A change to deliver to local subscribers only, such as one announced by another instance.
+     */
+    public void deliver(WalletResponse response) {
+        Channel channel = channels.get(response.getWalletId());
+        if (channel != null) {
+            channel.emit(response);
+        }
+    }
+
+    public int channels() {
+        return channels.size();
+    }
+
+    private void release(UUID walletId, Channel channel) {
+        channels.computeIfPresent(walletId, (id, existing) ->
+                existing != channel || --existing.subscribers > 0 ? existing : null);
+    }
+
+    private record Versioned(long version, WalletResponse response) {
+    }
+
+    /**
+     * Changes from this instance and from other instances arrive on different threads, so one
+     * can overtake another. A change older than the wallet version already emitted is dropped;
+     * a change without a version, from a striped wallet, always goes through.
+     */
+    private static final class Channel {
+        private final Sinks.Many<Versioned> sink = Sinks.many().multicast().directBestEffort();
+        private long version;
+        private long walletVersion = -1;
+        private int subscribers;
+        private volatile Versioned latest;
+
+        private synchronized void emit(WalletResponse response) {
+            Long changed = response.getVersion();
+            if (changed != null) {
+                if (changed <= walletVersion) {
+                    return;
+                }
+                walletVersion = changed;
+            }
+            latest = new Versioned(++version, response);
+            sink.tryEmitNext(latest);
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.wallets.utils;
 
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.TransferRequest;
 import com.example.wallets.dto.request.WalletRequest;
 import com.example.wallets.exceptions.NotValidJsonException;
 
-import java.math.BigDecimal;
-
 import static com.example.wallets.dto.request.OperationType.DEPOSIT;
 import static com.example.wallets.dto.request.OperationType.WITHDRAW;
 
@@ -17,7 +17,7 @@ public class JsonValidator {
     }
 
     public static void checkJsonRequestAmount(WalletRequest request) {
-        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (request.getAmount() == null || !request.getAmount().isPositive()) {
             throw new NotValidJsonException("Invalid JSON: amount must be greater than zero");
         }
     }
@@ -28,4 +28,31 @@ public class JsonValidator {
             throw new NotValidJsonException("Invalid JSON: type must be either DEPOSIT or WITHDRAW");
         }
     }
+
+    public static void checkIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new NotValidJsonException("Invalid JSON: Idempotency-Key must be 1 to 255 characters");
+        }
+    }
+
+    public static void checkTransferRequest(TransferRequest request) {
+        if (request == null || request.getFromWalletId() == null || request.getToWalletId() == null) {
+            throw new NotValidJsonException("Invalid JSON: fromWalletId and toWalletId cannot be null");
+        }
+        if (request.getFromWalletId().equals(request.getToWalletId())) {
+            throw new NotValidJsonException("Invalid JSON: fromWalletId and toWalletId must differ");
+        }
+        if (request.getAmount() == null || !request.getAmount().isPositive()) {
+            throw new NotValidJsonException("Invalid JSON: amount must be greater than zero");
+        }
+    }
+
+    public static void checkHoldRequest(HoldRequest request) {
+        if (request == null || request.getAmount() == null || !request.getAmount().isPositive()) {
+            throw new NotValidJsonException("Invalid JSON: amount must be greater than zero");
+        }
+        if (request.getTtlSeconds() != null && request.getTtlSeconds() <= 0) {
+            throw new NotValidJsonException("Invalid JSON: ttlSeconds must be greater than zero");
+        }
+    }
 }
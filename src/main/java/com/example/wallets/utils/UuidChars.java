@@ -0,0 +1,70 @@
+package com.example.wallets.utils;
+
+import java.util.UUID;
+
+/**
+ * Parses and formats canonical UUID text (8-4-4-4-12 hex digits) directly on character
+ * buffers, for the JSON codecs that avoid intermediate strings.
+ */
+public final class UuidChars {
+
+    public static final int LENGTH = 36;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private UuidChars() {
+    }
+
+    /**
+     * Returns the UUID, or {@code null} when the text is not in canonical form.
+     */
+    public static UUID parse(char[] chars, int offset, int length) {
+        if (length != LENGTH) {
+            return null;
+        }
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            if (isDash(i)) {
+                if (chars[offset + i] != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = Character.digit(chars[offset + i], 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 18) {
+                most = (most << 4) | digit;
+            } else {
+                least = (least << 4) | digit;
+            }
+        }
+        return new UUID(most, least);
+    }
+
+    /**
+     * Writes the canonical lower-case form into the first 36 characters of {@code buffer}.
+     */
+    public static void format(UUID uuid, char[] buffer) {
+        long bits = uuid.getMostSignificantBits();
+        int shift = 60;
+        for (int i = 0; i < LENGTH; i++) {
+            if (isDash(i)) {
+                buffer[i] = '-';
+                continue;
+            }
+            if (i == 19) {
+                bits = uuid.getLeastSignificantBits();
+                shift = 60;
+            }
+            buffer[i] = HEX[(int) (bits >>> shift) & 0xF];
+            shift -= 4;
+        }
+    }
+
+    private static boolean isDash(int position) {
+        return position == 8 || position == 13 || position == 18 || position == 23;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.wallets.admission;
+
+import com.example.wallets.config.AdmissionProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AimdLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    @DisplayName("Requests over the limit are shed until a permit is released")
+    void whenLimitIsReached_thanRequestsAreShed() {
+        AimdLimiter limiter = new AimdLimiter(budget(10));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(10, limiter.getInFlight());
+
+        limiter.releaseWithoutSample();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Fast completions under load grow the limit by about one per limit's worth of requests")
+    void whenFastUnderLoad_thanLimitIncreases() {
+        AimdLimiter limiter = new AimdLimiter(budget(10));
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+        }
+
+        for (int i = 0; i < 11; i++) {
+            limiter.release(FAST);
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertEquals(11, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("A burst of slow requests that were in flight together backs the limit off once")
+    void whenSlowBurst_thanLimitDecreasesOnce() {
+        AimdLimiter limiter = new AimdLimiter(budget(20));
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            limiter.release(SLOW);
+        }
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("A slow request admitted after the last decrease backs the limit off again")
+    void whenSlowAfterDecrease_thanLimitDecreasesAgain() throws InterruptedException {
+        AimdLimiter limiter = new AimdLimiter(budget(20));
+        limiter.tryAcquire();
+        limiter.release(SLOW);
+        assertEquals(10, limiter.getLimit());
+        Thread.sleep(5);
+
+        limiter.tryAcquire();
+        limiter.release(Duration.ofMillis(2).toNanos());
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    private static AdmissionProperties.Budget budget(int initialLimit) {
+        AdmissionProperties.Budget budget = new AdmissionProperties.Budget();
+        budget.setInitialLimit(initialLimit);
+        budget.setMinLimit(5);
+        budget.setMaxLimit(100);
+        budget.setLatencyThreshold(Duration.ofMillis(1));
+        budget.setBackoffRatio(0.5);
+        return budget;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.wallets.benchmark;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.config.JdbcEngineProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.service.JdbcWalletEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The same mix of deposits, withdrawals and lookups against the R2DBC repository and the JDBC
+ * engine, side by side on one Postgres container. Throughput, latency percentiles, peak heap
+ * and peak live threads are printed and written to {@code target/benchmarks/engine-<name>.json}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class EngineComparisonBenchmark extends AbstractPostgresTest {
+
+    private static final int WALLETS = 1000;
+    private static final int OPERATIONS = Integer.getInteger("engine.operations", 50_000);
+    private static final int CONCURRENCY = Integer.getInteger("engine.concurrency", 128);
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Autowired
+    private WalletRepository repository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private UUID[] walletIds;
+
+    @BeforeEach
+    void setUp() {
+        walletIds = new UUID[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds[i] = UUID.randomUUID();
+        }
+        databaseClient.sql("INSERT INTO wallet (wallet_id, balance) SELECT unnest(:walletIds), 1000000")
+                .bind("walletIds", walletIds)
+                .then()
+                .block();
+    }
+
+    @Test
+    @DisplayName("Throughput, latency, heap and threads of the R2DBC and JDBC engines")
+    void compareEngines() throws IOException {
+        JdbcEngineProperties properties = new JdbcEngineProperties();
+        properties.setEnabled(true);
+        properties.setUrl(POSTGRES.getJdbcUrl());
+        properties.setUsername(POSTGRES.getUsername());
+        properties.setPassword(POSTGRES.getPassword());
+        JdbcWalletEngine jdbc = new JdbcWalletEngine(properties, new ShardProperties());
+        try {
+            run("r2dbc", new Engine() {
+                @Override
+                public Mono<Wallet> find(UUID walletId) {
+                    return repository.findByWalletId(walletId);
+                }
+
+                @Override
+                public Mono<Wallet> deposit(UUID walletId) {
+                    return repository.deposit(walletId, AMOUNT);
+                }
+
+                @Override
+                public Mono<Wallet> withdraw(UUID walletId) {
+                    return repository.withdraw(walletId, AMOUNT);
+                }
+            });
+            run("jdbc", new Engine() {
+                @Override
+                public Mono<Wallet> find(UUID walletId) {
+                    return jdbc.find(walletId);
+                }
+
+                @Override
+                public Mono<Wallet> deposit(UUID walletId) {
+                    return jdbc.deposit(walletId, AMOUNT);
+                }
+
+                @Override
+                public Mono<Wallet> withdraw(UUID walletId) {
+                    return jdbc.withdraw(walletId, AMOUNT);
+                }
+            });
+        } finally {
+            jdbc.destroy();
+        }
+    }
+
+    private void run(String name, Engine engine) throws IOException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicInteger peakThreads = new AtomicInteger();
+        Disposable sampler = Flux.interval(Duration.ofMillis(10))
+                .subscribe(tick -> {
+                    peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                });
+        long[] latencies = new long[OPERATIONS];
+        AtomicInteger errors = new AtomicInteger();
+
+        long started = System.nanoTime();
+        try {
+            Flux.range(0, OPERATIONS)
+                    .flatMap(i -> {
+                        UUID walletId = walletIds[ThreadLocalRandom.current().nextInt(WALLETS)];
+                        return Mono.defer(() -> {
+                            long requestStarted = System.nanoTime();
+                            Mono<Wallet> call = i % 4 == 3 ? engine.find(walletId)
+                                    : i % 2 == 0 ? engine.deposit(walletId) : engine.withdraw(walletId);
+                            return call.doOnTerminate(() -> latencies[i] = System.nanoTime() - requestStarted);
+                        }).onErrorResume(ex -> {
+                            errors.incrementAndGet();
+                            return Mono.empty();
+                        });
+                    }, CONCURRENCY)
+                    .blockLast(Duration.ofMinutes(10));
+        } finally {
+            sampler.dispose();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("engine", name);
+        result.put("operations", OPERATIONS);
+        result.put("concurrency", CONCURRENCY);
+        result.put("errors", errors.get());
+        result.put("throughputPerSecond", OPERATIONS / seconds);
+        result.put("p50Micros", percentile(latencies, 0.50));
+        result.put("p99Micros", percentile(latencies, 0.99));
+        result.put("peakHeapMegabytes", peakHeap.get() / (1024 * 1024));
+        result.put("peakThreads", peakThreads.get());
+
+        File output = new File("target/benchmarks/engine-" + name + ".json");
+        output.getParentFile().mkdirs();
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(output, result);
+        System.out.println(mapper.writeValueAsString(result));
+    }
+
+    private static long percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1000;
+    }
+
+    private interface Engine {
+        Mono<Wallet> find(UUID walletId);
+
+        Mono<Wallet> deposit(UUID walletId);
+
+        Mono<Wallet> withdraw(UUID walletId);
+    }
+}
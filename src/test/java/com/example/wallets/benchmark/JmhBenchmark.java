@@ -0,0 +1,38 @@
+package com.example.wallets.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the JMH benchmarks in {@code benchmark.jmh} with the GC profiler and writes the results
+ * as JSON to {@code target/benchmarks/jmh.json}, for comparison between builds.
+ * {@code -Djmh.include=<regex>} narrows the run.
+ */
+@Tag("benchmark")
+public class JmhBenchmark {
+
+    @Test
+    @DisplayName("CPU-side hot path micro-benchmarks")
+    void runJmhBenchmarks() throws RunnerException {
+        new File("target/benchmarks").mkdirs();
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", "com\\.example\\.wallets\\.benchmark\\.jmh\\..*"))
+                .forks(Integer.getInteger("jmh.forks", 1))
+                .warmupIterations(Integer.getInteger("jmh.warmupIterations", 3))
+                .measurementIterations(Integer.getInteger("jmh.measurementIterations", 5))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/benchmarks/jmh.json")
+                .build();
+        new Runner(options).run();
+    }
+}
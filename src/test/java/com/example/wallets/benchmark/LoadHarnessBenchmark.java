@@ -0,0 +1,127 @@
+package com.example.wallets.benchmark;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end load harness: boots the application on a random port against a Postgres
+ * container and drives the HTTP API with a uniform-key and a hot-key mix. Throughput and
+ * latency percentiles are printed and written to {@code target/benchmarks/load-<mix>.json}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LoadHarnessBenchmark extends AbstractPostgresTest {
+
+    private static final int WALLETS = 1000;
+    private static final int OPERATIONS = Integer.getInteger("load.operations", 50_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 128);
+    private static final double HOT_KEY_SHARE = 0.9;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private WebClient client;
+    private UUID[] walletIds;
+
+    @BeforeEach
+    void setUp() {
+        client = WebClient.create("http://localhost:" + port + "/api/v1");
+        walletIds = new UUID[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds[i] = UUID.randomUUID();
+        }
+        databaseClient.sql("INSERT INTO wallet (wallet_id, balance) SELECT unnest(:walletIds), 1000000")
+                .bind("walletIds", walletIds)
+                .then()
+                .block();
+    }
+
+    @Test
+    @DisplayName("Throughput and latency percentiles for uniform and hot-key mixes")
+    void runLoadMixes() throws IOException {
+        run("uniform", () -> walletIds[ThreadLocalRandom.current().nextInt(WALLETS)]);
+        run("hot-key", () -> ThreadLocalRandom.current().nextDouble() < HOT_KEY_SHARE
+                ? walletIds[0]
+                : walletIds[ThreadLocalRandom.current().nextInt(WALLETS)]);
+    }
+
+    private void run(String mix, Supplier<UUID> keys) throws IOException {
+        long[] latencies = new long[OPERATIONS];
+        AtomicInteger errors = new AtomicInteger();
+
+        long started = System.nanoTime();
+        Flux.range(0, OPERATIONS)
+                .flatMap(i -> {
+                    UUID walletId = keys.get();
+                    Mono<WalletResponse> call = i % 4 == 3
+                            ? client.get().uri("/wallets/{walletId}", walletId)
+                                    .retrieve().bodyToMono(WalletResponse.class)
+                            : client.post().uri("/wallet")
+                                    .bodyValue(new WalletRequest(walletId,
+                                            i % 2 == 0 ? OperationType.DEPOSIT : OperationType.WITHDRAW, Money.of(BigDecimal.ONE)))
+                                    .retrieve().bodyToMono(WalletResponse.class);
+                    return Mono.defer(() -> {
+                        long requestStarted = System.nanoTime();
+                        return call.doOnTerminate(() -> latencies[i] = System.nanoTime() - requestStarted);
+                    }).onErrorResume(ex -> {
+                        errors.incrementAndGet();
+                        return Mono.empty();
+                    });
+                }, CONCURRENCY)
+                .blockLast(Duration.ofMinutes(10));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mix", mix);
+        result.put("operations", OPERATIONS);
+        result.put("concurrency", CONCURRENCY);
+        result.put("errors", errors.get());
+        result.put("throughputPerSecond", OPERATIONS / seconds);
+        result.put("p50Micros", percentile(latencies, 0.50));
+        result.put("p99Micros", percentile(latencies, 0.99));
+        result.put("p999Micros", percentile(latencies, 0.999));
+
+        File output = new File("target/benchmarks/load-" + mix + ".json");
+        output.getParentFile().mkdirs();
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(output, result);
+        System.out.println(mapper.writeValueAsString(result));
+    }
+
+    private static long percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1000;
+    }
+}
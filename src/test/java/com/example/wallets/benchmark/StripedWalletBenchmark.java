@@ -0,0 +1,68 @@
+package com.example.wallets.benchmark;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.money.Money;
+import com.example.wallets.service.WalletServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "wallet.cache.enabled=false")
+public class StripedWalletBenchmark extends AbstractPostgresTest {
+
+    private static final int OPERATIONS = 20_000;
+    private static final int CONCURRENCY = 64;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("Throughput on a single hot wallet by slot count")
+    void measureThroughputBySlotCount() {
+        for (int slots : new int[]{0, 2, 4, 8, 16}) {
+            UUID walletId = createWallet(slots);
+
+            long started = System.nanoTime();
+            Flux.range(0, OPERATIONS)
+                    .flatMap(i -> service.createOperationByWallet(new WalletRequest(walletId,
+                            i % 2 == 0 ? OperationType.DEPOSIT : OperationType.WITHDRAW, Money.of(BigDecimal.ONE))), CONCURRENCY)
+                    .blockLast(Duration.ofMinutes(5));
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("striped-wallet slots=%d operations=%d throughput=%.0f ops/s%n",
+                    slots, OPERATIONS, OPERATIONS / seconds);
+            assertEquals(Money.of(INITIAL_BALANCE), service.getWalletByUuid(walletId).block().getAmount());
+        }
+    }
+
+    private UUID createWallet(int slots) {
+        UUID walletId = UUID.randomUUID();
+        databaseClient.sql("INSERT INTO wallet (wallet_id, balance) VALUES (:walletId, :balance)")
+                .bind("walletId", walletId)
+                .bind("balance", INITIAL_BALANCE)
+                .then()
+                .block();
+        if (slots > 0) {
+            service.enableStriping(walletId, slots).block();
+        }
+        return walletId;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.wallets.benchmark.jmh;
+
+import com.example.wallets.codec.WalletCbor;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The operation request and balance response through the JSON and CBOR codecs. Encoded sizes
+ * are written to {@code target/benchmarks/payload-sizes.json}, since JMH only measures time
+ * and allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CborCodecBenchmarks {
+
+    private ObjectReader jsonRequestReader;
+    private ObjectWriter jsonRequestWriter;
+    private ObjectReader jsonResponseReader;
+    private ObjectWriter jsonResponseWriter;
+    private WalletRequest request;
+    private WalletResponse response;
+    private byte[] jsonRequest;
+    private byte[] jsonResponse;
+    private byte[] cborRequest;
+    private byte[] cborResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        jsonRequestReader = mapper.readerFor(WalletRequest.class);
+        jsonRequestWriter = mapper.writerFor(WalletRequest.class);
+        jsonResponseReader = mapper.readerFor(WalletResponse.class);
+        jsonResponseWriter = mapper.writerFor(WalletResponse.class);
+        UUID walletId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        request = new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("1000.5"));
+        response = new WalletResponse(walletId, Money.of("12345.5"));
+        jsonRequest = jsonRequestWriter.writeValueAsBytes(request);
+        jsonResponse = jsonResponseWriter.writeValueAsBytes(response);
+        cborRequest = WalletCbor.encode(request);
+        cborResponse = WalletCbor.encode(response);
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("jsonRequestBytes", jsonRequest.length);
+        sizes.put("cborRequestBytes", cborRequest.length);
+        sizes.put("jsonResponseBytes", jsonResponse.length);
+        sizes.put("cborResponseBytes", cborResponse.length);
+        File output = new File("target/benchmarks/payload-sizes.json");
+        output.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, sizes);
+    }
+
+    @Benchmark
+    public WalletRequest decodeRequestJson() throws IOException {
+        return jsonRequestReader.readValue(jsonRequest);
+    }
+
+    @Benchmark
+    public WalletRequest decodeRequestCbor() {
+        return WalletCbor.decode(cborRequest, WalletRequest.class);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestJson() throws IOException {
+        return jsonRequestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestCbor() {
+        return WalletCbor.encode(request);
+    }
+
+    @Benchmark
+    public WalletResponse decodeResponseJson() throws IOException {
+        return jsonResponseReader.readValue(jsonResponse);
+    }
+
+    @Benchmark
+    public WalletResponse decodeResponseCbor() {
+        return WalletCbor.decode(cborResponse, WalletResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encodeResponseJson() throws IOException {
+        return jsonResponseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] encodeResponseCbor() {
+        return WalletCbor.encode(response);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.wallets.benchmark.jmh;
+
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON codecs for the operation endpoint. The {@code legacy} variants bind the same JSON to
+ * plain {@code BigDecimal} beans, as the DTOs were before the streaming codecs, so the GC
+ * profiler's {@code gc.alloc.rate.norm} shows allocation per request before and after.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonCodecBenchmarks {
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectReader legacyRequestReader;
+    private ObjectWriter legacyResponseWriter;
+    private byte[] requestJson;
+    private WalletResponse response;
+    private LegacyWalletResponse legacyResponse;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = mapper.readerFor(WalletRequest.class);
+        responseWriter = mapper.writerFor(WalletResponse.class);
+        legacyRequestReader = mapper.readerFor(LegacyWalletRequest.class);
+        legacyResponseWriter = mapper.writerFor(LegacyWalletResponse.class);
+        UUID walletId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        requestJson = ("{\"walletId\":\"" + walletId + "\",\"type\":\"DEPOSIT\",\"amount\":1000.50}")
+                .getBytes(StandardCharsets.UTF_8);
+        response = new WalletResponse(walletId, Money.of("12345.5"));
+        legacyResponse = new LegacyWalletResponse();
+        legacyResponse.setWalletId(walletId);
+        legacyResponse.setAmount(new BigDecimal("12345.5"));
+    }
+
+    @Benchmark
+    public WalletRequest deserializeRequest() throws Exception {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public LegacyWalletRequest deserializeRequestLegacy() throws Exception {
+        return legacyRequestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseLegacy() throws Exception {
+        return legacyResponseWriter.writeValueAsBytes(legacyResponse);
+    }
+
+    public static class LegacyWalletRequest {
+        private UUID walletId;
+        private OperationType type;
+        private BigDecimal amount;
+
+        public UUID getWalletId() {
+            return walletId;
+        }
+
+        public void setWalletId(UUID walletId) {
+            this.walletId = walletId;
+        }
+
+        public OperationType getType() {
+            return type;
+        }
+
+        public void setType(OperationType type) {
+            this.type = type;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    public static class LegacyWalletResponse {
+        private UUID walletId;
+        private BigDecimal amount;
+
+        public UUID getWalletId() {
+            return walletId;
+        }
+
+        public void setWalletId(UUID walletId) {
+            this.walletId = walletId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
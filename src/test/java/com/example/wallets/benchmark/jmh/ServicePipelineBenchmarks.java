@@ -0,0 +1,87 @@
+package com.example.wallets.benchmark.jmh;
+
+import com.example.wallets.config.IdempotencyProperties;
+import com.example.wallets.config.JdbcEngineProperties;
+import com.example.wallets.config.LedgerProperties;
+import com.example.wallets.config.LookupProperties;
+import com.example.wallets.config.MetricsProperties;
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.config.WalletCacheProperties;
+import com.example.wallets.config.WalletOperationProperties;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.metrics.WalletMetrics;
+import com.example.wallets.money.Money;
+import com.example.wallets.replica.ReplicaRouting;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.stream.BalanceNotifier;
+import com.example.wallets.stream.BalanceStreamHub;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The WalletServiceImpl operation and read pipelines against stub repositories: validation,
+ * routing, Reactor assembly and response mapping, without I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServicePipelineBenchmarks {
+
+    private WalletServiceImpl service;
+    private WalletRequest deposit;
+    private WalletRequest withdraw;
+    private UUID walletId;
+
+    @Setup
+    public void setUp() {
+        WalletRepository wallets = StubRepositories.wallets();
+        WalletCacheProperties cacheProperties = new WalletCacheProperties();
+        cacheProperties.setEnabled(false);
+        WalletOperationProperties operationProperties = new WalletOperationProperties();
+        ReplicaRouting routing = new ReplicaRouting(new ReplicaProperties());
+        ShardRouting shards = new ShardRouting(new ShardProperties(), new ReplicaProperties(), null);
+        LedgerWriter ledger = new LedgerWriter(StubRepositories.operations(), new LedgerProperties(), shards);
+        StripedWalletOperations striped = new StripedWalletOperations(wallets);
+        WalletBatchExecutor executor = new WalletBatchExecutor(wallets, null, ledger, shards);
+        service = new WalletServiceImpl(wallets, striped,
+                new WalletOperationBatcher(executor, operationProperties), executor, operationProperties,
+                new WalletBalanceCache(cacheProperties),
+                new IdempotentOperations(wallets, StubRepositories.idempotencyKeys(), striped, ledger, null,
+                        new IdempotencyProperties()),
+                ledger, StubRepositories.operations(),
+                new WalletMetrics(new SimpleMeterRegistry(), new MetricsProperties()), null,
+                new WalletLookupCoalescer(wallets, new LookupProperties(), routing, shards), new LookupProperties(),
+                routing, new BalanceStreamHub(new BalanceNotifier(null, new StreamProperties())), shards,
+                new JdbcWalletEngine(new JdbcEngineProperties(), new ShardProperties()), null, null,
+                Jackson2ObjectMapperBuilder.json().build());
+
+        walletId = UUID.randomUUID();
+        deposit = new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("10.5"));
+        withdraw = new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("10.5"));
+    }
+
+    @Benchmark
+    public WalletResponse depositPipeline() {
+        return service.createOperationByWallet(deposit).block();
+    }
+
+    @Benchmark
+    public WalletResponse withdrawPipeline() {
+        return service.createOperationByWallet(withdraw).block();
+    }
+
+    @Benchmark
+    public WalletResponse readPipeline() {
+        return service.getWalletByUuid(walletId).block();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.wallets.benchmark.jmh;
+
+import com.example.wallets.model.Wallet;
+import com.example.wallets.repository.IdempotencyKeyRepository;
+import com.example.wallets.repository.WalletOperationRepository;
+import com.example.wallets.repository.WalletRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * In-memory stand-ins for the repositories, so the service pipeline can be measured without
+ * a database. Only the methods on the operation path are answered.
+ */
+final class StubRepositories {
+
+    private StubRepositories() {
+    }
+
+    static WalletRepository wallets() {
+        return (WalletRepository) Proxy.newProxyInstance(WalletRepository.class.getClassLoader(),
+                new Class<?>[]{WalletRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "deposit", "withdraw" -> Mono.just(wallet((UUID) args[0], (BigDecimal) args[1]));
+                    case "findByWalletId" -> Mono.just(wallet((UUID) args[0], BigDecimal.TEN));
+                    case "findAllByWalletIds" -> Flux.fromArray((UUID[]) args[0])
+                            .map(walletId -> wallet(walletId, BigDecimal.TEN));
+                    case "findSlotsByWalletId" -> Mono.just(0);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubWalletRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static WalletOperationRepository operations() {
+        return (WalletOperationRepository) Proxy.newProxyInstance(WalletOperationRepository.class.getClassLoader(),
+                new Class<?>[]{WalletOperationRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "insertAll" -> Mono.just(((Object[]) args[0]).length);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubWalletOperationRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static IdempotencyKeyRepository idempotencyKeys() {
+        return (IdempotencyKeyRepository) Proxy.newProxyInstance(IdempotencyKeyRepository.class.getClassLoader(),
+                new Class<?>[]{IdempotencyKeyRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubIdempotencyKeyRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Wallet wallet(UUID walletId, BigDecimal balance) {
+        Wallet wallet = new Wallet();
+        wallet.setWalletId(walletId);
+        wallet.setBalance(balance);
+        wallet.setSlots(0);
+        return wallet;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.wallets.benchmark.jmh;
+
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.money.Money;
+import com.example.wallets.utils.JsonValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request validation and balance arithmetic. The {@code BigDecimal} variants are the
+ * representation used before {@link Money}, kept as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationAndArithmeticBenchmarks {
+
+    private WalletRequest request;
+    private BigDecimal balance;
+    private BigDecimal amount;
+    private Money moneyBalance;
+    private Money moneyAmount;
+
+    @Setup
+    public void setUp() {
+        request = new WalletRequest(UUID.randomUUID(), OperationType.WITHDRAW, Money.of("1000.5"));
+        balance = new BigDecimal("123456789.5");
+        amount = new BigDecimal("1000.5");
+        moneyBalance = Money.of(balance);
+        moneyAmount = Money.of(amount);
+    }
+
+    @Benchmark
+    public WalletRequest validateRequest() {
+        JsonValidator.checkJsonRequestNotNull(request);
+        JsonValidator.checkJsonRequestAmount(request);
+        JsonValidator.checkJsonRequestType(request);
+        return request;
+    }
+
+    @Benchmark
+    public BigDecimal deposit() {
+        return balance.add(amount);
+    }
+
+    @Benchmark
+    public BigDecimal withdrawWithFundsCheck() {
+        return balance.compareTo(amount) >= 0 ? balance.subtract(amount) : balance;
+    }
+
+    @Benchmark
+    public Money depositMoney() {
+        return moneyBalance.plus(moneyAmount);
+    }
+
+    @Benchmark
+    public Money withdrawWithFundsCheckMoney() {
+        return moneyBalance.compareTo(moneyAmount) >= 0 ? moneyBalance.minus(moneyAmount) : moneyBalance;
+    }
+}
@@ -1,35 +1,57 @@
 package com.example.wallets.controller;
 
+import com.example.wallets.admission.AdmissionControl;
+import com.example.wallets.codec.WalletCbor;
+import com.example.wallets.config.AdmissionProperties;
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.TransferRequest;
 import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.HoldResponse;
+import com.example.wallets.dto.response.ProvisioningResponse;
+import com.example.wallets.dto.response.WalletOperationPage;
+import com.example.wallets.dto.response.WalletOperationResponse;
+import com.example.wallets.dto.response.TransferResponse;
+import com.example.wallets.dto.response.WalletOperationResult;
 import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.HoldNotFoundException;
 import com.example.wallets.exceptions.InsufficientFundsException;
 import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.exceptions.TooManyRequestsException;
 import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.exceptions.response.ErrorResponse;
+import com.example.wallets.money.Money;
+import com.example.wallets.service.WalletExporter;
 import com.example.wallets.service.WalletServiceImpl;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
-import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-
-@WebMvcTest(WalletController.class)
+@WebFluxTest(WalletController.class)
+@Import(AdmissionControl.class)
+@EnableConfigurationProperties({AdmissionProperties.class, StreamProperties.class})
 public class WalletControllerTest {
 
     @Autowired
-    private MockMvc mockMvc;
+    private WebTestClient webTestClient;
 
     @MockitoBean
     private WalletServiceImpl service;
@@ -42,39 +64,41 @@ public class WalletControllerTest {
     public void setUp() {
         walletId = UUID.randomUUID();
         amount = BigDecimal.valueOf(1000.00);
-        getResponse = new WalletResponse(walletId, amount);
+        getResponse = new WalletResponse(walletId, Money.of(amount));
     }
 
     @Test
     @DisplayName("Checking if a response with wallet information has been received")
-    void whenGetWalletByUuid_thanReturnWalletResponse() throws Exception {
+    void whenGetWalletByUuid_thanReturnWalletResponse() {
         Mockito.when(service.getWalletByUuid(walletId)).thenReturn(Mono.just(getResponse));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/wallets/{walletId}", walletId)
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.walletId").value(walletId.toString()))
-                .andExpect(jsonPath("$.amount").value(1000.00));
+        webTestClient.get().uri("/api/v1/wallets/{walletId}", walletId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.walletId").isEqualTo(walletId.toString())
+                .jsonPath("$.amount").isEqualTo(1000.00);
     }
 
     @Test
     @DisplayName("Throw exception when passing an unknown UUID")
-    void whenGetWalletByUuid_thanThrowException() throws Exception {
+    void whenGetWalletByUuid_thanThrowException() {
         Mockito.when(service.getWalletByUuid(walletId))
                 .thenThrow(new WalletNotFoundException("Wallet not found with id: " + walletId));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/wallets/{walletId}", walletId)
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andDo(print())
-                .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.error").value("Wallet not found"))
-                .andExpect(jsonPath("$.message").value("Wallet not found with id: " + walletId));
+        webTestClient.get().uri("/api/v1/wallets/{walletId}", walletId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Wallet not found")
+                .jsonPath("$.message").isEqualTo("Wallet not found with id: " + walletId);
     }
 
     @Test
     @DisplayName("Throw exception when invalid type in JSON request")
-    void whenPostWalletOperationWithFailedTypeInJson_thanThrowException() throws Exception {
+    void whenPostWalletOperationWithFailedTypeInJson_thanThrowException() {
         String jsonNotValidType = "{\"walletId\":\"" + walletId + "\"," +
                 "\"amount\":1000.00," +
                 "\"type\":null}";
@@ -82,18 +106,19 @@ public class WalletControllerTest {
         Mockito.when(service.createOperationByWallet(Mockito.any(WalletRequest.class)))
                 .thenThrow(new NotValidJsonException("Invalid JSON: type must be either DEPOSIT or WITHDRAW"));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/wallet")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonNotValidType))
-                .andDo(print())
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.error").value("Invalid JSON"))
-                .andExpect(jsonPath("$.message").value("Invalid JSON: type must be either DEPOSIT or WITHDRAW"));
+        webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonNotValidType)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid JSON")
+                .jsonPath("$.message").isEqualTo("Invalid JSON: type must be either DEPOSIT or WITHDRAW");
     }
 
     @Test
     @DisplayName("Throw exception when invalid amount in JSON request")
-    void whenPostWalletOperationWithFailedAmountInJson_thanThrowException() throws Exception {
+    void whenPostWalletOperationWithFailedAmountInJson_thanThrowException() {
         String jsonNotValidAmount = "{\"walletId\":\"" + walletId + "\"," +
                 "\"amount\":0," +
                 "\"type\":\"DEPOSIT\"}";
@@ -101,18 +126,19 @@ public class WalletControllerTest {
         Mockito.when(service.createOperationByWallet(Mockito.any(WalletRequest.class)))
                 .thenThrow(new NotValidJsonException("Invalid JSON: amount must be greater than zero"));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/wallet")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonNotValidAmount))
-                .andDo(print())
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.error").value("Invalid JSON"))
-                .andExpect(jsonPath("$.message").value("Invalid JSON: amount must be greater than zero"));
+        webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonNotValidAmount)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid JSON")
+                .jsonPath("$.message").isEqualTo("Invalid JSON: amount must be greater than zero");
     }
 
     @Test
     @DisplayName("Throw exception when invalid wallet ID in JSON request")
-    void whenPostWalletOperationWithFailedWalletIdInJson_thanThrowException() throws Exception {
+    void whenPostWalletOperationWithFailedWalletIdInJson_thanThrowException() {
         String jsonNotValidWalledId = "{\"walletId\":null," +
                 "\"amount\":1000.00," +
                 "\"type\":\"DEPOSIT\"}";
@@ -120,18 +146,19 @@ public class WalletControllerTest {
         Mockito.when(service.createOperationByWallet(Mockito.any(WalletRequest.class)))
                 .thenThrow(new NotValidJsonException("Invalid JSON: walletId cannot be null"));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/wallet")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonNotValidWalledId))
-                .andDo(print())
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.error").value("Invalid JSON"))
-                .andExpect(jsonPath("$.message").value("Invalid JSON: walletId cannot be null"));
+        webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonNotValidWalledId)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid JSON")
+                .jsonPath("$.message").isEqualTo("Invalid JSON: walletId cannot be null");
     }
 
     @Test
     @DisplayName("Checking not enough founds for transaction")
-    void whenPostWalletOperationNotEnoughFounds_thanReturnException() throws Exception {
+    void whenPostWalletOperationNotEnoughFounds_thanReturnException() {
         String jsonRequest = "{\"walletId\":\"" + walletId + "\"," +
                 "\"amount\":1000.00," +
                 "\"type\":\"WITHDRAW\"}";
@@ -139,12 +166,293 @@ public class WalletControllerTest {
         Mockito.when(service.createOperationByWallet(Mockito.any(WalletRequest.class)))
                 .thenThrow(new InsufficientFundsException("Not enough funds for this transaction"));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/wallet")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(jsonRequest))
-                .andDo(print())
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.error").value("Not enough funds for this transaction"))
-                .andExpect(jsonPath("$.message").value("Not enough funds for this transaction"));
+        webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonRequest)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Not enough funds for this transaction")
+                .jsonPath("$.message").isEqualTo("Not enough funds for this transaction");
+    }
+
+    @Test
+    @DisplayName("Operation with Idempotency-Key header is passed to the keyed service call")
+    void whenPostWalletOperationWithIdempotencyKey_thanReturnWalletResponse() {
+        String jsonRequest = "{\"walletId\":\"" + walletId + "\"," +
+                "\"amount\":1000.00," +
+                "\"type\":\"DEPOSIT\"}";
+
+        Mockito.when(service.createOperationByWallet(Mockito.any(WalletRequest.class), Mockito.eq("retry-1")))
+                .thenReturn(Mono.just(getResponse));
+
+        webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "retry-1")
+                .bodyValue(jsonRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.walletId").isEqualTo(walletId.toString())
+                .jsonPath("$.amount").isEqualTo(1000.00);
+    }
+
+    @Test
+    @DisplayName("Streaming operations return one NDJSON result per item, errors included")
+    void whenPostWalletOperationsAsNdjson_thanStreamResultPerItem() {
+        String ndjson = "{\"walletId\":\"" + walletId + "\",\"amount\":10.00,\"type\":\"DEPOSIT\"}\n" +
+                "{\"walletId\":\"" + walletId + "\",\"amount\":0,\"type\":\"WITHDRAW\"}\n";
+
+        Mockito.when(service.createOperationsByWalletLines(Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                        .map(line -> line.contains("\"amount\":0,")
+                                ? WalletOperationResult.failure(walletId,
+                                        new NotValidJsonException("Invalid JSON: amount must be greater than zero"))
+                                : WalletOperationResult.success(getResponse)));
+
+        webTestClient.post().uri("/api/v1/wallets/operations")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(WalletOperationResult.class)
+                .value(results -> {
+                    Assertions.assertEquals(2, results.size());
+                    Assertions.assertEquals(Money.of(amount), results.get(0).getAmount());
+                    Assertions.assertEquals("Invalid JSON", results.get(1).getError());
+                });
+    }
+
+    @Test
+    @DisplayName("Operations page is returned with the keyset cursor for the next page")
+    void whenGetWalletOperations_thanReturnPageWithCursor() {
+        WalletOperationResponse operation = new WalletOperationResponse(42L, walletId, OperationType.DEPOSIT,
+                amount, amount, Instant.parse("2024-01-01T00:00:00Z"));
+        Mockito.when(service.getOperationsByWallet(walletId, 100L, 1))
+                .thenReturn(Mono.just(new WalletOperationPage(List.of(operation), 42L)));
+
+        webTestClient.get().uri("/api/v1/wallets/{walletId}/operations?before=100&limit=1", walletId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.operations[0].id").isEqualTo(42)
+                .jsonPath("$.operations[0].type").isEqualTo("DEPOSIT")
+                .jsonPath("$.nextBefore").isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Shed operation returns 429 with Retry-After")
+    void whenPostWalletOperationIsShed_thanReturnTooManyRequests() {
+        String jsonRequest = "{\"walletId\":\"" + walletId + "\"," +
+                "\"amount\":1000.00," +
+                "\"type\":\"DEPOSIT\"}";
+
+        Mockito.when(service.createOperationByWallet(Mockito.any(WalletRequest.class)))
+                .thenReturn(Mono.error(new TooManyRequestsException("Too many concurrent operations", 2)));
+
+        webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonRequest)
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "2")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Too many requests")
+                .jsonPath("$.message").isEqualTo("Too many concurrent operations");
+    }
+
+    @Test
+    @DisplayName("Transfer returns the balances of both wallets")
+    void whenPostTransfer_thanReturnBothBalances() {
+        UUID toWalletId = UUID.randomUUID();
+        String jsonRequest = "{\"fromWalletId\":\"" + walletId + "\"," +
+                "\"toWalletId\":\"" + toWalletId + "\"," +
+                "\"amount\":250.00}";
+
+        Mockito.when(service.transfer(Mockito.argThat((TransferRequest request) ->
+                        walletId.equals(request.getFromWalletId())
+                                && toWalletId.equals(request.getToWalletId())
+                                && Money.of("250.00").equals(request.getAmount()))))
+                .thenReturn(Mono.just(new TransferResponse(
+                        new WalletResponse(walletId, Money.of("750.00")),
+                        new WalletResponse(toWalletId, Money.of("250.00")))));
+
+        webTestClient.post().uri("/api/v1/wallets/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(jsonRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.from.walletId").isEqualTo(walletId.toString())
+                .jsonPath("$.from.amount").isEqualTo(750.00)
+                .jsonPath("$.to.walletId").isEqualTo(toWalletId.toString())
+                .jsonPath("$.to.amount").isEqualTo(250.00);
+    }
+
+    @Test
+    @DisplayName("Transfer without a body is rejected with a bad request")
+    void whenPostTransferWithoutBody_thanReturnBadRequest() {
+        Mockito.when(service.transfer(Mockito.isNull()))
+                .thenReturn(Mono.error(new NotValidJsonException("Invalid JSON: fromWalletId and toWalletId cannot be null")));
+
+        webTestClient.post().uri("/api/v1/wallets/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid JSON: fromWalletId and toWalletId cannot be null");
+    }
+
+    @Test
+    @DisplayName("Export streams CSV with a header and the updatedSince filter")
+    void whenGetExportAsCsv_thanStreamCsvLines() {
+        Instant updatedSince = Instant.parse("2024-01-01T00:00:00Z");
+        Mockito.when(service.exportWallets(WalletExporter.Format.CSV, updatedSince))
+                .thenReturn(Flux.just("walletId,amount,updatedAt\n",
+                        walletId + ",1000.0,2024-01-02T00:00:00Z\n"));
+
+        webTestClient.get().uri("/api/v1/wallets/export?format=CSV&updatedSince=2024-01-01T00:00:00Z")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class)
+                .isEqualTo("walletId,amount,updatedAt\n" + walletId + ",1000.0,2024-01-02T00:00:00Z\n");
+    }
+
+    @Test
+    @DisplayName("Balances of several wallets are returned in one response")
+    void whenPostWalletBalances_thanReturnFoundWallets() {
+        UUID otherWalletId = UUID.randomUUID();
+        Mockito.when(service.getWalletsByUuids(List.of(walletId, otherWalletId)))
+                .thenReturn(Flux.just(getResponse));
+
+        webTestClient.post().uri("/api/v1/wallets/balances")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[\"" + walletId + "\",\"" + otherWalletId + "\"]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].walletId").isEqualTo(walletId.toString())
+                .jsonPath("$[0].amount").isEqualTo(1000.00);
+    }
+
+    @Test
+    @DisplayName("Balance stream sends the balance as a server-sent event")
+    void whenGetWalletStream_thanReceiveBalanceEvent() {
+        Mockito.when(service.streamWallet(walletId)).thenReturn(Flux.just(getResponse));
+
+        List<String> events = webTestClient.get().uri("/api/v1/wallets/{walletId}/stream", walletId)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .take(1)
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(List.of("{\"walletId\":\"" + walletId + "\",\"amount\":1000.0}"), events);
+    }
+
+    @Test
+    @DisplayName("CBOR requests and responses are negotiated, JSON stays the default")
+    void whenPostWalletOperationAsCbor_thanReturnCborResponse() {
+        WalletRequest request = new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("1000.0"));
+        Mockito.when(service.createOperationByWallet(Mockito.argThat((WalletRequest decoded) ->
+                        walletId.equals(decoded.getWalletId())
+                                && decoded.getType() == OperationType.DEPOSIT
+                                && Money.of("1000.0").equals(decoded.getAmount()))))
+                .thenReturn(Mono.just(getResponse));
+        Mockito.when(service.getWalletByUuid(walletId)).thenReturn(Mono.just(getResponse));
+
+        byte[] body = webTestClient.post().uri("/api/v1/wallet")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(WalletCbor.encode(request))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        WalletResponse response = WalletCbor.decode(body, WalletResponse.class);
+        Assertions.assertEquals(walletId, response.getWalletId());
+        Assertions.assertEquals(Money.of(amount), response.getAmount());
+
+        webTestClient.get().uri("/api/v1/wallets/{walletId}", walletId)
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.walletId").isEqualTo(walletId.toString());
+    }
+
+    @Test
+    @DisplayName("Errors are encoded as CBOR when the client accepts only CBOR")
+    void whenGetWalletByUuidAsCbor_thanReturnCborError() {
+        Mockito.when(service.getWalletByUuid(walletId))
+                .thenThrow(new WalletNotFoundException("Wallet not found with id: " + walletId));
+
+        byte[] body = webTestClient.get().uri("/api/v1/wallets/{walletId}", walletId)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        ErrorResponse error = WalletCbor.decode(body, ErrorResponse.class);
+        Assertions.assertEquals("Wallet not found", error.getError());
+        Assertions.assertEquals("Wallet not found with id: " + walletId, error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Generated provisioning passes the count and balance range and reports the rate")
+    void whenPostProvisionWithCount_thanReturnProvisioningReport() {
+        Mockito.when(service.provisionWallets(1000L, Money.of("10"), Money.of("20")))
+                .thenReturn(Mono.just(new ProvisioningResponse(1000, 5, 200000.0, "copy")));
+
+        webTestClient.post().uri("/api/v1/wallets/provision?count=1000&minBalance=10&maxBalance=20")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.wallets").isEqualTo(1000)
+                .jsonPath("$.rowsPerSecond").isEqualTo(200000.0)
+                .jsonPath("$.method").isEqualTo("copy");
+    }
+
+    @Test
+    @DisplayName("A hold reports the reduced available balance, and capturing an unknown hold is not found")
+    void whenPostHoldAndCaptureUnknownHold_thanReturnHoldAndNotFound() {
+        UUID holdId = UUID.randomUUID();
+        Instant expiresAt = Instant.parse("2026-01-01T00:15:00Z");
+        Mockito.when(service.placeHold(Mockito.eq(walletId), Mockito.any(HoldRequest.class)))
+                .thenReturn(Mono.just(new HoldResponse(holdId, walletId, OperationType.HOLD, Money.of("250"),
+                        expiresAt, Money.of(amount), Money.of("750"))));
+        Mockito.when(service.captureHold(Mockito.eq(walletId), Mockito.eq(holdId), Mockito.isNull()))
+                .thenReturn(Mono.error(new HoldNotFoundException("Hold not found with id: " + holdId)));
+
+        webTestClient.post().uri("/api/v1/wallets/{walletId}/holds", walletId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\":250,\"ttlSeconds\":900}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.holdId").isEqualTo(holdId.toString())
+                .jsonPath("$.type").isEqualTo("HOLD")
+                .jsonPath("$.expiresAt").isEqualTo("2026-01-01T00:15:00Z")
+                .jsonPath("$.balance").isEqualTo(1000.0)
+                .jsonPath("$.available").isEqualTo(750.0);
+
+        webTestClient.post().uri("/api/v1/wallets/{walletId}/holds/{holdId}/capture", walletId, holdId)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Hold not found");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package com.example.wallets.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    @DisplayName("Counts from many threads are merged exactly while every wallet fits")
+    void whenConcurrentOffers_thanMergedCountsAreExact() throws InterruptedException {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8, 4);
+        UUID[] walletIds = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+        int threads = 8;
+        int offers = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < offers; i++) {
+                    sketch.offer(walletIds[i % walletIds.length]);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        List<SpaceSavingSketch.HotWallet> top = sketch.top();
+        assertEquals(walletIds.length, top.size());
+        for (SpaceSavingSketch.HotWallet wallet : top) {
+            assertEquals((long) threads * offers / walletIds.length, wallet.count());
+            assertEquals(0, wallet.maxOverestimate());
+        }
+    }
+
+    @Test
+    @DisplayName("A heavy hitter stays on top under eviction, and its overestimate bounds the error")
+    void whenManyDistinctWallets_thanHeavyHitterIsReportedWithinBound() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4, 1);
+        UUID hot = UUID.randomUUID();
+        for (int i = 0; i < 2000; i++) {
+            sketch.offer(hot);
+            sketch.offer(UUID.randomUUID());
+        }
+
+        SpaceSavingSketch.HotWallet top = sketch.top().get(0);
+        assertEquals(hot, top.walletId());
+        assertTrue(top.count() >= 2000);
+        assertTrue(top.count() - top.maxOverestimate() <= 2000);
+        assertEquals(4, sketch.top().size());
+    }
+
+    @Test
+    @DisplayName("Decay halves every count")
+    void whenDecayed_thanCountsAreHalved() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4, 2);
+        UUID walletId = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            sketch.offer(walletId);
+        }
+
+        sketch.decay();
+
+        assertEquals(5, sketch.top().get(0).count());
+    }
+}
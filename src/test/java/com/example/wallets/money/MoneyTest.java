@@ -0,0 +1,53 @@
+package com.example.wallets.money;
+
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    @DisplayName("Plain decimals parse to minor units, rounding half-up like decimal(20,1)")
+    void whenParsePlainDecimal_thanMinorUnitsMatchBigDecimal() {
+        for (String text : new String[]{"0", "1", "10.5", "1000.00", "10.55", "10.54", "-3.25", "0.05", "123456789.99"}) {
+            char[] chars = text.toCharArray();
+            assertEquals(Money.of(new BigDecimal(text)), Money.parse(chars, 0, chars.length), text);
+        }
+        assertEquals("10.6", Money.of("10.55").toString());
+        assertEquals("-0.5", Money.ofMinorUnits(-5).toString());
+    }
+
+    @Test
+    @DisplayName("Overflow is reported instead of wrapping")
+    void whenAmountOutOfRange_thanThrowArithmeticException() {
+        char[] chars = "9223372036854775808".toCharArray();
+        assertThrows(ArithmeticException.class, () -> Money.parse(chars, 0, chars.length));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinorUnits(Long.MAX_VALUE).plus(Money.ofMinorUnits(1)));
+    }
+
+    @Test
+    @DisplayName("JSON format of requests and responses is unchanged")
+    void whenRoundTripJson_thanFormatIsUnchanged() throws Exception {
+        UUID walletId = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        WalletRequest request = mapper.readValue("{\"walletId\":\"" + walletId + "\",\"extra\":[1,{\"a\":2}]," +
+                "\"type\":\"WITHDRAW\",\"amount\":1.5e2}", WalletRequest.class);
+
+        assertEquals(walletId, request.getWalletId());
+        assertEquals(OperationType.WITHDRAW, request.getType());
+        assertEquals(Money.of("150"), request.getAmount());
+        assertEquals("{\"walletId\":\"" + walletId + "\",\"amount\":12345.5}",
+                mapper.writeValueAsString(new WalletResponse(walletId, Money.of("12345.5"))));
+    }
+}
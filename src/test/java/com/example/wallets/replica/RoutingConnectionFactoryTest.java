@@ -0,0 +1,40 @@
+package com.example.wallets.replica;
+
+import com.example.wallets.config.ReplicaProperties;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RoutingConnectionFactoryTest {
+
+    @Test
+    @DisplayName("A read routed to an unreachable replica falls back to the primary")
+    void whenReplicaRefusesConnections_thanReadUsesPrimary() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(true);
+        properties.setUrl("r2dbc:postgresql://localhost:1/wallet");
+        properties.setUsername("wallet");
+        ReplicaRouting routing = new ReplicaRouting(properties);
+        Connection primaryConnection = Mockito.mock(Connection.class);
+        ConnectionFactory primary = Mockito.mock(ConnectionFactory.class);
+        Mockito.doReturn(Mono.just(primaryConnection)).when(primary).create();
+
+        try {
+            Connection connection = Mono.<Connection>from(new RoutingConnectionFactory(primary, routing).create())
+                    .contextWrite(Context.of(ReplicaRouting.READ_FROM_REPLICA, Boolean.TRUE))
+                    .block(Duration.ofSeconds(10));
+
+            assertSame(primaryConnection, connection);
+        } finally {
+            routing.destroy();
+        }
+    }
+}
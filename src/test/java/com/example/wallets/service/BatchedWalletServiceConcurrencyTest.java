@@ -0,0 +1,8 @@
+package com.example.wallets.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"wallet.operations.mode=batched", "wallet.cache.enabled=false"})
+public class BatchedWalletServiceConcurrencyTest extends WalletServiceConcurrencyTest {
+}
@@ -0,0 +1,53 @@
+package com.example.wallets.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedTimingWheelTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    @DisplayName("Entries fall due on the first tick at or after their deadline, overdue ones on the next tick")
+    void whenWheelAdvances_thanEntriesFallDueInDeadlineOrder() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(Duration.ofSeconds(1), 8, START);
+        assertTrue(wheel.add(START.plusMillis(2500), "late"));
+        assertTrue(wheel.add(START.plusSeconds(1), "early"));
+        assertTrue(wheel.add(START.minusSeconds(30), "overdue"));
+        List<String> due = new ArrayList<>();
+
+        wheel.advance(START.plusMillis(1999), due::add);
+        assertEquals(List.of("early", "overdue"), due);
+        wheel.advance(START.plusMillis(2999), due::add);
+        assertEquals(List.of("early", "overdue"), due);
+        wheel.advance(START.plusSeconds(3), due::add);
+        assertEquals(List.of("early", "overdue", "late"), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Deadlines beyond one rotation are refused until the wheel has turned far enough")
+    void whenDeadlineBeyondHorizon_thanRefusedUntilInRange() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(Duration.ofSeconds(1), 5, START);
+        assertEquals(START.plusSeconds(8), wheel.horizon());
+        assertTrue(wheel.add(START.plusSeconds(8), "last"));
+        assertFalse(wheel.add(START.plusSeconds(9), "next rotation"));
+        List<String> due = new ArrayList<>();
+
+        wheel.advance(START.plusSeconds(1), due::add);
+        assertTrue(wheel.add(START.plusSeconds(9), "next rotation"));
+        wheel.advance(START.plusSeconds(8), due::add);
+        assertEquals(List.of("last"), due);
+        wheel.advance(START.plusSeconds(60), due::add);
+        assertEquals(List.of("last", "next rotation"), due);
+    }
+}
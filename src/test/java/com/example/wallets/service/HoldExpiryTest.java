@@ -0,0 +1,87 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.HoldProperties;
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.model.HoldBalance;
+import com.example.wallets.repository.WalletHoldRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.stream.BalanceNotifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class HoldExpiryTest {
+
+    private final WalletHoldRepository repository = Mockito.mock(WalletHoldRepository.class);
+    private HoldExpiry expiry;
+
+    @BeforeEach
+    void start() {
+        Mockito.when(repository.findExpiring(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenReturn(Flux.empty());
+        Mockito.when(repository.expire(Mockito.any(), Mockito.any())).thenReturn(Flux.empty());
+        HoldProperties properties = new HoldProperties();
+        properties.setTick(Duration.ofMillis(10));
+        properties.setWheelSize(256);
+        expiry = new HoldExpiry(repository, properties,
+                new ShardRouting(new ShardProperties(), new ReplicaProperties(), null),
+                Mockito.mock(LedgerWriter.class), new BalanceNotifier(null, new StreamProperties()));
+        expiry.run(null);
+        Mockito.verify(repository, Mockito.timeout(2000))
+                .findExpiring(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @AfterEach
+    void stop() {
+        expiry.destroy();
+    }
+
+    @Test
+    @DisplayName("A hold placed through another instance within the loaded window is expired here")
+    void whenHoldPlacedElsewhere_thanItIsExpiredWithoutReload() {
+        UUID holdId = UUID.randomUUID();
+        Mockito.when(repository.expire(Mockito.argThat(ids -> ids != null && Arrays.asList(ids).contains(holdId)),
+                        Mockito.any()))
+                .thenReturn(Flux.just(released(holdId)));
+
+        expiry.deliverPlaced(holdId, UUID.randomUUID(), Instant.now().plusMillis(50));
+
+        Mockito.verify(repository, Mockito.timeout(2000))
+                .expire(Mockito.argThat(ids -> ids != null && Arrays.asList(ids).contains(holdId)), Mockito.any());
+        Mockito.verify(repository, Mockito.times(1))
+                .findExpiring(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("A hold settled through another instance is dropped from the wheel")
+    void whenHoldSettledElsewhere_thanItIsNotExpired() {
+        UUID holdId = UUID.randomUUID();
+
+        expiry.deliverPlaced(holdId, UUID.randomUUID(), Instant.now().plusMillis(50));
+        expiry.deliverSettled(holdId);
+
+        Mockito.verify(repository, Mockito.after(300).never()).expire(Mockito.any(), Mockito.any());
+    }
+
+    private static HoldBalance released(UUID holdId) {
+        HoldBalance hold = new HoldBalance();
+        hold.setHoldId(holdId);
+        hold.setWalletId(UUID.randomUUID());
+        hold.setAmount(new BigDecimal("5.0"));
+        hold.setBalance(new BigDecimal("10.0"));
+        hold.setHeld(BigDecimal.ZERO);
+        hold.setVersion(2L);
+        return hold;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.IdempotencyProperties;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.exceptions.IdempotencyKeyConflictException;
+import com.example.wallets.model.IdempotentBalance;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.IdempotencyKeyRepository;
+import com.example.wallets.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IdempotentOperationsTest {
+
+    private final WalletRepository walletRepository = Mockito.mock(WalletRepository.class);
+    private final LedgerWriter ledger = Mockito.mock(LedgerWriter.class);
+    private final IdempotentOperations operations = new IdempotentOperations(walletRepository,
+            Mockito.mock(IdempotencyKeyRepository.class), Mockito.mock(StripedWalletOperations.class), ledger,
+            null, new IdempotencyProperties());
+
+    @Test
+    @DisplayName("A key reused for the same operation replays its result, for another one it is rejected")
+    void whenKeyIsReused_thanOnlyTheSameOperationIsReplayed() {
+        UUID walletId = UUID.randomUUID();
+        Mockito.when(walletRepository.depositOnce(Mockito.eq(walletId), Mockito.any(), Mockito.eq("key-1"), Mockito.any()))
+                .thenReturn(Mono.just(stored(walletId, "DEPOSIT", "10.0")));
+
+        IdempotentOutcome replayed = operations.execute("key-1",
+                        new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("10.0")))
+                .block(Duration.ofSeconds(5));
+
+        assertTrue(replayed.replayed());
+        assertEquals(Money.of("110.0"), replayed.response().getAmount());
+        assertThrows(IdempotencyKeyConflictException.class, () -> operations.execute("key-1",
+                        new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("20.0")))
+                .block(Duration.ofSeconds(5)));
+        assertThrows(IdempotencyKeyConflictException.class, () -> operations.execute("key-1",
+                        new WalletRequest(UUID.randomUUID(), OperationType.DEPOSIT, Money.of("10.0")))
+                .block(Duration.ofSeconds(5)));
+        Mockito.verifyNoInteractions(ledger);
+    }
+
+    private static IdempotentBalance stored(UUID walletId, String type, String amount) {
+        IdempotentBalance balance = new IdempotentBalance();
+        balance.setWalletId(walletId);
+        balance.setBalance(new BigDecimal("110.0"));
+        balance.setType(type);
+        balance.setAmount(new BigDecimal(amount));
+        balance.setReplayed(true);
+        return balance;
+    }
+}
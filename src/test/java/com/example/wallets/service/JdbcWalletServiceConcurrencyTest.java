@@ -0,0 +1,17 @@
+package com.example.wallets.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"wallet.jdbc.enabled=true", "wallet.jdbc.maximum-pool-size=8", "wallet.cache.enabled=false"})
+public class JdbcWalletServiceConcurrencyTest extends WalletServiceConcurrencyTest {
+
+    @DynamicPropertySource
+    static void jdbcEngineProperties(DynamicPropertyRegistry registry) {
+        registry.add("wallet.jdbc.url", POSTGRES::getJdbcUrl);
+        registry.add("wallet.jdbc.username", POSTGRES::getUsername);
+        registry.add("wallet.jdbc.password", POSTGRES::getPassword);
+    }
+}
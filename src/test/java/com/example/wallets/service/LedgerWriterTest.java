@@ -0,0 +1,96 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.LedgerProperties;
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.money.Money;
+import com.example.wallets.repository.WalletOperationRepository;
+import com.example.wallets.shard.ShardRouting;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LedgerWriterTest {
+
+    @Test
+    @DisplayName("A batch whose insert fails is retried instead of dropped")
+    void whenInsertFails_thanBatchIsRetried() throws InterruptedException {
+        WalletOperationRepository repository = Mockito.mock(WalletOperationRepository.class);
+        AtomicInteger attempts = new AtomicInteger();
+        List<UUID> written = new CopyOnWriteArrayList<>();
+        Mockito.when(repository.insertAll(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any()))
+                .thenAnswer(invocation -> {
+                    if (attempts.incrementAndGet() <= 2) {
+                        return Mono.error(new IllegalStateException("connection lost"));
+                    }
+                    UUID[] walletIds = invocation.getArgument(0);
+                    written.addAll(List.of(walletIds));
+                    return Mono.just(walletIds.length);
+                });
+        LedgerProperties properties = new LedgerProperties();
+        properties.setMaxLinger(Duration.ofMillis(100));
+        properties.setRetryDelay(Duration.ofMillis(10));
+        LedgerWriter ledger = new LedgerWriter(repository, properties,
+                new ShardRouting(new ShardProperties(), new ReplicaProperties(), null));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        ledger.record(first, OperationType.DEPOSIT, Money.of("1.0"), Money.of("1.0"), 1L);
+        ledger.record(second, OperationType.DEPOSIT, Money.of("2.0"), Money.of("2.0"), 1L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (written.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(List.of(first, second), written);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Shutting down while a retry is pending writes every entry exactly once")
+    void whenDrainedWhileRetryIsPending_thanEachEntryIsWrittenOnce() throws InterruptedException {
+        WalletOperationRepository repository = Mockito.mock(WalletOperationRepository.class);
+        AtomicInteger attempts = new AtomicInteger();
+        List<UUID> written = new CopyOnWriteArrayList<>();
+        Mockito.when(repository.insertAll(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any()))
+                .thenAnswer(invocation -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        return Mono.error(new IllegalStateException("connection lost"));
+                    }
+                    UUID[] walletIds = invocation.getArgument(0);
+                    written.addAll(List.of(walletIds));
+                    return Mono.just(walletIds.length);
+                });
+        LedgerProperties properties = new LedgerProperties();
+        properties.setMaxLinger(Duration.ofMillis(10));
+        properties.setRetryDelay(Duration.ofMillis(200));
+        LedgerWriter ledger = new LedgerWriter(repository, properties,
+                new ShardRouting(new ShardProperties(), new ReplicaProperties(), null));
+        UUID failed = UUID.randomUUID();
+        UUID queued = UUID.randomUUID();
+
+        ledger.record(failed, OperationType.DEPOSIT, Money.of("1.0"), Money.of("1.0"), 1L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (attempts.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        ledger.record(queued, OperationType.DEPOSIT, Money.of("2.0"), Money.of("3.0"), 2L);
+        ledger.drain();
+        Thread.sleep(400);
+
+        assertEquals(List.of(failed, queued), written);
+        assertEquals(3, attempts.get());
+    }
+}
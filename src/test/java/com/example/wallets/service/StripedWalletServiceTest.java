@@ -0,0 +1,114 @@
+package com.example.wallets.service;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletProvisionRequest;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "wallet.cache.enabled=false")
+public class StripedWalletServiceTest extends AbstractPostgresTest {
+
+    private static final int OPERATIONS = 2000;
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private WalletProvisioner provisioner;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("Parallel deposits and withdrawals on a striped wallet add up in the summed balance")
+    void whenParallelOperationsOnStripedWallet_thanSummedBalanceIsConsistent() {
+        UUID walletId = wallet("100");
+        assertEquals(Money.of("100"), service.enableStriping(walletId, 8).block(Duration.ofSeconds(5)).getAmount());
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Flux.range(0, OPERATIONS)
+                .flatMap(i -> {
+                    OperationType type = i % 2 == 0 ? OperationType.DEPOSIT : OperationType.WITHDRAW;
+                    Mono<WalletResponse> operation = service.createOperationByWallet(
+                            new WalletRequest(walletId, type, Money.of("1")));
+                    return operation
+                            .doOnNext(response -> {
+                                assertTrue(response.getAmount().compareTo(Money.ZERO) >= 0);
+                                (type == OperationType.DEPOSIT ? deposits : withdrawals).incrementAndGet();
+                            })
+                            .onErrorResume(InsufficientFundsException.class, ex -> {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, 128)
+                .blockLast(Duration.ofMinutes(2));
+
+        Money expected = Money.of("100").plus(Money.ofMinorUnits((deposits.get() - withdrawals.get()) * 10L));
+        assertEquals(OPERATIONS, deposits.get() + withdrawals.get() + rejected.get());
+        assertEquals(expected, service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+    }
+
+    @Test
+    @DisplayName("A withdrawal larger than any slot but within the total consolidates the slots")
+    void whenWithdrawalExceedsEverySlot_thanSlotsAreConsolidated() {
+        UUID walletId = wallet("0");
+        service.enableStriping(walletId, 4).block(Duration.ofSeconds(5));
+        databaseClient.sql("UPDATE wallet_slot SET balance = 25 WHERE wallet_id = :walletId")
+                .bind("walletId", walletId)
+                .then()
+                .block(Duration.ofSeconds(5));
+        assertEquals(Money.of("100"), service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+
+        WalletResponse withdrawn = service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("60"))).block(Duration.ofSeconds(5));
+
+        assertEquals(Money.of("40"), withdrawn.getAmount());
+        assertEquals(Money.of("40"), service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+        assertThrows(InsufficientFundsException.class, () -> service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("41"))).block(Duration.ofSeconds(5)));
+        assertEquals(Money.of("40"), service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+    }
+
+    @Test
+    @DisplayName("Striping is refused for a wallet with holds or striped over another slot count")
+    void whenStripingConflicts_thanItIsRejected() {
+        UUID held = wallet("100");
+        service.placeHold(held, new HoldRequest(Money.of("10"), null)).block(Duration.ofSeconds(5));
+        assertThrows(NotValidJsonException.class, () -> service.enableStriping(held, 4).block(Duration.ofSeconds(5)));
+
+        UUID walletId = wallet("100");
+        service.enableStriping(walletId, 4).block(Duration.ofSeconds(5));
+        assertEquals(Money.of("100"), service.enableStriping(walletId, 4).block(Duration.ofSeconds(5)).getAmount());
+        assertThrows(NotValidJsonException.class, () -> service.enableStriping(walletId, 8).block(Duration.ofSeconds(5)));
+    }
+
+    private UUID wallet(String balance) {
+        UUID walletId = UUID.randomUUID();
+        provisioner.provision(Flux.just(new WalletProvisionRequest(walletId, Money.of(balance))))
+                .block(Duration.ofSeconds(5));
+        return walletId;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.WalletCacheProperties;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WalletBalanceCacheTest {
+
+    private final WalletBalanceCache cache = new WalletBalanceCache(new WalletCacheProperties());
+
+    @Test
+    @DisplayName("A balance written through late does not replace a newer cached one")
+    void whenOlderVersionIsPutLast_thanNewerBalanceStaysCached() {
+        UUID walletId = UUID.randomUUID();
+        cache.put(new WalletResponse(walletId, Money.of("20.0"), 2L));
+        cache.put(new WalletResponse(walletId, Money.of("10.0"), 1L));
+
+        assertEquals(Money.of("20.0"), cached(walletId).getAmount());
+
+        cache.put(new WalletResponse(walletId, Money.of("30.0"), 3L));
+        assertEquals(Money.of("30.0"), cached(walletId).getAmount());
+    }
+
+    @Test
+    @DisplayName("A balance without a version evicts the wallet instead of being cached")
+    void whenPutWithoutVersion_thanWalletIsReloaded() {
+        UUID walletId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        cache.put(new WalletResponse(walletId, Money.of("20.0"), 2L));
+        cache.put(new WalletResponse(walletId, Money.of("5.0")));
+
+        WalletResponse loaded = cache.get(walletId, id -> {
+            loads.incrementAndGet();
+            return Mono.just(new WalletResponse(id, Money.of("7.0"), 3L));
+        }).block(Duration.ofSeconds(5));
+
+        assertEquals(1, loads.get());
+        assertEquals(Money.of("7.0"), loaded.getAmount());
+    }
+
+    @Test
+    @DisplayName("A write during a load replaces it, and the load's stale balance is not cached")
+    void whenPutDuringLoad_thanLoadedBalanceIsDropped() {
+        UUID walletId = UUID.randomUUID();
+        Sinks.One<WalletResponse> load = Sinks.one();
+        Mono<WalletResponse> reader = cache.get(walletId, id -> load.asMono()).cache();
+        reader.subscribe();
+
+        cache.put(new WalletResponse(walletId, Money.of("20.0"), 2L));
+        load.tryEmitValue(new WalletResponse(walletId, Money.of("10.0"), 1L));
+
+        assertEquals(Money.of("10.0"), reader.block(Duration.ofSeconds(5)).getAmount());
+        assertEquals(Money.of("20.0"), cached(walletId).getAmount());
+    }
+
+    private WalletResponse cached(UUID walletId) {
+        return cache.get(walletId, id -> Mono.error(new AssertionError("unexpected load of " + id)))
+                .block(Duration.ofSeconds(5));
+    }
+}
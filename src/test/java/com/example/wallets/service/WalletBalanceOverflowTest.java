@@ -0,0 +1,91 @@
+package com.example.wallets.service;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletProvisionRequest;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.exceptions.GlobalExceptionHandler;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.exceptions.response.ErrorResponse;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "wallet.cache.enabled=false")
+public class WalletBalanceOverflowTest extends AbstractPostgresTest {
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private WalletProvisioner provisioner;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("A deposit past the largest balance is rolled back and answered with a 400")
+    void whenDepositOverflowsBalance_thanItIsRejectedAsInvalid() {
+        UUID walletId = wallet("922337203685477580.0");
+
+        Exception ex = assertThrows(Exception.class, () -> service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("1.0"))).block(Duration.ofSeconds(5)));
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleDataIntegrityViolation(ex);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid JSON: amount exceeds the supported balance", response.getBody().getMessage());
+        assertEquals(Money.of("922337203685477580.0"),
+                service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+    }
+
+    @Test
+    @DisplayName("Concurrent deposits into the slots of a striped wallet cannot take its total past the largest balance")
+    void whenStripedDepositsWouldOverflow_thanEachSlotStopsAtItsCap() {
+        UUID walletId = wallet("0");
+        service.enableStriping(walletId, 2).block(Duration.ofSeconds(5));
+        databaseClient.sql("UPDATE wallet_slot SET balance = 461168601842738789.3 WHERE wallet_id = :walletId")
+                .bind("walletId", walletId)
+                .then()
+                .block(Duration.ofSeconds(5));
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Flux.range(0, 20)
+                .flatMap(i -> service.createOperationByWallet(
+                                new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("1.0")))
+                        .doOnNext(response -> applied.incrementAndGet())
+                        .onErrorResume(NotValidJsonException.class, ex -> {
+                            rejected.incrementAndGet();
+                            return Mono.empty();
+                        }), 20)
+                .blockLast(Duration.ofSeconds(30));
+
+        assertEquals(20, applied.get() + rejected.get());
+        assertTrue(applied.get() >= 1 && applied.get() <= 2);
+        assertEquals(Money.of("922337203685477578.6").plus(Money.ofMinorUnits(applied.get() * 10L)),
+                service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+    }
+
+    private UUID wallet(String balance) {
+        UUID walletId = UUID.randomUUID();
+        provisioner.provision(Flux.just(new WalletProvisionRequest(walletId, Money.of(balance))))
+                .block(Duration.ofSeconds(5));
+        return walletId;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.wallets.service;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletProvisionRequest;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.HoldResponse;
+import com.example.wallets.exceptions.HoldNotFoundException;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"wallet.cache.enabled=false", "wallet.holds.tick=100ms"})
+public class WalletHoldTest extends AbstractPostgresTest {
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private WalletProvisioner provisioner;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("A hold limits withdrawals to the available balance and a partial capture releases the rest")
+    void whenHoldAndCapture_thanOnlyCapturedAmountIsSettled() {
+        UUID walletId = wallet("100");
+        HoldResponse hold = service.placeHold(walletId, new HoldRequest(Money.of("60"), null))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(Money.of("100"), hold.getBalance());
+        assertEquals(Money.of("40"), hold.getAvailable());
+        assertThrows(InsufficientFundsException.class, () -> service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("50"))).block(Duration.ofSeconds(5)));
+
+        HoldResponse captured = service.captureHold(walletId, hold.getHoldId(), new HoldRequest(Money.of("25"), null))
+                .block(Duration.ofSeconds(5));
+        assertEquals(Money.of("25"), captured.getAmount());
+        assertEquals(Money.of("75"), captured.getBalance());
+        assertEquals(Money.of("75"), captured.getAvailable());
+        assertThrows(HoldNotFoundException.class, () -> service.releaseHold(walletId, hold.getHoldId())
+                .block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("An expired hold is released by the timing wheel and can no longer be captured")
+    void whenHoldExpires_thanHeldAmountIsReleased() throws InterruptedException {
+        UUID walletId = wallet("100");
+        HoldResponse hold = service.placeHold(walletId, new HoldRequest(Money.of("100"), 1L))
+                .block(Duration.ofSeconds(5));
+        assertEquals(Money.ZERO, hold.getAvailable());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (held(walletId).signum() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(0, held(walletId).signum());
+        assertThrows(HoldNotFoundException.class, () -> service.captureHold(walletId, hold.getHoldId(), null)
+                .block(Duration.ofSeconds(5)));
+        assertEquals(Money.ZERO, service.createOperationByWallet(
+                        new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("100")))
+                .block(Duration.ofSeconds(5)).getAmount());
+    }
+
+    private UUID wallet(String balance) {
+        UUID walletId = UUID.randomUUID();
+        provisioner.provision(Flux.just(new WalletProvisionRequest(walletId, Money.of(balance))))
+                .block(Duration.ofSeconds(5));
+        return walletId;
+    }
+
+    private BigDecimal held(UUID walletId) {
+        return databaseClient.sql("SELECT held FROM wallet WHERE wallet_id = :walletId")
+                .bind("walletId", walletId)
+                .map(row -> row.get("held", BigDecimal.class))
+                .one()
+                .block(Duration.ofSeconds(5));
+    }
+}
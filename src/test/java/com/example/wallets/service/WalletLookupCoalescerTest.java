@@ -0,0 +1,58 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.LookupProperties;
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.model.Wallet;
+import com.example.wallets.replica.ReplicaRouting;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.shard.ShardRouting;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WalletLookupCoalescerTest {
+
+    @Test
+    @DisplayName("Concurrent lookups within the linger window share one query")
+    void whenConcurrentLookups_thanOneBatchedQuery() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        WalletRepository repository = Mockito.mock(WalletRepository.class);
+        Mockito.when(repository.findAllByWalletIds(Mockito.any()))
+                .thenReturn(Flux.just(wallet(first), wallet(second)));
+        LookupProperties properties = new LookupProperties();
+        properties.setMaxLinger(Duration.ofMillis(50));
+        WalletLookupCoalescer coalescer = new WalletLookupCoalescer(repository, properties,
+                new ReplicaRouting(new ReplicaProperties()),
+                new ShardRouting(new ShardProperties(), new ReplicaProperties(), null));
+
+        List<Wallet> found = Flux.merge(coalescer.load(first), coalescer.load(second), coalescer.load(missing),
+                        coalescer.load(first))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(3, found.size());
+        assertTrue(found.stream().noneMatch(wallet -> wallet.getWalletId().equals(missing)));
+        Mockito.verify(repository, Mockito.times(1))
+                .findAllByWalletIds(Mockito.argThat(walletIds -> walletIds.length == 3));
+    }
+
+    private static Wallet wallet(UUID walletId) {
+        Wallet wallet = new Wallet();
+        wallet.setWalletId(walletId);
+        wallet.setBalance(BigDecimal.TEN);
+        wallet.setSlots(0);
+        return wallet;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.wallets.service;
+
+import com.example.wallets.config.LookupProperties;
+import com.example.wallets.config.MetricsProperties;
+import com.example.wallets.config.ReplicaProperties;
+import com.example.wallets.config.ShardProperties;
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.config.WalletCacheProperties;
+import com.example.wallets.config.WalletOperationProperties;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletOperationResult;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.metrics.WalletMetrics;
+import com.example.wallets.replica.ReplicaRouting;
+import com.example.wallets.repository.WalletOperationRepository;
+import com.example.wallets.repository.WalletRepository;
+import com.example.wallets.shard.ShardRouting;
+import com.example.wallets.stream.BalanceNotifier;
+import com.example.wallets.stream.BalanceStreamHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class WalletOperationStreamTest {
+
+    @Test
+    @DisplayName("Undecodable lines fail alone, and a chunk waits for an earlier chunk on the same wallet")
+    void whenStreamHasBadLinesAndSharedWallets_thanItemsFailAloneAndApplyInOrder() {
+        UUID walletId = UUID.randomUUID();
+        UUID otherWalletId = UUID.randomUUID();
+        List<String> events = new CopyOnWriteArrayList<>();
+        WalletBatchExecutor executor = Mockito.mock(WalletBatchExecutor.class);
+        Mockito.when(executor.execute(Mockito.any())).thenAnswer(invocation -> {
+            List<WalletRequest> requests = invocation.getArgument(0);
+            WalletRequest request = requests.get(0);
+            events.add("start " + request.getType() + " " + request.getWalletId());
+            Duration delay = request.getWalletId().equals(walletId) && events.size() == 1
+                    ? Duration.ofMillis(200) : Duration.ZERO;
+            return Mono.delay(delay)
+                    .map(tick -> List.of(OperationOutcome.applied(
+                            new WalletResponse(request.getWalletId(), request.getAmount()))))
+                    .doOnNext(outcomes -> events.add("end " + request.getType() + " " + request.getWalletId()));
+        });
+        WalletServiceImpl service = service(executor);
+
+        List<WalletOperationResult> results = service.createOperationsByWalletLines(Flux.just(
+                        line(walletId, "DEPOSIT", "10"),
+                        "{\"walletId\":",
+                        line(otherWalletId, "REFUND", "5"),
+                        "",
+                        line(otherWalletId, "DEPOSIT", "5"),
+                        line(walletId, "WITHDRAW", "10")))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(5, results.size());
+        assertNull(results.get(0).getError());
+        assertEquals("Invalid JSON", results.get(1).getError());
+        assertEquals("Invalid JSON", results.get(2).getError());
+        assertNull(results.get(3).getError());
+        assertNull(results.get(4).getError());
+        assertEquals(walletId, results.get(4).getWalletId());
+        assertEquals(events.indexOf("end DEPOSIT " + walletId) + 1,
+                events.indexOf("start WITHDRAW " + walletId), events.toString());
+    }
+
+    private static String line(UUID walletId, String type, String amount) {
+        return "{\"walletId\":\"" + walletId + "\",\"type\":\"" + type + "\",\"amount\":" + amount + "}";
+    }
+
+    private static WalletServiceImpl service(WalletBatchExecutor executor) {
+        WalletOperationProperties properties = new WalletOperationProperties();
+        properties.getStream().setChunkSize(1);
+        properties.getStream().setConcurrency(4);
+        WalletCacheProperties cacheProperties = new WalletCacheProperties();
+        cacheProperties.setEnabled(false);
+        return new WalletServiceImpl(Mockito.mock(WalletRepository.class), Mockito.mock(StripedWalletOperations.class),
+                Mockito.mock(WalletOperationBatcher.class), executor, properties, new WalletBalanceCache(cacheProperties),
+                Mockito.mock(IdempotentOperations.class), Mockito.mock(LedgerWriter.class),
+                Mockito.mock(WalletOperationRepository.class),
+                new WalletMetrics(new SimpleMeterRegistry(), new MetricsProperties()), Mockito.mock(WalletExporter.class),
+                Mockito.mock(WalletLookupCoalescer.class), new LookupProperties(),
+                new ReplicaRouting(new ReplicaProperties()),
+                new BalanceStreamHub(new BalanceNotifier(null, new StreamProperties())),
+                new ShardRouting(new ShardProperties(), new ReplicaProperties(), null),
+                Mockito.mock(JdbcWalletEngine.class), Mockito.mock(WalletProvisioner.class),
+                Mockito.mock(HoldOperations.class), Jackson2ObjectMapperBuilder.json().build());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.wallets.service;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.config.ProvisioningProperties;
+import com.example.wallets.dto.request.WalletProvisionRequest;
+import com.example.wallets.dto.response.ProvisioningResponse;
+import com.example.wallets.exceptions.NotValidJsonException;
+import com.example.wallets.money.Money;
+import com.example.wallets.shard.ShardRouting;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"wallet.cache.enabled=false", "wallet.provisioning.chunk-size=1000"})
+public class WalletProvisionerTest extends AbstractPostgresTest {
+
+    @Autowired
+    private WalletProvisioner provisioner;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private ShardRouting shards;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("Supplied wallets are created with their balances by COPY and by the insert fallback")
+    void whenProvisionWallets_thanRowsAreCreatedWithBalances() {
+        ProvisioningProperties insertProperties = new ProvisioningProperties();
+        insertProperties.setCopy(false);
+        insertProperties.setInsertBatchSize(100);
+        WalletProvisioner inserts = new WalletProvisioner(connectionFactory, databaseClient, shards, insertProperties);
+
+        for (WalletProvisioner subject : List.of(provisioner, inserts)) {
+            List<WalletProvisionRequest> wallets = new ArrayList<>();
+            for (int i = 0; i < 2500; i++) {
+                wallets.add(new WalletProvisionRequest(UUID.randomUUID(), Money.ofMinorUnits(i)));
+            }
+            ProvisioningResponse response = subject.provision(Flux.fromIterable(wallets)).block(Duration.ofSeconds(30));
+
+            assertEquals(2500, response.getWallets());
+            assertEquals(subject == provisioner ? "copy" : "insert", response.getMethod());
+            for (WalletProvisionRequest wallet : List.of(wallets.get(0), wallets.get(1234), wallets.get(2499))) {
+                assertEquals(wallet.getBalance().toBigDecimal(), balance(wallet.getWalletId()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Generated wallets are counted, and an existing wallet ID is rejected")
+    void whenProvisionGeneratedAndDuplicateWallets_thanCountAndReject() {
+        long before = count();
+        ProvisioningResponse response = provisioner.provision(provisioner.generate(5000, Money.of("10"), Money.of("20")))
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(5000, response.getWallets());
+        assertEquals(before + 5000, count());
+        UUID existing = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        assertThrows(NotValidJsonException.class, () -> provisioner.provision(
+                        Flux.just(new WalletProvisionRequest(existing, Money.ZERO)))
+                .block(Duration.ofSeconds(30)));
+    }
+
+    private BigDecimal balance(UUID walletId) {
+        return databaseClient.sql("SELECT balance FROM wallet WHERE wallet_id = :walletId")
+                .bind("walletId", walletId)
+                .map(row -> row.get("balance", BigDecimal.class))
+                .one()
+                .block(Duration.ofSeconds(5));
+    }
+
+    private long count() {
+        return databaseClient.sql("SELECT count(*) AS wallets FROM wallet")
+                .map(row -> row.get("wallets", Long.class))
+                .one()
+                .block(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.wallets.service;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.HoldRequest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletProvisionRequest;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.exceptions.WalletNotFoundException;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "wallet.cache.enabled=false")
+public class WalletServiceConcurrencyTest extends AbstractPostgresTest {
+
+    private static final UUID WALLET_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final int OPERATIONS = 4000;
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private WalletProvisioner provisioner;
+
+    @Test
+    @DisplayName("Parallel deposits and withdrawals on one wallet lose no updates")
+    void whenParallelOperationsOnOneWallet_thanFinalBalanceIsConsistent() {
+        Money initial = service.getWalletByUuid(WALLET_ID).block().getAmount();
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Flux.range(0, OPERATIONS)
+                .flatMap(i -> {
+                    OperationType type = i % 2 == 0 ? OperationType.DEPOSIT : OperationType.WITHDRAW;
+                    Mono<WalletResponse> operation = service.createOperationByWallet(
+                            new WalletRequest(WALLET_ID, type, Money.of(BigDecimal.ONE)));
+                    return operation
+                            .doOnNext(response -> {
+                                assertTrue(response.getAmount().compareTo(Money.ZERO) >= 0);
+                                (type == OperationType.DEPOSIT ? deposits : withdrawals).incrementAndGet();
+                            })
+                            .onErrorResume(InsufficientFundsException.class, ex -> {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, 256)
+                .blockLast(Duration.ofMinutes(2));
+
+        Money expected = initial.plus(Money.of(BigDecimal.valueOf(deposits.get() - withdrawals.get())));
+        Money actual = service.getWalletByUuid(WALLET_ID).block().getAmount();
+
+        assertEquals(OPERATIONS, deposits.get() + withdrawals.get() + rejected.get());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Deposits and withdrawals return the new balance, and a missing wallet is not found")
+    void whenSingleOperations_thanBalancesAndMissingWalletsAreReported() {
+        UUID walletId = wallet("100");
+
+        assertEquals(Money.of("110"), service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("10"))).block(Duration.ofSeconds(5)).getAmount());
+        assertEquals(Money.of("80"), service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("30"))).block(Duration.ofSeconds(5)).getAmount());
+        assertEquals(Money.of("80"), service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+
+        UUID missing = UUID.randomUUID();
+        assertThrows(WalletNotFoundException.class, () -> service.getWalletByUuid(missing).block(Duration.ofSeconds(5)));
+        assertThrows(WalletNotFoundException.class, () -> service.createOperationByWallet(
+                new WalletRequest(missing, OperationType.DEPOSIT, Money.of("10"))).block(Duration.ofSeconds(5)));
+        assertThrows(WalletNotFoundException.class, () -> service.createOperationByWallet(
+                new WalletRequest(missing, OperationType.WITHDRAW, Money.of("10"))).block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("A withdrawal beyond the balance not under a hold is refused and changes nothing")
+    void whenWithdrawalExceedsAvailable_thanInsufficientFunds() {
+        UUID walletId = wallet("100");
+        assertThrows(InsufficientFundsException.class, () -> service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("100.1"))).block(Duration.ofSeconds(5)));
+
+        service.placeHold(walletId, new HoldRequest(Money.of("60"), null)).block(Duration.ofSeconds(5));
+        assertThrows(InsufficientFundsException.class, () -> service.createOperationByWallet(
+                new WalletRequest(walletId, OperationType.WITHDRAW, Money.of("50"))).block(Duration.ofSeconds(5)));
+
+        assertEquals(Money.of("100"), service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount());
+    }
+
+    private UUID wallet(String balance) {
+        UUID walletId = UUID.randomUUID();
+        provisioner.provision(Flux.just(new WalletProvisionRequest(walletId, Money.of(balance))))
+                .block(Duration.ofSeconds(5));
+        return walletId;
+    }
+}
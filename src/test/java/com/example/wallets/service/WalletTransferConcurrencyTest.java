@@ -0,0 +1,86 @@
+package com.example.wallets.service;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.TransferRequest;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.exceptions.InsufficientFundsException;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "wallet.cache.enabled=false")
+public class WalletTransferConcurrencyTest extends AbstractPostgresTest {
+
+    private static final int WALLETS = 8;
+    private static final int TRANSFERS = 4000;
+    private static final Money INITIAL_BALANCE = Money.of("100.00");
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("Transfers in both directions around a ring of wallets conserve the total balance")
+    void whenParallelTransfersAroundRing_thanTotalBalanceIsConserved() {
+        List<UUID> ring = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            ring.add(createWallet());
+        }
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Flux.range(0, TRANSFERS)
+                .flatMap(i -> {
+                    int from = i % WALLETS;
+                    int to = (i / WALLETS) % 2 == 0 ? (from + 1) % WALLETS : (from + WALLETS - 1) % WALLETS;
+                    Money amount = Money.of(BigDecimal.valueOf(1 + i % 7));
+                    return service.transfer(new TransferRequest(ring.get(from), ring.get(to), amount))
+                            .doOnNext(response -> {
+                                assertTrue(response.getFrom().getAmount().compareTo(Money.ZERO) >= 0);
+                                applied.incrementAndGet();
+                            })
+                            .onErrorResume(InsufficientFundsException.class, ex -> {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }, 256)
+                .blockLast(Duration.ofMinutes(2));
+
+        Money total = Flux.fromIterable(ring)
+                .concatMap(service::getWalletByUuid)
+                .map(WalletResponse::getAmount)
+                .reduce(Money.ZERO, Money::plus)
+                .block();
+
+        assertEquals(TRANSFERS, applied.get() + rejected.get());
+        assertEquals(Money.ofMinorUnits(INITIAL_BALANCE.getMinorUnits() * WALLETS), total);
+    }
+
+    private UUID createWallet() {
+        UUID walletId = UUID.randomUUID();
+        databaseClient.sql("INSERT INTO wallet (wallet_id, balance) VALUES (:walletId, :balance)")
+                .bind("walletId", walletId)
+                .bind("balance", INITIAL_BALANCE.toBigDecimal())
+                .then()
+                .block();
+        return walletId;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.wallets.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JumpHashTest {
+
+    private static final int WALLETS = 100_000;
+
+    @Test
+    @DisplayName("Adding a shard only moves wallets onto the new shard, about an equal share of them")
+    void whenShardAdded_thanOnlyItsShareOfWalletsMoves() {
+        int[] perShard = new int[4];
+        int moved = 0;
+        for (int i = 0; i < WALLETS; i++) {
+            UUID walletId = UUID.randomUUID();
+            int before = JumpHash.bucket(walletId, 3);
+            int after = JumpHash.bucket(walletId, 4);
+            perShard[after]++;
+            if (before != after) {
+                assertEquals(3, after);
+                moved++;
+            }
+            assertEquals(after, JumpHash.bucket(walletId, 4));
+        }
+
+        assertEquals(perShard[3], moved);
+        for (int count : perShard) {
+            assertTrue(Math.abs(count - WALLETS / 4) < WALLETS / 40, "uneven shard: " + count);
+        }
+    }
+}
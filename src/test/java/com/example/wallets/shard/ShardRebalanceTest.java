@@ -0,0 +1,118 @@
+package com.example.wallets.shard;
+
+import com.example.wallets.AbstractPostgresTest;
+import com.example.wallets.dto.request.OperationType;
+import com.example.wallets.dto.request.WalletRequest;
+import com.example.wallets.money.Money;
+import com.example.wallets.service.WalletServiceImpl;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shard 0 is the shared test database and shard 1 a second one, with wallets created before
+ * shard 1 was added. Only the test's own wallets are moved, since other tests use shard 0.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"wallet.cache.enabled=false", "wallet.sharding.enabled=true",
+                "wallet.sharding.previous-count=1", "wallet.sharding.rebalance-interval=1h"})
+public class ShardRebalanceTest extends AbstractPostgresTest {
+
+    private static final int WALLETS = 40;
+
+    @Container
+    private static final PostgreSQLContainer<?> SHARD = new PostgreSQLContainer<>("postgres:12.3")
+            .withDatabaseName("wallet")
+            .withUsername("wallet")
+            .withPassword("wallet");
+
+    @DynamicPropertySource
+    static void shardProperties(DynamicPropertyRegistry registry) {
+        registry.add("wallet.sharding.shards[0].url", ShardRebalanceTest::shardUrl);
+        registry.add("wallet.sharding.shards[0].username", SHARD::getUsername);
+        registry.add("wallet.sharding.shards[0].password", SHARD::getPassword);
+        registry.add("wallet.sharding.shards[0].jdbc-url", SHARD::getJdbcUrl);
+    }
+
+    @Autowired
+    private WalletServiceImpl service;
+
+    @Autowired
+    private ShardRouting routing;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("Wallets move to their new shard on first use or by the rebalancer, with their balance")
+    void whenShardAdded_thanWalletsMoveWithTheirBalance() {
+        DatabaseClient shardClient = DatabaseClient.create(ConnectionFactories.get(shardUrl()
+                .replace("r2dbc:postgresql://", "r2dbc:postgresql://wallet:wallet@")));
+        List<UUID> wallets = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            UUID walletId = UUID.randomUUID();
+            databaseClient.sql("INSERT INTO wallet (wallet_id, balance) VALUES (:walletId, 100)")
+                    .bind("walletId", walletId)
+                    .then()
+                    .block(Duration.ofSeconds(5));
+            wallets.add(walletId);
+        }
+        List<UUID> used = wallets.subList(0, WALLETS / 2);
+
+        Flux.fromIterable(used)
+                .flatMap(walletId -> service.createOperationByWallet(
+                        new WalletRequest(walletId, OperationType.DEPOSIT, Money.of("10"))))
+                .blockLast(Duration.ofSeconds(30));
+        Flux.fromIterable(wallets.subList(WALLETS / 2, WALLETS))
+                .filter(walletId -> routing.shardOf(walletId) == 1)
+                .concatMap(walletId -> rebalancer.move(walletId, 0, 1))
+                .blockLast(Duration.ofSeconds(30));
+
+        int moved = 0;
+        for (UUID walletId : wallets) {
+            boolean onShard1 = routing.shardOf(walletId) == 1;
+            BigDecimal expected = used.contains(walletId) ? new BigDecimal("110.0") : new BigDecimal("100.0");
+            assertEquals(onShard1 ? null : expected, balance(databaseClient, walletId));
+            assertEquals(onShard1 ? expected : null, balance(shardClient, walletId));
+            assertEquals(expected, service.getWalletByUuid(walletId).block(Duration.ofSeconds(5)).getAmount().toBigDecimal());
+            moved += onShard1 ? 1 : 0;
+        }
+        assertTrue(moved > 0, "no wallet hashed to shard 1");
+        assertEquals(null, balance(shardClient, UUID.fromString("550e8400-e29b-41d4-a716-446655440000")),
+                "seed wallets are only inserted on shard 0");
+    }
+
+    private static BigDecimal balance(DatabaseClient client, UUID walletId) {
+        return client.sql("SELECT balance FROM wallet WHERE wallet_id = :walletId")
+                .bind("walletId", walletId)
+                .map(row -> row.get("balance", BigDecimal.class))
+                .one()
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static String shardUrl() {
+        return "r2dbc:postgresql://" + SHARD.getHost() + ":" + SHARD.getFirstMappedPort() + "/" + SHARD.getDatabaseName();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.wallets.stream;
+
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import com.example.wallets.service.HoldExpiry;
+import io.r2dbc.postgresql.api.Notification;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class BalanceNotificationListenerTest {
+
+    private final BalanceNotifier notifier = new BalanceNotifier(null, new StreamProperties());
+    private final BalanceStreamHub hub = Mockito.mock(BalanceStreamHub.class);
+    private final HoldExpiry holdExpiry = Mockito.mock(HoldExpiry.class);
+    private final BalanceNotificationListener listener = new BalanceNotificationListener(null, notifier, hub, holdExpiry);
+
+    @Test
+    @DisplayName("Holds placed and settled on another instance reach the local hold expiry")
+    void whenHoldAnnouncedElsewhere_thanHoldExpiryIsTold() {
+        UUID holdId = UUID.randomUUID();
+        UUID walletId = UUID.randomUUID();
+        Instant expiresAt = Instant.ofEpochMilli(1_700_000_000_123L);
+
+        listener.deliver(notification("other,H," + holdId + "," + walletId + "," + expiresAt.toEpochMilli()));
+        listener.deliver(notification("other,S," + holdId));
+
+        Mockito.verify(holdExpiry).deliverPlaced(holdId, walletId, expiresAt);
+        Mockito.verify(holdExpiry).deliverSettled(holdId);
+        Mockito.verifyNoInteractions(hub);
+    }
+
+    @Test
+    @DisplayName("Balance changes from another instance are delivered, this instance's own are skipped")
+    void whenBalanceAnnounced_thanOnlyOtherInstancesAreDelivered() {
+        UUID walletId = UUID.randomUUID();
+
+        listener.deliver(notification("other,B," + walletId + ",12.5,7"));
+        listener.deliver(notification(notifier.instanceId() + ",B," + walletId + ",13.5,8"));
+
+        Mockito.verify(hub).deliver(Mockito.argThat((WalletResponse response) -> response.getWalletId().equals(walletId)
+                && response.getAmount().equals(Money.of("12.5")) && Long.valueOf(7).equals(response.getVersion())));
+        Mockito.verifyNoMoreInteractions(hub);
+        Mockito.verifyNoInteractions(holdExpiry);
+    }
+
+    private static Notification notification(String payload) {
+        Notification notification = Mockito.mock(Notification.class);
+        Mockito.when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+}
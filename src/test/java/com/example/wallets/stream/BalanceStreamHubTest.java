@@ -0,0 +1,88 @@
+package com.example.wallets.stream;
+
+import com.example.wallets.config.StreamProperties;
+import com.example.wallets.dto.response.WalletResponse;
+import com.example.wallets.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BalanceStreamHubTest {
+
+    private final BalanceStreamHub hub = new BalanceStreamHub(new BalanceNotifier(null, new StreamProperties()));
+
+    @Test
+    @DisplayName("A slow subscriber receives only the latest balance, and the channel closes with it")
+    void whenSubscriberFallsBehind_thanChangesAreConflated() {
+        UUID walletId = UUID.randomUUID();
+        List<Money> received = new ArrayList<>();
+        BaseSubscriber<WalletResponse> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(WalletResponse response) {
+                received.add(response.getAmount());
+            }
+        };
+        hub.subscribe(new WalletResponse(walletId, Money.of("1.0"))).subscribe(subscriber);
+
+        for (int i = 2; i <= 1000; i++) {
+            hub.publish(new WalletResponse(walletId, Money.ofMinorUnits(i * 10L)));
+        }
+        subscriber.request(10);
+
+        assertEquals(List.of(Money.of("1.0"), Money.of("1000.0")), received);
+        assertEquals(1, hub.channels());
+        subscriber.dispose();
+        assertEquals(0, hub.channels());
+    }
+
+    @Test
+    @DisplayName("A late subscriber starts from the newest balance, not its stale starting one")
+    void whenChannelHasNewerBalance_thanLateSubscriberStartsFromIt() {
+        UUID walletId = UUID.randomUUID();
+        List<Money> first = new ArrayList<>();
+        List<Money> second = new ArrayList<>();
+        Disposable firstSubscription = hub.subscribe(new WalletResponse(walletId, Money.of("1.0")))
+                .subscribe(response -> first.add(response.getAmount()));
+        hub.publish(new WalletResponse(walletId, Money.of("5.0")));
+
+        Disposable secondSubscription = hub.subscribe(new WalletResponse(walletId, Money.of("1.0")))
+                .subscribe(response -> second.add(response.getAmount()));
+        hub.publish(new WalletResponse(walletId, Money.of("7.0")));
+
+        assertEquals(List.of(Money.of("1.0"), Money.of("5.0"), Money.of("7.0")), first);
+        assertEquals(List.of(Money.of("5.0"), Money.of("7.0")), second);
+        firstSubscription.dispose();
+        secondSubscription.dispose();
+    }
+
+    @Test
+    @DisplayName("A change that arrives after a newer one is dropped, and a change without a version goes through")
+    void whenOlderVersionArrivesLate_thanItIsDropped() {
+        UUID walletId = UUID.randomUUID();
+        List<Money> received = new ArrayList<>();
+        Disposable subscription = hub.subscribe(new WalletResponse(walletId, Money.of("1.0"), 1L))
+                .subscribe(response -> received.add(response.getAmount()));
+
+        hub.deliver(new WalletResponse(walletId, Money.of("3.0"), 3L));
+        hub.deliver(new WalletResponse(walletId, Money.of("2.0"), 2L));
+        hub.deliver(new WalletResponse(walletId, Money.of("3.0"), 3L));
+        hub.deliver(new WalletResponse(walletId, Money.of("9.0")));
+        hub.deliver(new WalletResponse(walletId, Money.of("4.0"), 4L));
+
+        assertEquals(List.of(Money.of("1.0"), Money.of("3.0"), Money.of("9.0"), Money.of("4.0")), received);
+        subscription.dispose();
+    }
+}